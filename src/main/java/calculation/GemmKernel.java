@@ -0,0 +1,286 @@
+package calculation;
+
+import java.util.Arrays;
+
+import representations.Matrix;
+import representations.OriginalMatrix;
+import representations.TransposedMatrix;
+
+/*
+ * Blocked matrix multiplication kernel used by MatrixCalculator
+ *
+ * C += A * B is computed the same way tuned BLAS libraries do it:
+ * - B is cut into KC x NC panels and A into MC x KC blocks. A packed block of A
+ * stays in L2 while it is reused, and a KC x NR sliver of B stays in L1
+ * - Both are packed into contiguous buffers in exactly the order the
+ * micro-kernel reads them, so the inner loop never strides through memory
+ * - The micro-kernel computes an MR x NR tile of C in local variables, which the
+ * JIT keeps in registers, with the k-loop fully unrolled across the tile
+ *
+ * Every element of C gets its partial sums added in the same order no matter
+ * how the rows and columns of C are split up, so callers can divide the work
+ * between threads and still get bit-identical results
+ */
+final class GemmKernel {
+	static final int MR = 4;
+	static final int NR = 4;
+	static final int MC = 128;
+	static final int KC = 256;
+	static final int NC = 1024;
+	/* Products with fewer multiply-adds than this skip the packing */
+	static final long SMALL_PRODUCT = 1L << 15;
+
+	private GemmKernel() {
+	}
+
+	/*
+	 * Read-only description of a dense operand: element (i, j) is
+	 * data[offset + i * rowStride + j * columnStride]
+	 */
+	static final class Operand {
+		final double[] data;
+		final int offset;
+		final int rowStride;
+		final int columnStride;
+
+		private Operand(double[] data, int offset, int rowStride, int columnStride) {
+			this.data = data;
+			this.offset = offset;
+			this.rowStride = rowStride;
+			this.columnStride = columnStride;
+		}
+
+		/*
+		 * Dense matricies and transposed views of them are read in place. Anything
+		 * else is copied once into a dense matrix first
+		 */
+		static Operand of(Matrix m) {
+			if (m instanceof OriginalMatrix dense)
+				return new Operand(dense.getBackingArray(), dense.getOffset(), dense.getStride(), 1);
+
+			if (m instanceof TransposedMatrix && m.transposed() instanceof OriginalMatrix dense)
+				return new Operand(dense.getBackingArray(), dense.getOffset(), 1, dense.getStride());
+
+			OriginalMatrix copy = new OriginalMatrix(m.getRowVectors());
+			return new Operand(copy.getBackingArray(), 0, copy.getStride(), 1);
+		}
+	}
+
+	/*
+	 * C[rowFrom:rowTo, columnFrom:columnTo] += A[rowFrom:rowTo, :] * B[:, columnFrom:columnTo]
+	 */
+	static void multiplyAdd(Operand a, Operand b, int inner, OriginalMatrix c,
+			int rowFrom, int rowTo, int columnFrom, int columnTo) {
+		int rows = rowTo - rowFrom;
+		int columns = columnTo - columnFrom;
+		if ((long) rows * columns * inner < SMALL_PRODUCT) {
+			multiplyAddSmall(a, b, inner, c, rowFrom, rowTo, columnFrom, columnTo);
+			return;
+		}
+
+		// Only as large as the blocks of this product, rounded up to whole slivers
+		int kcMax = Math.min(KC, inner);
+		double[] packedA = new double[roundUp(Math.min(MC, rows), MR) * kcMax];
+		double[] packedB = new double[roundUp(Math.min(NC, columns), NR) * kcMax];
+		double[] edge = new double[MR * NR];
+
+		double[] cData = c.getBackingArray();
+		int cOffset = c.getOffset();
+		int cStride = c.getStride();
+
+		for (int jc = columnFrom; jc < columnTo; jc += NC) {
+			int nc = Math.min(NC, columnTo - jc);
+
+			for (int pc = 0; pc < inner; pc += KC) {
+				int kc = Math.min(KC, inner - pc);
+				packB(b, pc, kc, jc, nc, packedB);
+
+				for (int ic = rowFrom; ic < rowTo; ic += MC) {
+					int mc = Math.min(MC, rowTo - ic);
+					packA(a, ic, mc, pc, kc, packedA);
+
+					for (int jr = 0; jr < nc; jr += NR) {
+						int nr = Math.min(NR, nc - jr);
+						for (int ir = 0; ir < mc; ir += MR) {
+							int mr = Math.min(MR, mc - ir);
+							microKernel(kc, packedA, ir * kc, packedB, jr * kc,
+									cData, cOffset + (ic + ir) * cStride + jc + jr, cStride, mr, nr, edge);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * Products too small to pay for packing. Each element still gets one
+	 * partial sum per KC slice of the inner dimension, added in the same order
+	 * as in the micro-kernel, so the result is the same bit for bit
+	 */
+	private static void multiplyAddSmall(Operand a, Operand b, int inner, OriginalMatrix c,
+			int rowFrom, int rowTo, int columnFrom, int columnTo) {
+		double[] aData = a.data;
+		double[] bData = b.data;
+		double[] cData = c.getBackingArray();
+		for (int i = rowFrom; i < rowTo; i++) {
+			int aRow = a.offset + i * a.rowStride;
+			int cRow = c.getOffset() + i * c.getStride();
+			for (int j = columnFrom; j < columnTo; j++) {
+				int bColumn = b.offset + j * b.columnStride;
+				for (int pc = 0; pc < inner; pc += KC) {
+					int end = Math.min(inner, pc + KC);
+					double sum = 0;
+					for (int p = pc; p < end; p++) {
+						sum += aData[aRow + p * a.columnStride] * bData[bColumn + p * b.rowStride];
+					}
+					cData[cRow + j] += sum;
+				}
+			}
+		}
+	}
+
+	private static int roundUp(int value, int multiple) {
+		return (value + multiple - 1) / multiple * multiple;
+	}
+
+	/* ================================= Packing ================================ */
+	/*
+	 * Packs A[i0:i0+mc, p0:p0+kc] as consecutive MR-row slivers. Within a sliver
+	 * the MR values of column p are stored next to each other. Rows past the edge
+	 * are padded with zeros so the micro-kernel never needs a bounds check
+	 */
+	private static void packA(Operand a, int i0, int mc, int p0, int kc, double[] packed) {
+		double[] data = a.data;
+		int index = 0;
+		for (int ir = 0; ir < mc; ir += MR) {
+			int mr = Math.min(MR, mc - ir);
+			for (int p = 0; p < kc; p++) {
+				int source = a.offset + (i0 + ir) * a.rowStride + (p0 + p) * a.columnStride;
+				for (int r = 0; r < mr; r++) {
+					packed[index + r] = data[source + r * a.rowStride];
+				}
+				for (int r = mr; r < MR; r++) {
+					packed[index + r] = 0;
+				}
+				index += MR;
+			}
+		}
+	}
+
+	/*
+	 * Packs B[p0:p0+kc, j0:j0+nc] as consecutive NR-column slivers, the mirror
+	 * image of packA
+	 */
+	private static void packB(Operand b, int p0, int kc, int j0, int nc, double[] packed) {
+		double[] data = b.data;
+		int index = 0;
+		for (int jr = 0; jr < nc; jr += NR) {
+			int nr = Math.min(NR, nc - jr);
+			for (int p = 0; p < kc; p++) {
+				int source = b.offset + (p0 + p) * b.rowStride + (j0 + jr) * b.columnStride;
+				for (int c = 0; c < nr; c++) {
+					packed[index + c] = data[source + c * b.columnStride];
+				}
+				for (int c = nr; c < NR; c++) {
+					packed[index + c] = 0;
+				}
+				index += NR;
+			}
+		}
+	}
+
+	/* ============================== Micro-kernel ============================== */
+	private static void microKernel(int kc, double[] a, int aIndex, double[] b, int bIndex,
+			double[] c, int cIndex, int cStride, int mr, int nr, double[] edge) {
+		double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+		double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+		double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+		double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+
+		for (int p = 0; p < kc; p++) {
+			double a0 = a[aIndex];
+			double a1 = a[aIndex + 1];
+			double a2 = a[aIndex + 2];
+			double a3 = a[aIndex + 3];
+			double b0 = b[bIndex];
+			double b1 = b[bIndex + 1];
+			double b2 = b[bIndex + 2];
+			double b3 = b[bIndex + 3];
+
+			c00 += a0 * b0;
+			c01 += a0 * b1;
+			c02 += a0 * b2;
+			c03 += a0 * b3;
+			c10 += a1 * b0;
+			c11 += a1 * b1;
+			c12 += a1 * b2;
+			c13 += a1 * b3;
+			c20 += a2 * b0;
+			c21 += a2 * b1;
+			c22 += a2 * b2;
+			c23 += a2 * b3;
+			c30 += a3 * b0;
+			c31 += a3 * b1;
+			c32 += a3 * b2;
+			c33 += a3 * b3;
+
+			aIndex += MR;
+			bIndex += NR;
+		}
+
+		if (mr == MR && nr == NR) {
+			c[cIndex] += c00;
+			c[cIndex + 1] += c01;
+			c[cIndex + 2] += c02;
+			c[cIndex + 3] += c03;
+			cIndex += cStride;
+			c[cIndex] += c10;
+			c[cIndex + 1] += c11;
+			c[cIndex + 2] += c12;
+			c[cIndex + 3] += c13;
+			cIndex += cStride;
+			c[cIndex] += c20;
+			c[cIndex + 1] += c21;
+			c[cIndex + 2] += c22;
+			c[cIndex + 3] += c23;
+			cIndex += cStride;
+			c[cIndex] += c30;
+			c[cIndex + 1] += c31;
+			c[cIndex + 2] += c32;
+			c[cIndex + 3] += c33;
+			return;
+		}
+
+		// Partial tile on the bottom or right edge of C
+		edge[0] = c00;
+		edge[1] = c01;
+		edge[2] = c02;
+		edge[3] = c03;
+		edge[4] = c10;
+		edge[5] = c11;
+		edge[6] = c12;
+		edge[7] = c13;
+		edge[8] = c20;
+		edge[9] = c21;
+		edge[10] = c22;
+		edge[11] = c23;
+		edge[12] = c30;
+		edge[13] = c31;
+		edge[14] = c32;
+		edge[15] = c33;
+		for (int r = 0; r < mr; r++) {
+			for (int col = 0; col < nr; col++) {
+				c[cIndex + r * cStride + col] += edge[r * NR + col];
+			}
+		}
+	}
+
+	/* ================================= Helpers ================================ */
+	static void fillZero(OriginalMatrix c) {
+		double[] data = c.getBackingArray();
+		for (int i = 0; i < c.rows(); i++) {
+			int rowStart = c.getOffset() + i * c.getStride();
+			Arrays.fill(data, rowStart, rowStart + c.columns(), 0);
+		}
+	}
+}
@@ -1,57 +1,360 @@
 package calculation;
 
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
+import functionality.LUDecomposition;
+import representations.ElementaryMatrix;
 import representations.Matrix;
 import representations.MyVector;
 import representations.OriginalMatrix;
+import representations.PermutationMatrix;
+import representations.SparseMatrix;
+import utils.records.LogDeterminant;
+import utils.records.SparsityPattern;
 
 public class MatrixCalculator {
+	/*
+	 * Products with fewer multiply-adds than this are computed on the calling
+	 * thread, since splitting them up costs more than it saves
+	 */
+	public static final long DEFAULT_PARALLEL_THRESHOLD = 1L << 21;
 
+	private final Executor executor;
+	private final long parallelThreshold;
+
+	/* ============================== Constructors ============================== */
+	public MatrixCalculator() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	public MatrixCalculator(Executor executor) {
+		this(executor, DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * @param executor          runs the blocks of large products. A ForkJoinPool
+	 *                          splits the work recursively, any other executor
+	 *                          gets one task per block
+	 * @param parallelThreshold products with fewer multiply-adds than this stay
+	 *                          on the calling thread
+	 */
+	public MatrixCalculator(Executor executor, long parallelThreshold) {
+		if (executor == null)
+			throw new IllegalArgumentException("Executor can not be null");
+		if (parallelThreshold < 0)
+			throw new IllegalArgumentException("Threshold can not be negative");
+		this.executor = executor;
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/* ================================= Methods ================================ */
 	public Matrix multiply(Matrix a, Matrix b) {
 		// Check for compatible dimensions
 		if (a.columns() != b.rows())
 			throw new IllegalArgumentException("Incompatible dimensions");
 
-		Matrix result = new OriginalMatrix(a.rows(), b.columns());
-		List<MyVector> aRows = a.getRowVectors();
-		List<MyVector> bColumns = b.getColumnVectors();
+		if (a instanceof SparseMatrix sparseA && b instanceof SparseMatrix sparseB)
+			return multiply(sparseA, sparseB, symbolicProduct(sparseA, sparseB));
+
+		// Permutation and elementary matricies are applied as row or column operations
+		if (a instanceof PermutationMatrix permutationA && b instanceof PermutationMatrix permutationB)
+			return permutationA.compose(permutationB);
+		if (a instanceof PermutationMatrix permutationA)
+			return permutationA.leftMultiply(b);
+		if (b instanceof PermutationMatrix permutationB)
+			return permutationB.rightMultiply(a);
+		if (a instanceof ElementaryMatrix elementaryA)
+			return elementaryA.leftMultiply(b);
+		if (b instanceof ElementaryMatrix elementaryB)
+			return elementaryB.rightMultiply(a);
+
+		OriginalMatrix result = new OriginalMatrix(a.rows(), b.columns());
+		multiplyAdd(GemmKernel.Operand.of(a), GemmKernel.Operand.of(b), a.columns(), result);
+		return result;
+	}
+
+	/**
+	 * Finds where the nonzeros of a * b will be, without computing any values.
+	 * The pattern can be passed to multiply(a, b, pattern) any number of times
+	 * as long as the structures of a and b stay the same
+	 * 
+	 * @param a
+	 * @param b
+	 * @return the sparsity pattern of a * b
+	 */
+	public SparsityPattern symbolicProduct(SparseMatrix a, SparseMatrix b) {
+		if (a.columns() != b.rows())
+			throw new IllegalArgumentException("Incompatible dimensions");
+		return SparseGemm.symbolic(a, b);
+	}
+
+	/**
+	 * Computes the values of a * b for a pattern made by symbolicProduct
+	 * 
+	 * @param a
+	 * @param b
+	 * @param pattern of a * b. Throws if the product has a nonzero outside it
+	 * @return a * b as a sparse matrix with exactly the given pattern
+	 */
+	public SparseMatrix multiply(SparseMatrix a, SparseMatrix b, SparsityPattern pattern) {
+		if (a.columns() != b.rows())
+			throw new IllegalArgumentException("Incompatible dimensions");
+		return SparseGemm.numeric(a, b, pattern);
+	}
+
+	/**
+	 * Multiplies a and b and writes the product into an existing matrix, so
+	 * repeated products can reuse the same output storage
+	 * 
+	 * @param a
+	 * @param b
+	 * @param result is overwritten with a * b. Must not share storage with a or b
+	 */
+	public void multiplyInto(Matrix a, Matrix b, OriginalMatrix result) {
+		multiplyInto(a, b, result, true);
+	}
+
+	/**
+	 * Same as multiplyInto, but adds a * b to what is already in result
+	 * 
+	 * @param a
+	 * @param b
+	 * @param result gets a * b added to it. Must not share storage with a or b
+	 */
+	public void multiplyAddInto(Matrix a, Matrix b, OriginalMatrix result) {
+		multiplyInto(a, b, result, false);
+	}
+
+	/**
+	 * M^n by repeated squaring, so about 2 * log2(n) products instead of n.
+	 * The squares and the partial products take turns in three buffers, so
+	 * nothing is allocated inside the loop
+	 * 
+	 * @param m        a square matrix
+	 * @param exponent n, at least 0
+	 * @return M^n, the identity for n = 0
+	 */
+	public Matrix power(Matrix m, long exponent) {
+		if (m.rows() != m.columns())
+			throw new IllegalArgumentException("Can only take powers of square matricies");
+		if (exponent < 0)
+			throw new IllegalArgumentException("Exponent can not be negative");
 
-		for (int rowIndex = 0; rowIndex < a.rows(); rowIndex++) {
-			MyVector row = aRows.get(rowIndex);
-			for (int columnIndex = 0; columnIndex < b.columns(); columnIndex++) {
-				MyVector column = bColumns.get(columnIndex);
-				double value = 0;
+		int n = m.rows();
+		OriginalMatrix result = new OriginalMatrix(n, n);
+		if (exponent == 0) {
+			for (int i = 0; i < n; i++) {
+				result.set(i, i, 1);
+			}
+			return result;
+		}
 
-				assert row.size() == column.size() : "Rows and columns were of different length";
-				for (int elementIndex = 0; elementIndex < row.size(); elementIndex++) {
-					value += row.get(elementIndex) * column.get(elementIndex);
+		OriginalMatrix base = denseCopy(m);
+		OriginalMatrix scratch = new OriginalMatrix(n, n);
+		boolean empty = true;
+		while (true) {
+			if ((exponent & 1) == 1) {
+				if (empty) {
+					System.arraycopy(base.getBackingArray(), 0, result.getBackingArray(), 0, n * n);
+					empty = false;
+				} else {
+					multiplyInto(result, base, scratch);
+					OriginalMatrix temporary = result;
+					result = scratch;
+					scratch = temporary;
 				}
+			}
+			exponent >>= 1;
+			if (exponent == 0)
+				return result;
+			multiplyInto(base, base, scratch);
+			OriginalMatrix temporary = base;
+			base = scratch;
+			scratch = temporary;
+		}
+	}
+
+	/**
+	 * M^n * vector without forming M^n. For small n the vector is multiplied
+	 * by M n times, which only uses M.multiplyInto and works for any kind of
+	 * matrix. Once n matrix-vector products cost more than the squarings, the
+	 * squares M^(2^k) are formed and applied to the vector for each set bit of n
+	 * 
+	 * @param m        a square matrix
+	 * @param exponent n, at least 0
+	 * @param vector
+	 * @return M^n * vector
+	 */
+	public MyVector power(Matrix m, long exponent, MyVector vector) {
+		if (m.rows() != m.columns())
+			throw new IllegalArgumentException("Can only take powers of square matricies");
+		if (exponent < 0)
+			throw new IllegalArgumentException("Exponent can not be negative");
+		if (vector.size() != m.columns())
+			throw new IllegalArgumentException("Vector has wrong dimensions");
 
-				result.set(rowIndex, columnIndex, value);
+		int n = m.rows();
+		MyVector current = vector.clone();
+		MyVector next = new MyVector(n);
+		// A product of squares costs about 2n^3 per bit, n repeated products n^2 each
+		long bits = 64 - Long.numberOfLeadingZeros(exponent);
+		boolean squaring = exponent > 2L * n * bits && !(m instanceof SparseMatrix);
+		if (!squaring) {
+			for (long step = 0; step < exponent; step++) {
+				m.multiplyInto(current, next);
+				MyVector temporary = current;
+				current = next;
+				next = temporary;
 			}
+			return current;
+		}
+
+		OriginalMatrix base = denseCopy(m);
+		OriginalMatrix scratch = new OriginalMatrix(n, n);
+		while (true) {
+			if ((exponent & 1) == 1) {
+				base.multiplyInto(current, next);
+				MyVector temporary = current;
+				current = next;
+				next = temporary;
+			}
+			exponent >>= 1;
+			if (exponent == 0)
+				return current;
+			multiplyInto(base, base, scratch);
+			OriginalMatrix temporary = base;
+			base = scratch;
+			scratch = temporary;
 		}
-		return result;
 	}
 
+	/**
+	 * Small matricies use the closed formulas, everything else an LU
+	 * factorization, which is O(n^3) instead of the O(n!) of cofactor expansion
+	 */
 	public double determinant(Matrix m) {
 		if (m.columns() != m.rows())
 			throw new IllegalArgumentException("Can only compute determinants of square matricies");
-		int dimension = m.rows();
 
-		if (dimension == 2)
-			return m.get(0, 0) * m.get(1, 1) - m.get(0, 1) * m.get(1, 0);
-
-		int multiplier = 1;
-		double determinant = 0;
-		for (int i = 0; i < dimension; i++) {
-			determinant += multiplier * m.get(0, i) * determinant(getSubmatrix(0, i, m));
-			multiplier *= -1;
+		switch (m.rows()) {
+			case 1:
+				return m.get(0, 0);
+			case 2:
+				return m.get(0, 0) * m.get(1, 1) - m.get(0, 1) * m.get(1, 0);
+			case 3:
+				return determinant3x3(m);
+			case 4:
+				return determinant4x4(m);
+			default:
+				return new LUDecomposition(m).determinant();
 		}
-		return determinant;
+	}
+
+	/**
+	 * The determinant as a sign and the logarithm of its absolute value, for
+	 * matricies whose determinant would overflow or underflow a double
+	 */
+	public LogDeterminant logDeterminant(Matrix m) {
+		if (m.columns() != m.rows())
+			throw new IllegalArgumentException("Can only compute determinants of square matricies");
+
+		if (m.rows() > 4)
+			return new LUDecomposition(m).logDeterminant();
+
+		double determinant = determinant(m);
+		if (determinant == 0)
+			return new LogDeterminant(0, Double.NEGATIVE_INFINITY);
+		return new LogDeterminant(Math.signum(determinant), Math.log(Math.abs(determinant)));
 	}
 
 	/* ================================= Helpers ================================ */
+	private static double determinant3x3(Matrix m) {
+		double a00 = m.get(0, 0), a01 = m.get(0, 1), a02 = m.get(0, 2);
+		double a10 = m.get(1, 0), a11 = m.get(1, 1), a12 = m.get(1, 2);
+		double a20 = m.get(2, 0), a21 = m.get(2, 1), a22 = m.get(2, 2);
+
+		return a00 * (a11 * a22 - a12 * a21)
+				- a01 * (a10 * a22 - a12 * a20)
+				+ a02 * (a10 * a21 - a11 * a20);
+	}
+
+	/*
+	 * Laplace expansion along the first two rows: every 2x2 minor from the top
+	 * two rows times its complementary 2x2 minor from the bottom two rows
+	 */
+	private static double determinant4x4(Matrix m) {
+		double a00 = m.get(0, 0), a01 = m.get(0, 1), a02 = m.get(0, 2), a03 = m.get(0, 3);
+		double a10 = m.get(1, 0), a11 = m.get(1, 1), a12 = m.get(1, 2), a13 = m.get(1, 3);
+		double a20 = m.get(2, 0), a21 = m.get(2, 1), a22 = m.get(2, 2), a23 = m.get(2, 3);
+		double a30 = m.get(3, 0), a31 = m.get(3, 1), a32 = m.get(3, 2), a33 = m.get(3, 3);
+
+		double top01 = a00 * a11 - a01 * a10;
+		double top02 = a00 * a12 - a02 * a10;
+		double top03 = a00 * a13 - a03 * a10;
+		double top12 = a01 * a12 - a02 * a11;
+		double top13 = a01 * a13 - a03 * a11;
+		double top23 = a02 * a13 - a03 * a12;
+
+		double bottom01 = a20 * a31 - a21 * a30;
+		double bottom02 = a20 * a32 - a22 * a30;
+		double bottom03 = a20 * a33 - a23 * a30;
+		double bottom12 = a21 * a32 - a22 * a31;
+		double bottom13 = a21 * a33 - a23 * a31;
+		double bottom23 = a22 * a33 - a23 * a32;
+
+		return top01 * bottom23 - top02 * bottom13 + top03 * bottom12
+				+ top12 * bottom03 - top13 * bottom02 + top23 * bottom01;
+	}
+
+	private static OriginalMatrix denseCopy(Matrix m) {
+		int rows = m.rows();
+		int columns = m.columns();
+		OriginalMatrix copy = new OriginalMatrix(rows, columns);
+		double[] target = copy.getBackingArray();
+		if (m instanceof OriginalMatrix dense) {
+			for (int i = 0; i < rows; i++) {
+				System.arraycopy(dense.getBackingArray(), dense.getOffset() + i * dense.getStride(), target, i * columns,
+						columns);
+			}
+			return copy;
+		}
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				target[i * columns + j] = m.get(i, j);
+			}
+		}
+		return copy;
+	}
+
+	private void multiplyInto(Matrix a, Matrix b, OriginalMatrix result, boolean overwrite) {
+		if (a.columns() != b.rows())
+			throw new IllegalArgumentException("Incompatible dimensions");
+		if (result.rows() != a.rows() || result.columns() != b.columns())
+			throw new IllegalArgumentException("Result has wrong dimensions");
+
+		GemmKernel.Operand operandA = GemmKernel.Operand.of(a);
+		GemmKernel.Operand operandB = GemmKernel.Operand.of(b);
+		if (operandA.data == result.getBackingArray() || operandB.data == result.getBackingArray())
+			throw new IllegalArgumentException("Result can not share storage with an operand");
+
+		if (overwrite)
+			GemmKernel.fillZero(result);
+		multiplyAdd(operandA, operandB, a.columns(), result);
+	}
+
+	private void multiplyAdd(GemmKernel.Operand a, GemmKernel.Operand b, int inner, OriginalMatrix result) {
+		// The kernels write straight into the backing array
+		result.markChanged();
+		long work = (long) result.rows() * result.columns() * inner;
+		if (work < parallelThreshold) {
+			GemmKernel.multiplyAdd(a, b, inner, result, 0, result.rows(), 0, result.columns());
+			return;
+		}
+		ParallelGemm.multiplyAdd(a, b, inner, result, executor);
+	}
+
 	public Matrix getSubmatrix(int currentRow, int currentColumn, Matrix matrix) {
 		List<MyVector> rowVectors = matrix.getRowVectors();
 		rowVectors.remove(currentRow);
@@ -0,0 +1,127 @@
+package calculation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import representations.OriginalMatrix;
+
+/*
+ * Splits C = A * B into 2D blocks of C and runs GemmKernel on each of them
+ *
+ * The blocks are found by repeatedly halving the longer side of the current
+ * block, so square products are cut both ways and tall-skinny products mostly
+ * by rows. The split only depends on the shape of the product, and GemmKernel
+ * sums every element of C in the same order whatever block it is in, so the
+ * result is bit-identical for any number of threads
+ */
+final class ParallelGemm {
+	/* Blocks with less work than this (multiply-adds) are not split further */
+	static final long LEAF_WORK = 1L << 20;
+
+	private ParallelGemm() {
+	}
+
+	static void multiplyAdd(GemmKernel.Operand a, GemmKernel.Operand b, int inner, OriginalMatrix c,
+			Executor executor) {
+		if (executor instanceof ForkJoinPool pool) {
+			pool.invoke(new BlockTask(a, b, inner, c, 0, c.rows(), 0, c.columns()));
+			return;
+		}
+
+		List<int[]> blocks = new ArrayList<>();
+		collectBlocks(inner, 0, c.rows(), 0, c.columns(), blocks);
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[blocks.size()];
+		for (int i = 0; i < futures.length; i++) {
+			int[] block = blocks.get(i);
+			futures[i] = CompletableFuture.runAsync(
+					() -> GemmKernel.multiplyAdd(a, b, inner, c, block[0], block[1], block[2], block[3]), executor);
+		}
+		CompletableFuture.allOf(futures).join();
+	}
+
+	/* ================================= Helpers ================================ */
+	private static boolean isLeaf(int inner, int rows, int columns) {
+		if ((long) rows * columns * inner < 2 * LEAF_WORK)
+			return true;
+		return rows < 2 * GemmKernel.MR && columns < 2 * GemmKernel.NR;
+	}
+
+	/*
+	 * Returns where to split [from, to), rounded to a whole number of
+	 * micro-kernel tiles so no tile straddles two blocks
+	 */
+	private static int splitPoint(int from, int to, int tile) {
+		int half = (to - from) / 2;
+		return from + Math.max(tile, half - half % tile);
+	}
+
+	private static boolean splitRows(int rows, int columns) {
+		return rows >= columns ? rows >= 2 * GemmKernel.MR : columns < 2 * GemmKernel.NR;
+	}
+
+	private static void collectBlocks(int inner, int rowFrom, int rowTo, int columnFrom, int columnTo,
+			List<int[]> blocks) {
+		int rows = rowTo - rowFrom;
+		int columns = columnTo - columnFrom;
+		if (isLeaf(inner, rows, columns)) {
+			blocks.add(new int[] { rowFrom, rowTo, columnFrom, columnTo });
+			return;
+		}
+
+		if (splitRows(rows, columns)) {
+			int middle = splitPoint(rowFrom, rowTo, GemmKernel.MR);
+			collectBlocks(inner, rowFrom, middle, columnFrom, columnTo, blocks);
+			collectBlocks(inner, middle, rowTo, columnFrom, columnTo, blocks);
+		} else {
+			int middle = splitPoint(columnFrom, columnTo, GemmKernel.NR);
+			collectBlocks(inner, rowFrom, rowTo, columnFrom, middle, blocks);
+			collectBlocks(inner, rowFrom, rowTo, middle, columnTo, blocks);
+		}
+	}
+
+	private static final class BlockTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final transient GemmKernel.Operand a;
+		private final transient GemmKernel.Operand b;
+		private final int inner;
+		private final transient OriginalMatrix c;
+		private final int rowFrom, rowTo, columnFrom, columnTo;
+
+		BlockTask(GemmKernel.Operand a, GemmKernel.Operand b, int inner, OriginalMatrix c,
+				int rowFrom, int rowTo, int columnFrom, int columnTo) {
+			this.a = a;
+			this.b = b;
+			this.inner = inner;
+			this.c = c;
+			this.rowFrom = rowFrom;
+			this.rowTo = rowTo;
+			this.columnFrom = columnFrom;
+			this.columnTo = columnTo;
+		}
+
+		@Override
+		protected void compute() {
+			int rows = rowTo - rowFrom;
+			int columns = columnTo - columnFrom;
+			if (isLeaf(inner, rows, columns)) {
+				GemmKernel.multiplyAdd(a, b, inner, c, rowFrom, rowTo, columnFrom, columnTo);
+				return;
+			}
+
+			if (splitRows(rows, columns)) {
+				int middle = splitPoint(rowFrom, rowTo, GemmKernel.MR);
+				invokeAll(new BlockTask(a, b, inner, c, rowFrom, middle, columnFrom, columnTo),
+						new BlockTask(a, b, inner, c, middle, rowTo, columnFrom, columnTo));
+			} else {
+				int middle = splitPoint(columnFrom, columnTo, GemmKernel.NR);
+				invokeAll(new BlockTask(a, b, inner, c, rowFrom, rowTo, columnFrom, middle),
+						new BlockTask(a, b, inner, c, rowFrom, rowTo, middle, columnTo));
+			}
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package calculation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import representations.SparseMatrix;
+import utils.records.SparsityPattern;
+
+/*
+ * Sparse times sparse multiplication (Gustavson's algorithm)
+ *
+ * Row i of C = A * B is the sum of the rows of B picked out by the nonzeros in
+ * row i of A, so the work is proportional to the number of multiplications
+ * rather than the dimensions. It is split in two phases:
+ * - The symbolic phase only looks at where the nonzeros are and builds the
+ * pattern of C. A marker array remembers which columns the current row has hit
+ * - The numeric phase fills in the values for a given pattern, accumulating
+ * each row in a dense array of length columns(B)
+ * A pattern can be reused for any A and B with the same structures, which
+ * skips the symbolic phase for repeated products
+ *
+ * Both phases are split by rows between threads. Rows are cut so each task
+ * gets about the same number of multiplications, and each row is computed by
+ * one thread in a fixed order, so the result does not depend on the threads
+ */
+final class SparseGemm {
+	/* Fewer multiplications than this per task is not worth splitting for */
+	private static final long PARALLEL_GRAIN = 1L << 16;
+
+	private SparseGemm() {
+	}
+
+	static SparsityPattern symbolic(SparseMatrix a, SparseMatrix b) {
+		SparseMatrix csrA = a.toCompressedRows();
+		SparseMatrix csrB = b.toCompressedRows();
+		int rows = a.rows();
+		int columns = b.columns();
+		int[] aPointers = csrA.getPointers();
+		int[] aIndices = csrA.getIndices();
+		int[] bPointers = csrB.getPointers();
+		int[] bIndices = csrB.getIndices();
+
+		int[] partitions = partitionByWork(csrA, csrB);
+
+		// Pass 1: count the distinct columns of every row of C
+		int[] rowPointers = new int[rows + 1];
+		forEachPartition(partitions, (fromRow, toRow) -> {
+			int[] marker = new int[columns];
+			Arrays.fill(marker, -1);
+			for (int i = fromRow; i < toRow; i++) {
+				int count = 0;
+				for (int ka = aPointers[i]; ka < aPointers[i + 1]; ka++) {
+					int k = aIndices[ka];
+					for (int kb = bPointers[k]; kb < bPointers[k + 1]; kb++) {
+						int j = bIndices[kb];
+						if (marker[j] != i) {
+							marker[j] = i;
+							count++;
+						}
+					}
+				}
+				rowPointers[i + 1] = count;
+			}
+		});
+		for (int i = 0; i < rows; i++) {
+			rowPointers[i + 1] += rowPointers[i];
+		}
+
+		// Pass 2: write the columns and sort them within each row
+		int[] columnIndices = new int[rowPointers[rows]];
+		forEachPartition(partitions, (fromRow, toRow) -> {
+			int[] marker = new int[columns];
+			Arrays.fill(marker, -1);
+			for (int i = fromRow; i < toRow; i++) {
+				int write = rowPointers[i];
+				for (int ka = aPointers[i]; ka < aPointers[i + 1]; ka++) {
+					int k = aIndices[ka];
+					for (int kb = bPointers[k]; kb < bPointers[k + 1]; kb++) {
+						int j = bIndices[kb];
+						if (marker[j] != i) {
+							marker[j] = i;
+							columnIndices[write++] = j;
+						}
+					}
+				}
+				Arrays.sort(columnIndices, rowPointers[i], rowPointers[i + 1]);
+			}
+		});
+
+		return new SparsityPattern(rows, columns, rowPointers, columnIndices);
+	}
+
+	static SparseMatrix numeric(SparseMatrix a, SparseMatrix b, SparsityPattern pattern) {
+		if (pattern.rows() != a.rows() || pattern.columns() != b.columns())
+			throw new IllegalArgumentException("Pattern has wrong dimensions");
+
+		SparseMatrix csrA = a.toCompressedRows();
+		SparseMatrix csrB = b.toCompressedRows();
+		int columns = b.columns();
+		int[] aPointers = csrA.getPointers();
+		int[] aIndices = csrA.getIndices();
+		double[] aValues = csrA.getValues();
+		int[] bPointers = csrB.getPointers();
+		int[] bIndices = csrB.getIndices();
+		double[] bValues = csrB.getValues();
+		int[] rowPointers = pattern.rowPointers();
+		int[] columnIndices = pattern.columnIndices();
+
+		double[] values = new double[pattern.nonZeros()];
+		forEachPartition(partitionByWork(csrA, csrB), (fromRow, toRow) -> {
+			double[] accumulator = new double[columns];
+			int[] marker = new int[columns];
+			Arrays.fill(marker, -1);
+			for (int i = fromRow; i < toRow; i++) {
+				for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+					marker[columnIndices[k]] = i;
+				}
+				for (int ka = aPointers[i]; ka < aPointers[i + 1]; ka++) {
+					int k = aIndices[ka];
+					double aik = aValues[ka];
+					for (int kb = bPointers[k]; kb < bPointers[k + 1]; kb++) {
+						int j = bIndices[kb];
+						if (marker[j] != i)
+							throw new IllegalArgumentException("Product has a nonzero outside the pattern");
+						accumulator[j] += aik * bValues[kb];
+					}
+				}
+				// Gather the row and clear the accumulator for the next one
+				for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+					values[k] = accumulator[columnIndices[k]];
+					accumulator[columnIndices[k]] = 0;
+				}
+			}
+		});
+
+		return new SparseMatrix(pattern.rows(), columns, rowPointers.clone(), columnIndices.clone(), values);
+	}
+
+	/* ================================= Helpers ================================ */
+	@FunctionalInterface
+	private interface RowRange {
+		void run(int fromRow, int toRow);
+	}
+
+	private static void forEachPartition(int[] partitions, RowRange task) {
+		if (partitions.length == 2) {
+			task.run(partitions[0], partitions[1]);
+			return;
+		}
+		IntStream.range(0, partitions.length - 1).parallel()
+				.forEach(p -> task.run(partitions[p], partitions[p + 1]));
+	}
+
+	/*
+	 * Splits the rows of C so every part does about the same number of
+	 * multiplications. Row i of C costs the sum of the lengths of the rows of B
+	 * that row i of A points at
+	 */
+	private static int[] partitionByWork(SparseMatrix csrA, SparseMatrix csrB) {
+		int rows = csrA.rows();
+		int[] aPointers = csrA.getPointers();
+		int[] aIndices = csrA.getIndices();
+		int[] bPointers = csrB.getPointers();
+
+		long[] work = new long[rows + 1];
+		for (int i = 0; i < rows; i++) {
+			long rowWork = 0;
+			for (int ka = aPointers[i]; ka < aPointers[i + 1]; ka++) {
+				int k = aIndices[ka];
+				rowWork += bPointers[k + 1] - bPointers[k];
+			}
+			work[i + 1] = work[i] + rowWork;
+		}
+
+		long total = work[rows];
+		int parts = (int) Math.min(rows, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L,
+				total / PARALLEL_GRAIN));
+		if (parts <= 1)
+			return new int[] { 0, rows };
+
+		int[] boundaries = new int[parts + 1];
+		boundaries[parts] = rows;
+		for (int p = 1; p < parts; p++) {
+			long target = total * p / parts;
+			int row = Arrays.binarySearch(work, 0, rows + 1, target);
+			if (row < 0)
+				row = -row - 1;
+			boundaries[p] = Math.max(boundaries[p - 1], Math.min(row, rows));
+		}
+		return boundaries;
+	}
+}
@@ -0,0 +1,69 @@
+package functionality;
+
+import representations.Matrix;
+
+/**
+ * A few of the eigenvalues of largest absolute value, and their
+ * eigenvectors, of a large square matrix
+ *
+ * This is the thick-restart Arnoldi method, which is restarted the same way
+ * as LanczosEigenSolver, but keeps the small projected matrix in full and
+ * solves it with GeneralEigenDecomposition. The matrix is only used through
+ * multiplyInto, and the memory is about 2 * count + 20 vectors of the matrix
+ * size
+ *
+ * The eigenvalues come in decreasing absolute value. A complex pair is
+ * never split, so one more eigenvalue than asked for is found when the last
+ * one is the first of a pair. Complex pairs are stored as described in
+ * EigenDecomposition
+ */
+public class ArnoldiEigenSolver implements EigenDecomposition {
+
+	/* ================================= Fields ================================= */
+	private final int dimension;
+	private final RestartedKrylov krylov;
+
+	/* ============================== Constructors ============================== */
+	public ArnoldiEigenSolver(Matrix matrix, int count) {
+		this.dimension = matrix.rows();
+		this.krylov = new RestartedKrylov(matrix, count, false, true);
+	}
+
+	/* ================================= Getters ================================ */
+	/*
+	 * The size of the matrix, not the number of eigenvalues found
+	 */
+	@Override
+	public int dimension() {
+		return dimension;
+	}
+
+	@Override
+	public boolean hasEigenvectors() {
+		return true;
+	}
+
+	@Override
+	public double[] getRealEigenvalues() {
+		return krylov.real.clone();
+	}
+
+	@Override
+	public double[] getImaginaryEigenvalues() {
+		return krylov.imaginary.clone();
+	}
+
+	/*
+	 * The eigenvectors as columns, one per eigenvalue found, with the real and
+	 * imaginary parts of a complex eigenvector in two columns
+	 */
+	@Override
+	public Matrix getV() {
+		return krylov.getV();
+	}
+
+	@Override
+	public Matrix getD() {
+		return krylov.getD();
+	}
+}
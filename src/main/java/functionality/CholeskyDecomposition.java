@@ -0,0 +1,256 @@
+package functionality;
+
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+import utils.records.LogDeterminant;
+
+/**
+ * Cholesky factorization of a symmetric positive-definite matrix, A = L * L^T
+ *
+ * It needs about n^3/3 flops, half of LU, and no pivoting, since the diagonal
+ * of a positive-definite matrix can not run into a zero. If the matrix turns
+ * out not to be symmetric positive-definite the factorization stops and
+ * isPositiveDefinite() returns false, so callers can fall back to LU
+ *
+ * The factorization is blocked and right-looking. For each block of BLOCK
+ * columns the diagonal block is factored, the panel below it is solved
+ * against it, and then the whole trailing matrix is updated with the panel in
+ * one pass. That last update does almost all the work, and reads both the
+ * panel rows contiguously since L is stored row-major
+ */
+public class CholeskyDecomposition {
+	private static final int BLOCK = 64;
+
+	/* ================================= Fields ================================= */
+	private final int dimension;
+	private final double[] l;
+	private final boolean positiveDefinite;
+
+	/* ============================== Constructors ============================== */
+	public CholeskyDecomposition(Matrix matrix) {
+		if (matrix.rows() != matrix.columns())
+			throw new IllegalArgumentException("Can only Cholesky factorize square matricies");
+
+		int n = matrix.rows();
+		this.dimension = n;
+		this.l = RowReducer.copyContents(matrix);
+
+		double largestElement = 0;
+		for (double value : l) {
+			largestElement = Math.max(largestElement, Math.abs(value));
+		}
+		// Differences and pivots this small compared to the matrix are rounding noise
+		double tolerance = n * Math.ulp(1.0) * largestElement;
+
+		this.positiveDefinite = isSymmetric(tolerance) && factor(tolerance);
+	}
+
+	/* ============================== Factorization ============================= */
+	private boolean isSymmetric(double tolerance) {
+		int n = dimension;
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < i; j++) {
+				if (Math.abs(l[i * n + j] - l[j * n + i]) > tolerance)
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Overwrites the lower triangle with L and zeroes the upper one. Returns
+	 * false as soon as a pivot is not clearly positive
+	 */
+	private boolean factor(double tolerance) {
+		int n = dimension;
+		for (int k = 0; k < n; k += BLOCK) {
+			int end = Math.min(k + BLOCK, n);
+
+			// The diagonal block, one column at a time
+			for (int j = k; j < end; j++) {
+				int jRow = j * n;
+				double diagonal = l[jRow + j];
+				for (int p = k; p < j; p++) {
+					diagonal -= l[jRow + p] * l[jRow + p];
+				}
+				if (!(diagonal > tolerance))
+					return false;
+				double pivot = Math.sqrt(diagonal);
+				l[jRow + j] = pivot;
+
+				for (int i = j + 1; i < end; i++) {
+					l[i * n + j] = (l[i * n + j] - dot(i * n, jRow, k, j)) / pivot;
+				}
+			}
+
+			// The panel below it, L21 = A21 * L11^-T
+			for (int i = end; i < n; i++) {
+				int iRow = i * n;
+				for (int j = k; j < end; j++) {
+					l[iRow + j] = (l[iRow + j] - dot(iRow, j * n, k, j)) / l[j * n + j];
+				}
+			}
+
+			// The trailing matrix, A22 -= L21 * L21^T, lower triangle only
+			for (int i = end; i < n; i++) {
+				int iRow = i * n;
+				for (int j = end; j <= i; j++) {
+					l[iRow + j] -= dot(iRow, j * n, k, end);
+				}
+			}
+		}
+
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				l[i * n + j] = 0;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Sum of l[first + p] * l[second + p] for p in [from, to)
+	 */
+	private double dot(int first, int second, int from, int to) {
+		double sum = 0;
+		for (int p = from; p < to; p++) {
+			sum += l[first + p] * l[second + p];
+		}
+		return sum;
+	}
+
+	/* ================================= Methods ================================ */
+	public boolean isPositiveDefinite() {
+		return positiveDefinite;
+	}
+
+	/*
+	 * The square of the product of the diagonal of L
+	 */
+	public double determinant() {
+		requirePositiveDefinite();
+		double determinant = 1;
+		for (int i = 0; i < dimension; i++) {
+			double diagonal = l[i * dimension + i];
+			determinant *= diagonal * diagonal;
+		}
+		return determinant;
+	}
+
+	public LogDeterminant logDeterminant() {
+		requirePositiveDefinite();
+		double logAbsoluteValue = 0;
+		for (int i = 0; i < dimension; i++) {
+			logAbsoluteValue += 2 * Math.log(l[i * dimension + i]);
+		}
+		return new LogDeterminant(1, logAbsoluteValue);
+	}
+
+	/**
+	 * Solves A * x = b
+	 *
+	 * @param b the right-hand side
+	 * @return x
+	 * @throws ArithmeticException if A is not symmetric positive-definite
+	 */
+	public MyVector solve(MyVector b) {
+		if (b.size() != dimension)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+		requirePositiveDefinite();
+
+		int n = dimension;
+		double[] x = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = b.get(i);
+		}
+
+		// Forward substitution with L, then back substitution with L^T
+		for (int i = 0; i < n; i++) {
+			int rowStart = i * n;
+			double sum = x[i];
+			for (int k = 0; k < i; k++) {
+				sum -= l[rowStart + k] * x[k];
+			}
+			x[i] = sum / l[rowStart + i];
+		}
+		for (int i = n - 1; i >= 0; i--) {
+			double value = x[i] / l[i * n + i];
+			x[i] = value;
+			// Column i of L^T is row i of L
+			int rowStart = i * n;
+			for (int k = 0; k < i; k++) {
+				x[k] -= l[rowStart + k] * value;
+			}
+		}
+		return new MyVector(x);
+	}
+
+	/**
+	 * Solves A * X = B for every column of B at once
+	 *
+	 * @param b the right-hand sides as columns
+	 * @return X, with one solution per column
+	 * @throws ArithmeticException if A is not symmetric positive-definite
+	 */
+	public Matrix solve(Matrix b) {
+		if (b.rows() != dimension)
+			throw new IllegalArgumentException("Matrix has wrong dimensions");
+		requirePositiveDefinite();
+
+		int n = dimension;
+		int m = b.columns();
+		double[] x = RowReducer.copyContents(b);
+
+		// Same substitutions as for one vector, but on whole rows of X at a time
+		for (int i = 0; i < n; i++) {
+			int xRow = i * m;
+			for (int k = 0; k < i; k++) {
+				double factor = l[i * n + k];
+				if (factor == 0)
+					continue;
+				int kRow = k * m;
+				for (int j = 0; j < m; j++) {
+					x[xRow + j] -= factor * x[kRow + j];
+				}
+			}
+			double diagonal = l[i * n + i];
+			for (int j = 0; j < m; j++) {
+				x[xRow + j] /= diagonal;
+			}
+		}
+		for (int i = n - 1; i >= 0; i--) {
+			int xRow = i * m;
+			double diagonal = l[i * n + i];
+			for (int j = 0; j < m; j++) {
+				x[xRow + j] /= diagonal;
+			}
+			for (int k = 0; k < i; k++) {
+				double factor = l[i * n + k];
+				if (factor == 0)
+					continue;
+				int kRow = k * m;
+				for (int j = 0; j < m; j++) {
+					x[kRow + j] -= factor * x[xRow + j];
+				}
+			}
+		}
+		return new OriginalMatrix(n, m, x, 0, m);
+	}
+
+	/* ================================= Getters ================================ */
+	public int dimension() {
+		return dimension;
+	}
+
+	public Matrix getL() {
+		requirePositiveDefinite();
+		return new OriginalMatrix(dimension, dimension, l.clone(), 0, dimension);
+	}
+
+	/* ================================= Helpers ================================ */
+	private void requirePositiveDefinite() {
+		if (!positiveDefinite)
+			throw new ArithmeticException("Matrix is not positive definite");
+	}
+}
@@ -0,0 +1,65 @@
+package functionality;
+
+import representations.Matrix;
+import utils.Utils;
+
+/**
+ * The eigenvalues, and possibly eigenvectors, of a square matrix
+ *
+ * Eigenvalues are given as real and imaginary parts. A complex eigenvalue
+ * always comes together with its conjugate, with the positive imaginary part
+ * first. When there are eigenvectors, A * V = V * D, where V and D are real:
+ * for a pair a +- bi in positions j and j + 1, D has the block
+ * [a, b; -b, a] there, and columns j and j + 1 of V are the real and
+ * imaginary parts of the eigenvector for a + bi
+ */
+public interface EigenDecomposition {
+
+	public int dimension();
+
+	public double[] getRealEigenvalues();
+
+	public double[] getImaginaryEigenvalues();
+
+	public boolean hasEigenvectors();
+
+	public Matrix getV();
+
+	public Matrix getD();
+
+	public default boolean hasComplexEigenvalues() {
+		for (double imaginaryPart : getImaginaryEigenvalues()) {
+			if (imaginaryPart != 0)
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * The symmetric solver for symmetric matricies, which is faster and gives
+	 * orthonormal eigenvectors, and the general one for the rest
+	 */
+	public static EigenDecomposition of(Matrix matrix, boolean computeEigenvectors) {
+		if (matrix.rows() != matrix.columns())
+			throw new IllegalArgumentException("Can only find eigenvalues of square matricies");
+		return isSymmetric(matrix) ? new SymmetricEigenDecomposition(matrix, computeEigenvectors)
+				: new GeneralEigenDecomposition(matrix, computeEigenvectors);
+	}
+
+	private static boolean isSymmetric(Matrix matrix) {
+		int n = matrix.rows();
+		double largestElement = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				largestElement = Math.max(largestElement, Math.abs(matrix.get(i, j)));
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < i; j++) {
+				if (!Utils.isNegligible(matrix.get(i, j) - matrix.get(j, i), largestElement))
+					return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,158 @@
+package functionality;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import representations.Matrix;
+import representations.MyVector;
+import representations.OperationTape;
+import representations.OriginalMatrix;
+import utils.records.ReductionResult;
+
+/**
+ * The four fundamental subspaces of a matrix A, all read off one reduced row
+ * echelon form R = E * A
+ *
+ * - The column space is spanned by the columns of A where R has its pivots
+ * - The row space is spanned by the nonzero rows of R
+ * - The kernel has one vector per free column f: 1 at f, minus column f of R
+ * at the pivot columns, and 0 everywhere else
+ * - The cokernel (the kernel of A^T) is spanned by the rows of E that give
+ * the zero rows of R. Those rows are found by replaying the transposed tape
+ * onto a block of unit vectors, so E itself is never formed
+ *
+ * The matrix is only reduced once, when this is constructed, and later
+ * changes to it are not seen. Each basis is built the first time it is asked
+ * for, and every call returns a new VectorSpace with its own copies of the
+ * vectors, so changing a returned space does not change the next one. The
+ * column space and the cokernel are orthogonal complements in R^rows, and the
+ * row space and the kernel in R^columns
+ */
+public class FundamentalSubspaces {
+
+	/* ================================= Fields ================================= */
+	private final Matrix reduced;
+	private final OperationTape tape;
+	private final int[] pivotColumns;
+	// Copied from the matrix up front, since it may change afterwards
+	private final List<MyVector> columnBasis;
+
+	private List<MyVector> rowBasis;
+	private List<MyVector> kernelBasis;
+	private List<MyVector> cokernelBasis;
+
+	/* ============================== Constructors ============================== */
+	public FundamentalSubspaces(Matrix matrix) {
+		ReductionResult result = new RowReducer().reduce(matrix);
+		this.reduced = result.reducedMatrix();
+		this.tape = result.tape();
+
+		// Row i of R has its leading one in pivotColumns[i]. The reducer leaves
+		// exact zeros before it
+		int[] pivots = new int[Math.min(matrix.rows(), matrix.columns())];
+		int rank = 0;
+		for (int i = 0; i < reduced.rows() && rank < pivots.length; i++) {
+			for (int j = rank == 0 ? 0 : pivots[rank - 1] + 1; j < reduced.columns(); j++) {
+				if (reduced.get(i, j) != 0) {
+					pivots[rank++] = j;
+					break;
+				}
+			}
+		}
+		this.pivotColumns = Arrays.copyOf(pivots, rank);
+
+		this.columnBasis = new ArrayList<>(rank);
+		for (int pivot : pivotColumns) {
+			double[] column = new double[matrix.rows()];
+			for (int i = 0; i < column.length; i++) {
+				column[i] = matrix.get(i, pivot);
+			}
+			columnBasis.add(new MyVector(column));
+		}
+	}
+
+	/* ================================= Getters ================================ */
+	public int rank() {
+		return pivotColumns.length;
+	}
+
+	public int[] getPivotColumns() {
+		return pivotColumns.clone();
+	}
+
+	public VectorSpace columnSpace() {
+		return spaceOf(columnBasis);
+	}
+
+	public VectorSpace rowSpace() {
+		if (rowBasis == null) {
+			List<MyVector> vectors = new ArrayList<>(rank());
+			for (int i = 0; i < rank(); i++) {
+				double[] row = new double[reduced.columns()];
+				for (int j = 0; j < row.length; j++) {
+					row[j] = reduced.get(i, j);
+				}
+				vectors.add(new MyVector(row));
+			}
+			rowBasis = vectors;
+		}
+		return spaceOf(rowBasis);
+	}
+
+	public VectorSpace kernel() {
+		if (kernelBasis == null) {
+			int columns = reduced.columns();
+			boolean[] isPivot = new boolean[columns];
+			for (int pivot : pivotColumns) {
+				isPivot[pivot] = true;
+			}
+
+			List<MyVector> vectors = new ArrayList<>(columns - rank());
+			for (int free = 0; free < columns; free++) {
+				if (isPivot[free])
+					continue;
+				double[] vector = new double[columns];
+				vector[free] = 1;
+				for (int i = 0; i < rank(); i++) {
+					vector[pivotColumns[i]] = -reduced.get(i, free);
+				}
+				vectors.add(new MyVector(vector));
+			}
+			kernelBasis = vectors;
+		}
+		return spaceOf(kernelBasis);
+	}
+
+	public VectorSpace cokernel() {
+		if (cokernelBasis == null) {
+			int rows = reduced.rows();
+			if (rank() == rows) {
+				cokernelBasis = new ArrayList<>();
+			} else {
+				// Rows rank..rows-1 of E are the columns of E^T * [0; I]
+				OriginalMatrix unitVectors = new OriginalMatrix(rows, rows - rank());
+				for (int k = 0; k < rows - rank(); k++) {
+					unitVectors.set(rank() + k, k, 1);
+				}
+				cokernelBasis = tape.applyTransposed(unitVectors).getColumnVectors();
+			}
+		}
+		return spaceOf(cokernelBasis);
+	}
+
+	/* ================================= Helpers ================================ */
+	/*
+	 * Each of the four bases is linearly independent by construction. The zero
+	 * space is represented by the empty vector space
+	 */
+	private static VectorSpace spaceOf(List<MyVector> vectors) {
+		if (vectors.isEmpty())
+			return new VectorSpace();
+		List<MyVector> copies = new ArrayList<>(vectors.size());
+		for (MyVector vector : vectors) {
+			copies.add(vector.clone());
+		}
+		return new VectorSpace(copies, true);
+	}
+}
@@ -0,0 +1,628 @@
+package functionality;
+
+import java.util.Arrays;
+
+import representations.Matrix;
+import representations.OriginalMatrix;
+
+/**
+ * Eigenvalues and eigenvectors of a general real square matrix
+ *
+ * The matrix is first reduced to upper Hessenberg form H = Q^T * A * Q with
+ * Householder reflectors. Francis double-shift QR steps are then run on H,
+ * which keeps everything real: a pair of complex conjugate eigenvalues shows
+ * up as a 2 x 2 block that does not split further. Whenever an element below
+ * the diagonal becomes negligible the problem deflates into two smaller ones,
+ * and the steps only continue on the part that has not converged
+ *
+ * Everything happens in place in one n x n array, plus another for the
+ * Schur vectors when eigenvectors are asked for. Without eigenvectors the QR
+ * steps only update the active block, and no vectors are accumulated or
+ * back-substituted. With them, the eigenvectors of the final quasi-triangular
+ * matrix are found by back-substitution and multiplied by the Schur vectors
+ *
+ * This follows the EISPACK routines orthes and hqr2, as found in JAMA
+ */
+public class GeneralEigenDecomposition implements EigenDecomposition {
+	private static final int MAXIMAL_ITERATIONS = 60;
+
+	/* ================================= Fields ================================= */
+	private final int n;
+	private final double[] h;
+	private final double[] v;
+	private final double[] real;
+	private final double[] imaginary;
+
+	/* ============================== Constructors ============================== */
+	public GeneralEigenDecomposition(Matrix matrix) {
+		this(matrix, true);
+	}
+
+	public GeneralEigenDecomposition(Matrix matrix, boolean computeEigenvectors) {
+		if (matrix.rows() != matrix.columns())
+			throw new IllegalArgumentException("Can only find eigenvalues of square matricies");
+
+		this.n = matrix.rows();
+		this.h = RowReducer.copyContents(matrix);
+		this.v = computeEigenvectors ? new double[n * n] : null;
+		this.real = new double[n];
+		this.imaginary = new double[n];
+
+		reduceToHessenberg();
+		findSchurForm();
+		if (computeEigenvectors) {
+			backSubstitute();
+			normalizeEigenvectors();
+		}
+	}
+
+	/* ========================== Hessenberg reduction ========================== */
+	/*
+	 * Zeroes column m - 1 below row m with a reflector applied from both sides.
+	 * The product of the reflectors is accumulated in v if there are vectors
+	 */
+	private void reduceToHessenberg() {
+		double[] ort = new double[n];
+		double[] f = new double[n];
+
+		for (int m = 1; m < n - 1; m++) {
+			double scale = 0;
+			for (int i = m; i < n; i++) {
+				scale += Math.abs(h[i * n + m - 1]);
+			}
+			if (scale == 0)
+				continue;
+
+			double sum = 0;
+			for (int i = n - 1; i >= m; i--) {
+				ort[i] = h[i * n + m - 1] / scale;
+				sum += ort[i] * ort[i];
+			}
+			double g = Math.sqrt(sum);
+			if (ort[m] > 0)
+				g = -g;
+			sum -= ort[m] * g;
+			ort[m] -= g;
+
+			// H = (I - u * u^T / sum) * H, a row at a time so the array is read in order
+			Arrays.fill(f, m, n, 0);
+			for (int i = m; i < n; i++) {
+				double u = ort[i];
+				int rowStart = i * n;
+				for (int j = m; j < n; j++) {
+					f[j] += u * h[rowStart + j];
+				}
+			}
+			for (int j = m; j < n; j++) {
+				f[j] /= sum;
+			}
+			for (int i = m; i < n; i++) {
+				double u = ort[i];
+				int rowStart = i * n;
+				for (int j = m; j < n; j++) {
+					h[rowStart + j] -= f[j] * u;
+				}
+			}
+
+			// H = H * (I - u * u^T / sum)
+			for (int i = 0; i < n; i++) {
+				int rowStart = i * n;
+				double product = 0;
+				for (int j = m; j < n; j++) {
+					product += ort[j] * h[rowStart + j];
+				}
+				product /= sum;
+				for (int j = m; j < n; j++) {
+					h[rowStart + j] -= product * ort[j];
+				}
+			}
+
+			// Column m - 1 below the subdiagonal still holds the rest of the
+			// unscaled reflector, and ort[m] is never written again
+			ort[m] *= scale;
+			h[m * n + m - 1] = scale * g;
+		}
+
+		if (v == null) {
+			clearBelowSubdiagonal();
+			return;
+		}
+
+		for (int i = 0; i < n; i++) {
+			v[i * n + i] = 1;
+		}
+		for (int m = n - 2; m >= 1; m--) {
+			double subdiagonal = h[m * n + m - 1];
+			if (subdiagonal == 0)
+				continue;
+			for (int i = m + 1; i < n; i++) {
+				ort[i] = h[i * n + m - 1];
+			}
+			double head = ort[m];
+
+			Arrays.fill(f, m, n, 0);
+			for (int i = m; i < n; i++) {
+				double u = ort[i];
+				int rowStart = i * n;
+				for (int j = m; j < n; j++) {
+					f[j] += u * v[rowStart + j];
+				}
+			}
+			for (int j = m; j < n; j++) {
+				// Double division avoids possible underflow
+				f[j] = (f[j] / head) / subdiagonal;
+			}
+			for (int i = m; i < n; i++) {
+				double u = ort[i];
+				int rowStart = i * n;
+				for (int j = m; j < n; j++) {
+					v[rowStart + j] += f[j] * u;
+				}
+			}
+		}
+		clearBelowSubdiagonal();
+	}
+
+	private void clearBelowSubdiagonal() {
+		for (int i = 2; i < n; i++) {
+			for (int j = 0; j < i - 1; j++) {
+				h[i * n + j] = 0;
+			}
+		}
+	}
+
+	/* ============================ Francis QR steps ============================ */
+	private void findSchurForm() {
+		boolean vectors = v != null;
+		double epsilon = Math.ulp(1.0);
+		double exceptionalShift = 0;
+		double p = 0, q = 0, r = 0, s = 0, z = 0, w, x, y;
+
+		double norm = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = Math.max(i - 1, 0); j < n; j++) {
+				norm += Math.abs(h[i * n + j]);
+			}
+		}
+
+		int last = n - 1;
+		int iterations = 0;
+		while (last >= 0) {
+			// Look for a single small subdiagonal element
+			int l = last;
+			while (l > 0) {
+				s = Math.abs(h[(l - 1) * n + l - 1]) + Math.abs(h[l * n + l]);
+				if (s == 0)
+					s = norm;
+				if (Math.abs(h[l * n + l - 1]) < epsilon * s)
+					break;
+				l--;
+			}
+
+			if (l == last) {
+				// One root found
+				h[last * n + last] += exceptionalShift;
+				real[last] = h[last * n + last];
+				imaginary[last] = 0;
+				last--;
+				iterations = 0;
+			} else if (l == last - 1) {
+				// Two roots found
+				w = h[last * n + last - 1] * h[(last - 1) * n + last];
+				p = (h[(last - 1) * n + last - 1] - h[last * n + last]) / 2;
+				q = p * p + w;
+				z = Math.sqrt(Math.abs(q));
+				h[last * n + last] += exceptionalShift;
+				h[(last - 1) * n + last - 1] += exceptionalShift;
+				x = h[last * n + last];
+
+				if (q >= 0) {
+					// A real pair
+					z = p >= 0 ? p + z : p - z;
+					real[last - 1] = x + z;
+					real[last] = z != 0 ? x - w / z : x + z;
+					imaginary[last - 1] = 0;
+					imaginary[last] = 0;
+
+					if (vectors) {
+						// Rotate the block to upper triangular form
+						x = h[last * n + last - 1];
+						s = Math.abs(x) + Math.abs(z);
+						p = x / s;
+						q = z / s;
+						r = Math.sqrt(p * p + q * q);
+						p /= r;
+						q /= r;
+						for (int j = last - 1; j < n; j++) {
+							z = h[(last - 1) * n + j];
+							h[(last - 1) * n + j] = q * z + p * h[last * n + j];
+							h[last * n + j] = q * h[last * n + j] - p * z;
+						}
+						for (int i = 0; i <= last; i++) {
+							z = h[i * n + last - 1];
+							h[i * n + last - 1] = q * z + p * h[i * n + last];
+							h[i * n + last] = q * h[i * n + last] - p * z;
+						}
+						for (int i = 0; i < n; i++) {
+							z = v[i * n + last - 1];
+							v[i * n + last - 1] = q * z + p * v[i * n + last];
+							v[i * n + last] = q * v[i * n + last] - p * z;
+						}
+					}
+				} else {
+					// A complex pair
+					real[last - 1] = x + p;
+					real[last] = x + p;
+					imaginary[last - 1] = z;
+					imaginary[last] = -z;
+				}
+				last -= 2;
+				iterations = 0;
+			} else {
+				// No convergence yet
+				x = h[last * n + last];
+				y = h[(last - 1) * n + last - 1];
+				w = h[last * n + last - 1] * h[(last - 1) * n + last];
+
+				if (iterations == 10) {
+					// Wilkinson's original ad hoc shift
+					exceptionalShift += x;
+					for (int i = 0; i <= last; i++) {
+						h[i * n + i] -= x;
+					}
+					s = Math.abs(h[last * n + last - 1]) + Math.abs(h[(last - 1) * n + last - 2]);
+					x = y = 0.75 * s;
+					w = -0.4375 * s * s;
+				}
+				if (iterations == 30) {
+					// MATLAB's ad hoc shift
+					s = (y - x) / 2;
+					s = s * s + w;
+					if (s > 0) {
+						s = Math.sqrt(s);
+						if (y < x)
+							s = -s;
+						s = x - w / ((y - x) / 2 + s);
+						for (int i = 0; i <= last; i++) {
+							h[i * n + i] -= s;
+						}
+						exceptionalShift += s;
+						x = y = w = 0.964;
+					}
+				}
+				if (++iterations > MAXIMAL_ITERATIONS)
+					throw new ArithmeticException("Eigenvalues did not converge");
+
+				// Look for two consecutive small subdiagonal elements
+				int m = last - 2;
+				while (m >= l) {
+					z = h[m * n + m];
+					r = x - z;
+					s = y - z;
+					p = (r * s - w) / h[(m + 1) * n + m] + h[m * n + m + 1];
+					q = h[(m + 1) * n + m + 1] - z - r - s;
+					r = h[(m + 2) * n + m + 1];
+					s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+					p /= s;
+					q /= s;
+					r /= s;
+					if (m == l)
+						break;
+					if (Math.abs(h[m * n + m - 1]) * (Math.abs(q) + Math.abs(r)) < epsilon
+							* (Math.abs(p) * (Math.abs(h[(m - 1) * n + m - 1]) + Math.abs(z)
+									+ Math.abs(h[(m + 1) * n + m + 1]))))
+						break;
+					m--;
+				}
+				for (int i = m + 2; i <= last; i++) {
+					h[i * n + i - 2] = 0;
+					if (i > m + 2)
+						h[i * n + i - 3] = 0;
+				}
+
+				// Double QR step on rows l..last and columns m..last. Without
+				// vectors only the active block needs to be kept up to date
+				int lastColumn = vectors ? n - 1 : last;
+				int firstRow = vectors ? 0 : l;
+				for (int k = m; k <= last - 1; k++) {
+					boolean notLast = k != last - 1;
+					if (k != m) {
+						p = h[k * n + k - 1];
+						q = h[(k + 1) * n + k - 1];
+						r = notLast ? h[(k + 2) * n + k - 1] : 0;
+						x = Math.abs(p) + Math.abs(q) + Math.abs(r);
+						if (x == 0)
+							continue;
+						p /= x;
+						q /= x;
+						r /= x;
+					}
+					s = Math.sqrt(p * p + q * q + r * r);
+					if (p < 0)
+						s = -s;
+					if (s == 0)
+						continue;
+
+					if (k != m)
+						h[k * n + k - 1] = -s * x;
+					else if (l != m)
+						h[k * n + k - 1] = -h[k * n + k - 1];
+					p += s;
+					x = p / s;
+					y = q / s;
+					z = r / s;
+					q /= p;
+					r /= p;
+
+					// Rows
+					int row = k * n;
+					int nextRow = row + n;
+					int rowAfter = nextRow + n;
+					for (int j = k; j <= lastColumn; j++) {
+						p = h[row + j] + q * h[nextRow + j];
+						if (notLast) {
+							p += r * h[rowAfter + j];
+							h[rowAfter + j] -= p * z;
+						}
+						h[row + j] -= p * x;
+						h[nextRow + j] -= p * y;
+					}
+
+					// Columns
+					int lastRow = Math.min(last, k + 3);
+					for (int i = firstRow; i <= lastRow; i++) {
+						int rowStart = i * n;
+						p = x * h[rowStart + k] + y * h[rowStart + k + 1];
+						if (notLast) {
+							p += z * h[rowStart + k + 2];
+							h[rowStart + k + 2] -= p * r;
+						}
+						h[rowStart + k] -= p;
+						h[rowStart + k + 1] -= p * q;
+					}
+
+					// Schur vectors
+					if (vectors) {
+						for (int i = 0; i < n; i++) {
+							int rowStart = i * n;
+							p = x * v[rowStart + k] + y * v[rowStart + k + 1];
+							if (notLast) {
+								p += z * v[rowStart + k + 2];
+								v[rowStart + k + 2] -= p * r;
+							}
+							v[rowStart + k] -= p;
+							v[rowStart + k + 1] -= p * q;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/* ============================ Back-substitution =========================== */
+	/*
+	 * Finds the eigenvectors of the quasi-triangular matrix column by column,
+	 * from the last one, and then multiplies them by the Schur vectors
+	 */
+	private void backSubstitute() {
+		double epsilon = Math.ulp(1.0);
+		double norm = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = Math.max(i - 1, 0); j < n; j++) {
+				norm += Math.abs(h[i * n + j]);
+			}
+		}
+		if (norm == 0)
+			return;
+
+		double p, q, r = 0, s = 0, t, w, x, y, z = 0;
+		for (int c = n - 1; c >= 0; c--) {
+			p = real[c];
+			q = imaginary[c];
+
+			if (q == 0) {
+				// A real vector
+				int l = c;
+				h[c * n + c] = 1;
+				for (int i = c - 1; i >= 0; i--) {
+					w = h[i * n + i] - p;
+					r = 0;
+					for (int j = l; j <= c; j++) {
+						r += h[i * n + j] * h[j * n + c];
+					}
+					if (imaginary[i] < 0) {
+						z = w;
+						s = r;
+						continue;
+					}
+					l = i;
+					if (imaginary[i] == 0) {
+						h[i * n + c] = w != 0 ? -r / w : -r / (epsilon * norm);
+					} else {
+						x = h[i * n + i + 1];
+						y = h[(i + 1) * n + i];
+						q = (real[i] - p) * (real[i] - p) + imaginary[i] * imaginary[i];
+						t = (x * s - z * r) / q;
+						h[i * n + c] = t;
+						h[(i + 1) * n + c] = Math.abs(x) > Math.abs(z) ? (-r - w * t) / x : (-s - y * t) / z;
+					}
+
+					// Overflow control
+					t = Math.abs(h[i * n + c]);
+					if ((epsilon * t) * t > 1) {
+						for (int j = i; j <= c; j++) {
+							h[j * n + c] /= t;
+						}
+					}
+				}
+			} else if (q < 0) {
+				// A complex vector, in columns c - 1 and c
+				int l = c - 1;
+				if (Math.abs(h[c * n + c - 1]) > Math.abs(h[(c - 1) * n + c])) {
+					h[(c - 1) * n + c - 1] = q / h[c * n + c - 1];
+					h[(c - 1) * n + c] = -(h[c * n + c] - p) / h[c * n + c - 1];
+				} else {
+					double[] quotient = divide(0, -h[(c - 1) * n + c], h[(c - 1) * n + c - 1] - p, q);
+					h[(c - 1) * n + c - 1] = quotient[0];
+					h[(c - 1) * n + c] = quotient[1];
+				}
+				h[c * n + c - 1] = 0;
+				h[c * n + c] = 1;
+
+				for (int i = c - 2; i >= 0; i--) {
+					double ra = 0;
+					double sa = 0;
+					for (int j = l; j <= c; j++) {
+						ra += h[i * n + j] * h[j * n + c - 1];
+						sa += h[i * n + j] * h[j * n + c];
+					}
+					w = h[i * n + i] - p;
+
+					if (imaginary[i] < 0) {
+						z = w;
+						r = ra;
+						s = sa;
+						continue;
+					}
+					l = i;
+					if (imaginary[i] == 0) {
+						double[] quotient = divide(-ra, -sa, w, q);
+						h[i * n + c - 1] = quotient[0];
+						h[i * n + c] = quotient[1];
+					} else {
+						x = h[i * n + i + 1];
+						y = h[(i + 1) * n + i];
+						double vr = (real[i] - p) * (real[i] - p) + imaginary[i] * imaginary[i] - q * q;
+						double vi = (real[i] - p) * 2 * q;
+						if (vr == 0 && vi == 0)
+							vr = epsilon * norm * (Math.abs(w) + Math.abs(q) + Math.abs(x) + Math.abs(y) + Math.abs(z));
+						double[] quotient = divide(x * r - z * ra + q * sa, x * s - z * sa - q * ra, vr, vi);
+						h[i * n + c - 1] = quotient[0];
+						h[i * n + c] = quotient[1];
+						if (Math.abs(x) > (Math.abs(z) + Math.abs(q))) {
+							h[(i + 1) * n + c - 1] = (-ra - w * h[i * n + c - 1] + q * h[i * n + c]) / x;
+							h[(i + 1) * n + c] = (-sa - w * h[i * n + c] - q * h[i * n + c - 1]) / x;
+						} else {
+							quotient = divide(-r - y * h[i * n + c - 1], -s - y * h[i * n + c], z, q);
+							h[(i + 1) * n + c - 1] = quotient[0];
+							h[(i + 1) * n + c] = quotient[1];
+						}
+					}
+
+					// Overflow control
+					t = Math.max(Math.abs(h[i * n + c - 1]), Math.abs(h[i * n + c]));
+					if ((epsilon * t) * t > 1) {
+						for (int j = i; j <= c; j++) {
+							h[j * n + c - 1] /= t;
+							h[j * n + c] /= t;
+						}
+					}
+				}
+			}
+		}
+
+		// V = V * X, where X is the upper triangle of h now. Done a row of V at
+		// a time, so only one row needs a copy
+		double[] row = new double[n];
+		for (int i = 0; i < n; i++) {
+			int rowStart = i * n;
+			Arrays.fill(row, 0);
+			for (int k = 0; k < n; k++) {
+				double vik = v[rowStart + k];
+				if (vik == 0)
+					continue;
+				int xRow = k * n;
+				for (int j = k; j < n; j++) {
+					row[j] += vik * h[xRow + j];
+				}
+			}
+			System.arraycopy(row, 0, v, rowStart, n);
+		}
+	}
+
+	/*
+	 * (xr + i * xi) / (yr + i * yi), as {real part, imaginary part}
+	 */
+	private static double[] divide(double xr, double xi, double yr, double yi) {
+		double ratio;
+		double denominator;
+		if (Math.abs(yr) > Math.abs(yi)) {
+			ratio = yi / yr;
+			denominator = yr + ratio * yi;
+			return new double[] { (xr + ratio * xi) / denominator, (xi - ratio * xr) / denominator };
+		}
+		ratio = yr / yi;
+		denominator = yi + ratio * yr;
+		return new double[] { (ratio * xr + xi) / denominator, (ratio * xi - xr) / denominator };
+	}
+
+	/*
+	 * Scales every real eigenvector, and every pair of real and imaginary
+	 * parts together, to length 1
+	 */
+	private void normalizeEigenvectors() {
+		for (int j = 0; j < n; j++) {
+			boolean pair = imaginary[j] > 0;
+			double sum = 0;
+			for (int i = 0; i < n; i++) {
+				double value = v[i * n + j];
+				sum += value * value;
+				if (pair) {
+					value = v[i * n + j + 1];
+					sum += value * value;
+				}
+			}
+			double length = Math.sqrt(sum);
+			if (length == 0)
+				continue;
+			for (int i = 0; i < n; i++) {
+				v[i * n + j] /= length;
+				if (pair)
+					v[i * n + j + 1] /= length;
+			}
+			if (pair)
+				j++;
+		}
+	}
+
+	/* ================================= Getters ================================ */
+	@Override
+	public int dimension() {
+		return n;
+	}
+
+	@Override
+	public double[] getRealEigenvalues() {
+		return real.clone();
+	}
+
+	@Override
+	public double[] getImaginaryEigenvalues() {
+		return imaginary.clone();
+	}
+
+	@Override
+	public boolean hasEigenvectors() {
+		return v != null;
+	}
+
+	@Override
+	public Matrix getV() {
+		if (v == null)
+			throw new IllegalStateException("Eigenvectors were not computed");
+		return new OriginalMatrix(n, n, v.clone(), 0, n);
+	}
+
+	@Override
+	public Matrix getD() {
+		OriginalMatrix d = new OriginalMatrix(n, n);
+		for (int i = 0; i < n; i++) {
+			d.set(i, i, real[i]);
+			if (imaginary[i] > 0)
+				d.set(i, i + 1, imaginary[i]);
+			else if (imaginary[i] < 0)
+				d.set(i, i - 1, imaginary[i]);
+		}
+		return d;
+	}
+}
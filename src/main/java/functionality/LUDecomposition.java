@@ -0,0 +1,273 @@
+package functionality;
+
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+import representations.PermutationMatrix;
+import utils.records.LogDeterminant;
+
+/**
+ * LU factorization with partial pivoting, P * A = L * U
+ *
+ * The matrix is factored once, in place in a contiguous row-major copy, in
+ * about 2n^3/3 flops. L (unit lower triangular, diagonal not stored) and U
+ * share that array. After that every solve costs O(n^2) per right-hand side,
+ * and the determinant and singularity come for free from the diagonal of U
+ *
+ * The pivot in each column is the element with the largest absolute value,
+ * which keeps the multipliers in L at most 1 in size
+ */
+public class LUDecomposition {
+
+	/* ================================= Fields ================================= */
+	private final int dimension;
+	private final double[] lu;
+	private final int[] pivot;
+	private final int pivotSign;
+	private final boolean singular;
+
+	/* ============================== Constructors ============================== */
+	public LUDecomposition(Matrix matrix) {
+		if (matrix.rows() != matrix.columns())
+			throw new IllegalArgumentException("Can only LU factorize square matricies");
+
+		int n = matrix.rows();
+		this.dimension = n;
+		this.lu = RowReducer.copyContents(matrix);
+		this.pivot = new int[n];
+		for (int i = 0; i < n; i++) {
+			pivot[i] = i;
+		}
+
+		double largestElement = 0;
+		for (double value : lu) {
+			largestElement = Math.max(largestElement, Math.abs(value));
+		}
+		// Pivots this small compared to the matrix are rounding noise
+		double tolerance = n * Math.ulp(1.0) * largestElement;
+
+		int sign = 1;
+		boolean foundZeroPivot = false;
+		for (int k = 0; k < n; k++) {
+			// Find the pivot row
+			int pivotRow = k;
+			double pivotMagnitude = Math.abs(lu[k * n + k]);
+			for (int i = k + 1; i < n; i++) {
+				double magnitude = Math.abs(lu[i * n + k]);
+				if (magnitude > pivotMagnitude) {
+					pivotMagnitude = magnitude;
+					pivotRow = i;
+				}
+			}
+
+			if (pivotRow != k) {
+				swapRows(k, pivotRow);
+				int temporary = pivot[k];
+				pivot[k] = pivot[pivotRow];
+				pivot[pivotRow] = temporary;
+				sign = -sign;
+			}
+
+			if (pivotMagnitude <= tolerance)
+				foundZeroPivot = true;
+			if (pivotMagnitude == 0)
+				continue;
+
+			// Eliminate below the pivot, storing the multipliers where the zeros go
+			int pivotStart = k * n;
+			double pivotValue = lu[pivotStart + k];
+			for (int i = k + 1; i < n; i++) {
+				int rowStart = i * n;
+				double multiplier = lu[rowStart + k] / pivotValue;
+				lu[rowStart + k] = multiplier;
+				if (multiplier == 0)
+					continue;
+				for (int j = k + 1; j < n; j++) {
+					lu[rowStart + j] -= multiplier * lu[pivotStart + j];
+				}
+			}
+		}
+		this.pivotSign = sign;
+		this.singular = foundZeroPivot;
+	}
+
+	/* ================================= Methods ================================ */
+	public boolean isSingular() {
+		return singular;
+	}
+
+	/*
+	 * The product of the pivots. For a singular matrix this is zero or within
+	 * rounding error of zero
+	 */
+	public double determinant() {
+		double determinant = pivotSign;
+		for (int i = 0; i < dimension; i++) {
+			determinant *= lu[i * dimension + i];
+		}
+		return determinant;
+	}
+
+	/*
+	 * The determinant as a sign and the sum of log|pivot|, which does not
+	 * overflow or underflow however large the matrix is
+	 */
+	public LogDeterminant logDeterminant() {
+		double sign = pivotSign;
+		double logAbsoluteValue = 0;
+		for (int i = 0; i < dimension; i++) {
+			double pivotValue = lu[i * dimension + i];
+			if (pivotValue == 0)
+				return new LogDeterminant(0, Double.NEGATIVE_INFINITY);
+			sign *= Math.signum(pivotValue);
+			logAbsoluteValue += Math.log(Math.abs(pivotValue));
+		}
+		return new LogDeterminant(sign, logAbsoluteValue);
+	}
+
+	/**
+	 * Solves A * x = b
+	 *
+	 * @param b the right-hand side
+	 * @return x
+	 * @throws ArithmeticException if A is singular
+	 */
+	public MyVector solve(MyVector b) {
+		if (b.size() != dimension)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+		requireNonSingular();
+
+		int n = dimension;
+		double[] x = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = b.get(pivot[i]);
+		}
+
+		// Forward substitution with L, then back substitution with U
+		for (int i = 0; i < n; i++) {
+			int rowStart = i * n;
+			double sum = x[i];
+			for (int k = 0; k < i; k++) {
+				sum -= lu[rowStart + k] * x[k];
+			}
+			x[i] = sum;
+		}
+		for (int i = n - 1; i >= 0; i--) {
+			int rowStart = i * n;
+			double sum = x[i];
+			for (int k = i + 1; k < n; k++) {
+				sum -= lu[rowStart + k] * x[k];
+			}
+			x[i] = sum / lu[rowStart + i];
+		}
+		return new MyVector(x);
+	}
+
+	/**
+	 * Solves A * X = B for every column of B at once
+	 *
+	 * @param b the right-hand sides as columns
+	 * @return X, with one solution per column
+	 * @throws ArithmeticException if A is singular
+	 */
+	public Matrix solve(Matrix b) {
+		if (b.rows() != dimension)
+			throw new IllegalArgumentException("Matrix has wrong dimensions");
+		requireNonSingular();
+
+		int n = dimension;
+		int m = b.columns();
+		double[] x = new double[n * m];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < m; j++) {
+				x[i * m + j] = b.get(pivot[i], j);
+			}
+		}
+
+		// Same substitutions as for one vector, but on whole rows of X at a time
+		for (int i = 0; i < n; i++) {
+			int xRow = i * m;
+			for (int k = 0; k < i; k++) {
+				double l = lu[i * n + k];
+				if (l == 0)
+					continue;
+				int kRow = k * m;
+				for (int j = 0; j < m; j++) {
+					x[xRow + j] -= l * x[kRow + j];
+				}
+			}
+		}
+		for (int i = n - 1; i >= 0; i--) {
+			int xRow = i * m;
+			for (int k = i + 1; k < n; k++) {
+				double u = lu[i * n + k];
+				if (u == 0)
+					continue;
+				int kRow = k * m;
+				for (int j = 0; j < m; j++) {
+					x[xRow + j] -= u * x[kRow + j];
+				}
+			}
+			double diagonal = lu[i * n + i];
+			for (int j = 0; j < m; j++) {
+				x[xRow + j] /= diagonal;
+			}
+		}
+		return new OriginalMatrix(n, m, x, 0, m);
+	}
+
+	/* ================================= Getters ================================ */
+	public int dimension() {
+		return dimension;
+	}
+
+	/*
+	 * Row i of P * A is row getPivot()[i] of A
+	 */
+	public int[] getPivot() {
+		return pivot.clone();
+	}
+
+	/*
+	 * P in P * A = L * U, without building it densely
+	 */
+	public PermutationMatrix getP() {
+		return new PermutationMatrix(pivot);
+	}
+
+	public Matrix getL() {
+		OriginalMatrix l = new OriginalMatrix(dimension, dimension);
+		for (int i = 0; i < dimension; i++) {
+			for (int j = 0; j < i; j++) {
+				l.set(i, j, lu[i * dimension + j]);
+			}
+			l.set(i, i, 1);
+		}
+		return l;
+	}
+
+	public Matrix getU() {
+		OriginalMatrix u = new OriginalMatrix(dimension, dimension);
+		for (int i = 0; i < dimension; i++) {
+			for (int j = i; j < dimension; j++) {
+				u.set(i, j, lu[i * dimension + j]);
+			}
+		}
+		return u;
+	}
+
+	/* ================================= Helpers ================================ */
+	private void requireNonSingular() {
+		if (singular)
+			throw new ArithmeticException("Matrix is singular");
+	}
+
+	private void swapRows(int first, int second) {
+		int n = dimension;
+		for (int j = 0; j < n; j++) {
+			double temporary = lu[first * n + j];
+			lu[first * n + j] = lu[second * n + j];
+			lu[second * n + j] = temporary;
+		}
+	}
+}
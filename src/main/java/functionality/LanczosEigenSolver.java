@@ -0,0 +1,86 @@
+package functionality;
+
+import representations.Matrix;
+import representations.MyVector;
+
+/**
+ * A few of the largest or smallest eigenvalues, and their eigenvectors, of a
+ * large symmetric matrix
+ *
+ * This is the thick-restart Lanczos method. The matrix is only used through
+ * multiplyInto, so any Matrix works, and sparse matricies and transposed
+ * views are never made dense. The memory is about 2 * count + 20 vectors of
+ * the matrix size, and the small projected problems are solved by
+ * SymmetricEigenDecomposition. The matrix is not checked for symmetry, since
+ * that would cost as much as the rest
+ *
+ * The eigenvalues come most wanted first, so in decreasing order for the
+ * largest ones and increasing order for the smallest. The eigenvectors are
+ * orthonormal
+ */
+public class LanczosEigenSolver implements EigenDecomposition {
+
+	/* ================================= Fields ================================= */
+	private final int dimension;
+	private final RestartedKrylov krylov;
+
+	/* ============================== Constructors ============================== */
+	public LanczosEigenSolver(Matrix matrix, int count) {
+		this(matrix, count, true);
+	}
+
+	public LanczosEigenSolver(Matrix matrix, int count, boolean largest) {
+		this.dimension = matrix.rows();
+		this.krylov = new RestartedKrylov(matrix, count, true, largest);
+	}
+
+	/* ================================= Getters ================================ */
+	/*
+	 * The size of the matrix, not the number of eigenvalues found
+	 */
+	@Override
+	public int dimension() {
+		return dimension;
+	}
+
+	@Override
+	public boolean hasEigenvectors() {
+		return true;
+	}
+
+	public double[] getEigenvalues() {
+		return krylov.real.clone();
+	}
+
+	@Override
+	public double[] getRealEigenvalues() {
+		return getEigenvalues();
+	}
+
+	@Override
+	public double[] getImaginaryEigenvalues() {
+		return new double[krylov.real.length];
+	}
+
+	/*
+	 * A unit eigenvector for getEigenvalues()[index]
+	 */
+	public MyVector getEigenvector(int index) {
+		if (index < 0 || index >= krylov.vectors.length)
+			throw new IllegalArgumentException("Illegal index");
+		return krylov.vectors[index].clone();
+	}
+
+	/*
+	 * The eigenvectors as columns, one per eigenvalue found
+	 */
+	@Override
+	public Matrix getV() {
+		return krylov.getV();
+	}
+
+	@Override
+	public Matrix getD() {
+		return krylov.getD();
+	}
+}
@@ -19,10 +19,16 @@ public class LinearSystemsSolver {
 	/**
 	 * Method to solve systems of linear equations
 	 * 
-	 * This method currently solves the system two times, both through the
-	 * VectorSpace.contains() in the isSolvable method and then one more
-	 * time later. This is inefficient, but i haven't bothered fixing it
-	 * yet
+	 * Square systems are solved with a Cholesky factorization when the matrix is
+	 * symmetric positive-definite, and with an LU factorization otherwise.
+	 * Singular and non-square systems fall back to row reduction, which
+	 * currently solves the system two times, both through the
+	 * VectorSpace.contains() in the isSolvable method and then one more time
+	 * later
+	 * 
+	 * To solve the same system for many right-hand sides, factor it once with
+	 * new CholeskyDecomposition(matrix) or new LUDecomposition(matrix) and call
+	 * solve on that instead
 	 * 
 	 * @param matrix that represents the systems coefficients
 	 * @param vector that represents what each expression should be equal to
@@ -41,14 +47,20 @@ public class LinearSystemsSolver {
 			return Optional.empty();
 
 		ReductionResult result = reducer.reduce(matrix);
-		Matrix aggregatedOperations = reducer.aggregateOperations(result.operations());
-		return Optional.ofNullable(aggregatedOperations.multiply(vector));
+		return Optional.ofNullable(result.tape().apply(vector));
 	}
 
 	private Optional<MyVector> solveSquareMatrixSystem(Matrix matrix, MyVector vector) {
-		Optional<Matrix> inverse = reducer.inverse(matrix);
-		if (inverse.isPresent())
-			return Optional.ofNullable(inverse.get().multiply(vector));
-		return Optional.empty();
+		if (vector.size() != matrix.rows())
+			return Optional.empty();
+
+		CholeskyDecomposition cholesky = new CholeskyDecomposition(matrix);
+		if (cholesky.isPositiveDefinite())
+			return Optional.of(cholesky.solve(vector));
+
+		LUDecomposition decomposition = new LUDecomposition(matrix);
+		if (decomposition.isSingular())
+			return Optional.empty();
+		return Optional.of(decomposition.solve(vector));
 	}
-}
\ No newline at end of file
+}
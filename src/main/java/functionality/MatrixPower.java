@@ -0,0 +1,212 @@
+package functionality;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import calculation.MatrixCalculator;
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+
+/**
+ * Powers M^n of one fixed matrix, for many different n
+ *
+ * The first time a power is asked for, M is diagonalized, M = V * D * V^-1.
+ * If that works and V is well-conditioned, every later power is
+ * V * D^n * V^-1, one matrix product no matter how large n is, and M^n * x is
+ * V * (D^n * (V^-1 * x)), which is O(size^2). A complex pair a +- bi in D
+ * is raised to the n-th power as a 2 x 2 rotation and scaling. A relative
+ * error e in an eigenvalue becomes a relative error of about n * e in its
+ * power, which is the same growth as repeated squaring
+ *
+ * If M is not diagonalizable, or V is so badly conditioned that V^-1 would
+ * lose most of the precision, repeated squaring is used instead. The squares
+ * M^(2^k) are kept, so later powers only multiply together the ones they need
+ *
+ * The matrix is copied, so changing it afterwards does not affect the powers
+ */
+public class MatrixPower {
+	/* V with a condition number above this is treated as not diagonalizable */
+	private static final double CONDITION_LIMIT = 1e8;
+
+	/* ================================= Fields ================================= */
+	private final int size;
+	private final Matrix matrix;
+	private final MatrixCalculator calculator = new MatrixCalculator();
+
+	private boolean decomposed;
+	private double[] real;
+	private double[] imaginary;
+	private Matrix v;
+	private Matrix vInverse;
+
+	// squares.get(k) is M^(2^k)
+	private final List<Matrix> squares = new ArrayList<>();
+
+	/* ============================== Constructors ============================== */
+	public MatrixPower(Matrix matrix) {
+		if (matrix.rows() != matrix.columns())
+			throw new IllegalArgumentException("Can only take powers of square matricies");
+		this.size = matrix.rows();
+		this.matrix = new OriginalMatrix(size, size, RowReducer.copyContents(matrix), 0, size);
+		squares.add(this.matrix);
+	}
+
+	/* ================================= Methods ================================ */
+	/*
+	 * Whether the powers come from the diagonalization, rather than from
+	 * repeated squaring
+	 */
+	public boolean isDiagonalizable() {
+		decompose();
+		return v != null;
+	}
+
+	public Matrix power(long exponent) {
+		requireNonNegative(exponent);
+		if (exponent == 0)
+			return calculator.power(matrix, 0);
+		if (exponent == 1)
+			return calculator.power(matrix, 1);
+
+		if (isDiagonalizable()) {
+			// (V * D^n) * V^-1, where V * D^n only scales and mixes pairs of columns
+			OriginalMatrix scaled = new OriginalMatrix(size, size);
+			double[] powers = new double[2];
+			for (int j = 0; j < size; j++) {
+				if (imaginary[j] == 0) {
+					double power = Math.pow(real[j], exponent);
+					for (int i = 0; i < size; i++) {
+						scaled.set(i, j, v.get(i, j) * power);
+					}
+					continue;
+				}
+				complexPower(real[j], imaginary[j], exponent, powers);
+				for (int i = 0; i < size; i++) {
+					double first = v.get(i, j);
+					double second = v.get(i, j + 1);
+					scaled.set(i, j, first * powers[0] - second * powers[1]);
+					scaled.set(i, j + 1, first * powers[1] + second * powers[0]);
+				}
+				j++;
+			}
+			return calculator.multiply(scaled, vInverse);
+		}
+
+		Matrix result = null;
+		for (int k = 0; exponent != 0; k++, exponent >>= 1) {
+			Matrix square = square(k);
+			if ((exponent & 1) == 1)
+				result = result == null ? square : calculator.multiply(result, square);
+		}
+		return result;
+	}
+
+	/*
+	 * M^n * vector, without forming M^n
+	 */
+	public MyVector apply(long exponent, MyVector vector) {
+		requireNonNegative(exponent);
+		if (vector.size() != size)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+		if (exponent == 0)
+			return vector.clone();
+
+		if (isDiagonalizable()) {
+			MyVector coordinates = vInverse.multiply(vector);
+			double[] powers = new double[2];
+			for (int j = 0; j < size; j++) {
+				double coordinate = coordinates.get(j);
+				if (imaginary[j] == 0) {
+					coordinates.set(j, coordinate * Math.pow(real[j], exponent));
+					continue;
+				}
+				// The block [a, b; -b, a]^n acting on the pair of coordinates
+				complexPower(real[j], imaginary[j], exponent, powers);
+				double next = coordinates.get(j + 1);
+				coordinates.set(j, powers[0] * coordinate + powers[1] * next);
+				coordinates.set(j + 1, -powers[1] * coordinate + powers[0] * next);
+				j++;
+			}
+			return v.multiply(coordinates);
+		}
+
+		MyVector result = vector.clone();
+		for (int k = 0; exponent != 0; k++, exponent >>= 1) {
+			if ((exponent & 1) == 1)
+				result = square(k).multiply(result);
+		}
+		return result;
+	}
+
+	/* ================================= Helpers ================================ */
+	private void decompose() {
+		if (decomposed)
+			return;
+		decomposed = true;
+
+		EigenDecomposition decomposition;
+		try {
+			decomposition = EigenDecomposition.of(matrix, true);
+		} catch (ArithmeticException e) {
+			return;
+		}
+
+		Matrix eigenvectors = decomposition.getV();
+		Matrix inverse;
+		if (decomposition instanceof SymmetricEigenDecomposition) {
+			// V is orthogonal
+			inverse = eigenvectors.transposed();
+		} else {
+			LUDecomposition lu = new LUDecomposition(eigenvectors);
+			if (lu.isSingular())
+				return;
+			inverse = lu.solve(calculator.power(eigenvectors, 0));
+			if (norm1(eigenvectors) * norm1(inverse) > CONDITION_LIMIT)
+				return;
+		}
+
+		this.real = decomposition.getRealEigenvalues();
+		this.imaginary = decomposition.getImaginaryEigenvalues();
+		this.v = eigenvectors;
+		this.vInverse = inverse;
+	}
+
+	private Matrix square(int k) {
+		while (squares.size() <= k) {
+			Matrix last = squares.get(squares.size() - 1);
+			squares.add(calculator.multiply(last, last));
+		}
+		return squares.get(k);
+	}
+
+	/*
+	 * (a + bi)^n, as {real part, imaginary part}
+	 */
+	private static void complexPower(double a, double b, long exponent, double[] result) {
+		double modulus = Math.pow(Math.hypot(a, b), exponent);
+		double angle = exponent * Math.atan2(b, a);
+		result[0] = modulus * Math.cos(angle);
+		result[1] = modulus * Math.sin(angle);
+	}
+
+	/*
+	 * The largest column sum of absolute values
+	 */
+	private static double norm1(Matrix m) {
+		double largest = 0;
+		for (int j = 0; j < m.columns(); j++) {
+			double sum = 0;
+			for (int i = 0; i < m.rows(); i++) {
+				sum += Math.abs(m.get(i, j));
+			}
+			largest = Math.max(largest, sum);
+		}
+		return largest;
+	}
+
+	private static void requireNonNegative(long exponent) {
+		if (exponent < 0)
+			throw new IllegalArgumentException("Exponent can not be negative");
+	}
+}
@@ -0,0 +1,236 @@
+package functionality;
+
+import representations.Matrix;
+import representations.MyVector;
+
+/**
+ * The dominant eigenvector of a matrix by power iteration, x <- A * x, for
+ * things like stationary distributions of Markov chains and PageRank
+ *
+ * With damping d, every step is x <- d * A * x + c * v instead, where v is
+ * the teleportation vector and c is whatever makes x sum to one. This is the
+ * PageRank step, including the mass lost through columns of A that sum to
+ * less than one, but the matrix d * A + v * e^T is never formed. A is only
+ * used through multiplyInto, so it can be sparse
+ *
+ * The engine keeps its last result and starts the next solve from it, so
+ * when the matrix has only changed a little since, few steps are needed.
+ * The vectors for the iteration are allocated once, and a step allocates
+ * nothing
+ */
+public class PowerIteration {
+	private static final int MAXIMAL_ITERATIONS = 10000;
+
+	/*
+	 * How the change between two steps is measured, by the sum of absolute
+	 * values or by the largest absolute value
+	 */
+	public enum Norm {
+		L1, MAXIMUM
+	}
+
+	/* ================================= Fields ================================= */
+	private final Matrix matrix;
+	private final int size;
+	private final double damping;
+	// Sums to one, or null without damping
+	private final MyVector teleportation;
+
+	private MyVector current;
+	private MyVector next;
+	private int iterations;
+	private double eigenvalue;
+
+	/* ============================== Constructors ============================== */
+	/*
+	 * Plain power iteration. Every step is scaled so the element of largest
+	 * absolute value is positive and the chosen norm is one
+	 */
+	public PowerIteration(Matrix matrix) {
+		this(matrix, 1, null);
+	}
+
+	/*
+	 * PageRank-style iteration with uniform teleportation
+	 */
+	public PowerIteration(Matrix matrix, double damping) {
+		this(matrix, damping, uniform(matrix.rows()));
+	}
+
+	/*
+	 * Without a teleportation vector the iteration is the plain one, which has
+	 * no damping, so then damping must be 1
+	 */
+	public PowerIteration(Matrix matrix, double damping, MyVector teleportation) {
+		if (matrix.rows() != matrix.columns())
+			throw new IllegalArgumentException("Can only iterate square matricies");
+		if (!(damping > 0 && damping <= 1))
+			throw new IllegalArgumentException("Damping must be above 0 and at most 1");
+		if (teleportation == null && damping != 1)
+			throw new IllegalArgumentException("Damping needs a teleportation vector");
+
+		this.matrix = matrix;
+		this.size = matrix.rows();
+		this.damping = damping;
+		if (teleportation == null) {
+			this.teleportation = null;
+		} else {
+			if (teleportation.size() != size)
+				throw new IllegalArgumentException("Vector has wrong dimensions");
+			double sum = 0;
+			for (int i = 0; i < size; i++) {
+				if (teleportation.get(i) < 0)
+					throw new IllegalArgumentException("Teleportation can not be negative");
+				sum += teleportation.get(i);
+			}
+			if (sum == 0)
+				throw new IllegalArgumentException("Teleportation can not be zero");
+			this.teleportation = teleportation.scaled(1 / sum);
+		}
+
+		this.current = new MyVector(size);
+		this.next = new MyVector(size);
+		startOver();
+	}
+
+	/* ================================= Methods ================================ */
+	/*
+	 * Iterates from the last result until one step changes it by at most
+	 * tolerance times its norm, and returns a copy of it. Throws if that takes
+	 * more than MAXIMAL_ITERATIONS steps
+	 */
+	public MyVector solve(double tolerance, Norm norm) {
+		iterations = 0;
+		while (iterations < MAXIMAL_ITERATIONS) {
+			step(norm);
+			iterations++;
+
+			double change = 0;
+			for (int i = 0; i < size; i++) {
+				double difference = Math.abs(next.get(i) - current.get(i));
+				change = norm == Norm.L1 ? change + difference : Math.max(change, difference);
+			}
+			MyVector temporary = current;
+			current = next;
+			next = temporary;
+			if (change <= tolerance * norm(current, norm))
+				return current.clone();
+		}
+		throw new ArithmeticException("Power iteration did not converge");
+	}
+
+	public MyVector solve(double tolerance) {
+		return solve(tolerance, Norm.L1);
+	}
+
+	/*
+	 * Starts the next solve from the given vector instead of the last result.
+	 * With damping the iterates are distributions, so the start can not have
+	 * negative elements and is scaled to sum to one
+	 */
+	public void warmStart(MyVector start) {
+		if (start.size() != size)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+		double sum = 0;
+		boolean zero = true;
+		for (int i = 0; i < size; i++) {
+			double value = start.get(i);
+			if (teleportation != null && value < 0)
+				throw new IllegalArgumentException("Start can not be negative");
+			sum += value;
+			zero &= value == 0;
+		}
+		if (zero || (teleportation != null && sum == 0))
+			throw new IllegalArgumentException("Start can not be zero");
+
+		double scale = teleportation == null ? 1 : 1 / sum;
+		for (int i = 0; i < size; i++) {
+			current.set(i, scale * start.get(i));
+		}
+	}
+
+	/*
+	 * Starts the next solve from the uniform vector, or the teleportation
+	 * vector when there is one
+	 */
+	public void reset() {
+		startOver();
+	}
+
+	/* ================================= Getters ================================ */
+	/*
+	 * The number of steps the last solve took
+	 */
+	public int iterations() {
+		return iterations;
+	}
+
+	/*
+	 * The dominant eigenvalue as estimated by the last step. With damping this
+	 * is the factor the sum of x is multiplied by, which is one
+	 */
+	public double getEigenvalue() {
+		return eigenvalue;
+	}
+
+	/* ================================= Helpers ================================ */
+	private void startOver() {
+		for (int i = 0; i < size; i++) {
+			current.set(i, teleportation == null ? 1.0 / size : teleportation.get(i));
+		}
+		eigenvalue = 0;
+	}
+
+	/*
+	 * Writes the next iterate into next
+	 */
+	private void step(Norm norm) {
+		matrix.multiplyInto(current, next);
+
+		if (teleportation != null) {
+			// Whatever is not kept is teleported, so the sum stays one without
+			// drifting from rounding
+			double kept = 0;
+			for (int i = 0; i < size; i++) {
+				kept += damping * next.get(i);
+			}
+			double teleported = 1 - kept;
+			for (int i = 0; i < size; i++) {
+				next.set(i, damping * next.get(i) + teleported * teleportation.get(i));
+			}
+			eigenvalue = 1;
+			return;
+		}
+
+		// Sign and size from the largest element, so a negative eigenvalue does
+		// not flip the vector every step
+		int largest = 0;
+		for (int i = 1; i < size; i++) {
+			if (Math.abs(next.get(i)) > Math.abs(next.get(largest)))
+				largest = i;
+		}
+		double length = norm(next, norm);
+		if (length == 0)
+			throw new ArithmeticException("Power iteration reached the zero vector");
+		if (current.get(largest) != 0)
+			eigenvalue = next.get(largest) / current.get(largest);
+		next.scale(Math.signum(next.get(largest)) / length);
+	}
+
+	private static double norm(MyVector vector, Norm norm) {
+		double result = 0;
+		for (int i = 0; i < vector.size(); i++) {
+			double value = Math.abs(vector.get(i));
+			result = norm == Norm.L1 ? result + value : Math.max(result, value);
+		}
+		return result;
+	}
+
+	private static MyVector uniform(int size) {
+		MyVector vector = new MyVector(size);
+		for (int i = 0; i < size; i++) {
+			vector.set(i, 1);
+		}
+		return vector;
+	}
+}
@@ -2,7 +2,6 @@ package functionality;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import calculation.MatrixCalculator;
 import calculation.VectorCalculator;
@@ -34,27 +33,46 @@ public class ProjectionCalculator {
 		return baseVector.scaled(scalar);
 	}
 
+	/*
+	 * Q * Q^T * vector with the projector cached on the space, in O(n * k)
+	 */
 	public MyVector projectOnto(MyVector vector, VectorSpace space) {
 		if (space.getDimensionOfVectors() != vector.size()) {
 			throw new IllegalArgumentException("Vector dimension does not match basis vectors in VectorSpace");
 		}
+		return space.getProjector().multiply(vector);
+	}
 
-		List<MyVector> orthogonalBasis = orthogonalBasisOf(space);
-
-		List<MyVector> projectedResiduals = orthogonalBasis.stream()
-				.map(basisVector -> projectOnto(vector, basisVector))
-				.collect(Collectors.toCollection(ArrayList::new));
-
-		MyVector projectedVector = new MyVector(vector.size());
-		for (MyVector residualVector : projectedResiduals) {
-			projectedVector.add(residualVector);
+	/**
+	 * Projects every column of the matrix onto the space at once, with the
+	 * space factored only once and the work done as blocked matrix products
+	 * 
+	 * @param vectors the vectors to project, as columns
+	 * @param space
+	 * @return the projections, as columns
+	 */
+	public Matrix projectOnto(Matrix vectors, VectorSpace space) {
+		if (space.getDimensionOfVectors() != vectors.rows()) {
+			throw new IllegalArgumentException("Vector dimension does not match basis vectors in VectorSpace");
 		}
-		return projectedVector;
+		return space.projectColumns(vectors);
+	}
+
+	public List<MyVector> projectOnto(List<MyVector> vectors, VectorSpace space) {
+		if (vectors.isEmpty())
+			return new ArrayList<>();
+		return projectOnto(new OriginalMatrix(vectors, true), space).getColumnVectors();
 	}
 
 	/**
-	 * Method that produces an orthogonal basis of a list of vectors using Graham
-	 * Smiths method
+	 * Method that produces an orthogonal basis of a list of vectors. It gives
+	 * the same vectors as Graham Smiths method, but they are computed with a
+	 * Householder QR factorization, which stays orthogonal even when the
+	 * vectors are close to dependent
+	 * 
+	 * Vector i is column i of Q scaled by R_ii, which is exactly what is left of
+	 * the basis vector after subtracting its projections onto the ones before
+	 * it. Vectors in the span of the ones before them are dropped
 	 * 
 	 * @param basis
 	 * @return
@@ -63,57 +81,77 @@ public class ProjectionCalculator {
 		if (basis.isEmpty())
 			return new ArrayList<>();
 
-		List<MyVector> orthogonalBasisVectors = new ArrayList<>();
-		orthogonalBasisVectors.add(basis.get(0));
-
-		for (int i = 1; i < basis.size(); i++) {
-			MyVector currentWorkingVector = basis.get(i).clone();
-			for (MyVector vector : orthogonalBasisVectors) {
-				/*
-				 * This next line doesn't follow the regular algorithm, as it is normal to
-				 * subtract the original vector's projection onto the orthogonal vectors, not
-				 * the partially orthogonalized workingvector. However, this must necessarily
-				 * give the same result, as the vectors we project onto are orthogonal
-				 */
-				currentWorkingVector.subtract(projectOnto(currentWorkingVector, vector));
-			}
-			if (!(Utils.isZero(currentWorkingVector.length())))
-				orthogonalBasisVectors.add(currentWorkingVector);
+		QRDecomposition decomposition = new QRDecomposition(basis);
+		List<MyVector> orthogonalBasisVectors = decomposition.getOrthonormalColumns();
+		double[] diagonal = decomposition.getDiagonal();
+		for (int i = 0; i < orthogonalBasisVectors.size(); i++) {
+			orthogonalBasisVectors.get(i).scale(diagonal[i]);
 		}
 		return orthogonalBasisVectors;
 	}
 
+	/*
+	 * The same vectors, from the orthonormal basis the space already keeps
+	 */
 	public List<MyVector> orthogonalBasisOf(VectorSpace vectorSpace) {
-		return orthogonalBasisOf(vectorSpace.getBasisVectors());
+		return vectorSpace.getOrthogonalBasis();
 	}
 
+	/*
+	 * Column i of Q, with the sign of R_ii so it points the same way as the
+	 * Gram-Schmidt vector
+	 */
 	public List<MyVector> orthoNormalBasisOf(List<MyVector> basis) {
-		List<MyVector> orthogonalBasisVectors = orthogonalBasisOf(basis);
-		for (MyVector vector : orthogonalBasisVectors) {
-			vector.normalize();
+		if (basis.isEmpty())
+			return new ArrayList<>();
+
+		QRDecomposition decomposition = new QRDecomposition(basis);
+		List<MyVector> orthoNormalBasisVectors = decomposition.getOrthonormalColumns();
+		double[] diagonal = decomposition.getDiagonal();
+		for (int i = 0; i < orthoNormalBasisVectors.size(); i++) {
+			if (diagonal[i] < 0)
+				orthoNormalBasisVectors.get(i).scale(-1);
 		}
-		return orthogonalBasisVectors;
+		return orthoNormalBasisVectors;
 	}
 
+	/*
+	 * The space keeps this basis itself, built by Gram-Schmidt in the same
+	 * order, so nothing is factored
+	 */
 	public List<MyVector> orthoNormalBasisOf(VectorSpace vectorSpace) {
-		return orthoNormalBasisOf(vectorSpace.getBasisVectors());
+		return vectorSpace.getOrthonormalBasis();
 	}
 
 	/**
 	 * Leverages the fact that for an orthonormal basis of a vectorspace,
 	 * [P_u] = A*AT
 	 * 
+	 * The matrix is dense and new on every call, so it can be changed freely.
+	 * To only apply the projection, projectOntoUsingProjectionMatrix is O(n * k)
+	 * instead of O(n^2)
+	 * 
 	 * @param space
 	 * @return The matrix representation of the linear transformation that is
 	 *         projection onto the space
 	 */
 	public Matrix projectionMatrix(VectorSpace space) {
+		List<MyVector> orthoNormalBasis = orthoNormalBasisOf(space);
+		if (orthoNormalBasis.isEmpty())
+			return new OriginalMatrix(space.getDimensionOfVectors(), space.getDimensionOfVectors());
+
 		MatrixCalculator matrixCalculator = new MatrixCalculator();
-		Matrix orthoNormalMatrix = new OriginalMatrix(orthoNormalBasisOf(space), true);
+		Matrix orthoNormalMatrix = new OriginalMatrix(orthoNormalBasis, true);
 		return matrixCalculator.multiply(orthoNormalMatrix, orthoNormalMatrix.transposed());
 	}
 
+	/*
+	 * Applies the projector cached on the space, Q * (Q^T * vector), without
+	 * ever forming the n x n matrix
+	 */
 	public MyVector projectOntoUsingProjectionMatrix(MyVector vector, VectorSpace space) {
-		return projectionMatrix(space).multiply(vector);
+		if (space.getDimensionOfVectors() != vector.size())
+			throw new IllegalArgumentException("Vector dimension does not match basis vectors in VectorSpace");
+		return space.getProjector().multiply(vector);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,341 @@
+package functionality;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+import utils.Utils;
+
+/**
+ * Householder QR factorization of a list of column vectors, A = Q * R
+ *
+ * The columns are packed one after another into a single column-major array
+ * and factored in place. Each reflector H = I - tau * v * v^T is kept as its
+ * vector v (below the diagonal, with an implicit leading 1) and tau, so Q is
+ * never formed unless asked for. Applying Q or Q^T to a vector costs O(n * r)
+ *
+ * A column that is already in the span of the earlier ones (its residual after
+ * the earlier reflectors is zero) gets no reflector and is skipped, the same
+ * way Gram-Schmidt drops dependent vectors. So Q has rank() columns, one per
+ * independent column of A, and R is rank() x columns
+ *
+ * The columns are factored in panels of PANEL. Inside a panel each column
+ * first gets the panel's earlier reflectors, then its own reflector is formed.
+ * When the panel is done, all its reflectors are applied to every remaining
+ * column in one pass, so a trailing column is read once per panel rather than
+ * once per reflector. The trailing columns are independent and are updated in
+ * parallel when there is enough work
+ */
+public class QRDecomposition {
+	private static final int PANEL = 32;
+	/* Trailing updates with fewer flops than this stay on the calling thread */
+	private static final long PARALLEL_THRESHOLD = 1L << 18;
+
+	/* ================================= Fields ================================= */
+	private final int length;
+	private final int columns;
+	private final double[] qr;
+	private final double[] tau;
+	private final double[] diagonal;
+	private final int[] independentColumns;
+	private final int[] reflectorsBefore;
+	private final int rank;
+
+	/* ============================== Constructors ============================== */
+	public QRDecomposition(List<MyVector> vectors) {
+		this(vectors.isEmpty() ? 0 : vectors.get(0).size(), vectors.size(), pack(vectors));
+	}
+
+	public QRDecomposition(Matrix matrix) {
+		this(matrix.rows(), matrix.columns(), pack(matrix));
+	}
+
+	private QRDecomposition(int length, int columns, double[] qr) {
+		this.length = length;
+		this.columns = columns;
+		this.qr = qr;
+		int maximalRank = Math.min(length, columns);
+		this.tau = new double[maximalRank];
+		this.diagonal = new double[maximalRank];
+		this.reflectorsBefore = new int[columns];
+		this.independentColumns = new int[maximalRank];
+		this.rank = factor();
+	}
+
+	private static double[] pack(List<MyVector> vectors) {
+		if (vectors.isEmpty())
+			return new double[0];
+		int length = vectors.get(0).size();
+		double[] packed = new double[length * vectors.size()];
+		for (int j = 0; j < vectors.size(); j++) {
+			MyVector vector = vectors.get(j);
+			if (vector.size() != length)
+				throw new IllegalArgumentException("All vectors must be of same dimension");
+			for (int i = 0; i < length; i++) {
+				packed[j * length + i] = vector.get(i);
+			}
+		}
+		return packed;
+	}
+
+	private static double[] pack(Matrix matrix) {
+		int length = matrix.rows();
+		double[] packed = new double[length * matrix.columns()];
+		for (int i = 0; i < length; i++) {
+			for (int j = 0; j < matrix.columns(); j++) {
+				packed[j * length + i] = matrix.get(i, j);
+			}
+		}
+		return packed;
+	}
+
+	/* ============================== Factorization ============================= */
+	/*
+	 * Returns the rank, and fills in which columns got a reflector
+	 */
+	private int factor() {
+		double[] columnNorms = new double[columns];
+		for (int j = 0; j < columns; j++) {
+			columnNorms[j] = norm(j * length, length);
+		}
+
+		int reflectors = 0;
+		for (int panelStart = 0; panelStart < columns; panelStart += PANEL) {
+			int panelEnd = Math.min(panelStart + PANEL, columns);
+			int firstReflector = reflectors;
+
+			for (int j = panelStart; j < panelEnd; j++) {
+				int columnStart = j * length;
+				for (int h = firstReflector; h < reflectors; h++) {
+					applyReflector(h, columnStart);
+				}
+				reflectorsBefore[j] = reflectors;
+
+				if (reflectors == length)
+					continue;
+				double residual = norm(columnStart + reflectors, length - reflectors);
+				if (Utils.isNegligibleResidual(residual, columnNorms[j]))
+					continue;
+
+				formReflector(reflectors, columnStart, residual);
+				independentColumns[reflectors++] = j;
+			}
+
+			int from = firstReflector;
+			int to = reflectors;
+			if (to == from || panelEnd == columns)
+				continue;
+			long work = 4L * (columns - panelEnd) * (to - from) * (length - from);
+			IntStream trailing = IntStream.range(panelEnd, columns);
+			if (work >= PARALLEL_THRESHOLD)
+				trailing = trailing.parallel();
+			trailing.forEach(j -> {
+				for (int h = from; h < to; h++) {
+					applyReflector(h, j * length);
+				}
+			});
+		}
+		return reflectors;
+	}
+
+	/*
+	 * Turns column entries [row, length) into the reflector for that row. The
+	 * diagonal of R goes in diagonal[row], v (without its leading 1) below it
+	 */
+	private void formReflector(int row, int columnStart, double norm) {
+		int head = columnStart + row;
+		double x0 = qr[head];
+		if (norm(head + 1, length - row - 1) == 0) {
+			// Already a multiple of e_row, so H = I
+			tau[row] = 0;
+			diagonal[row] = x0;
+			return;
+		}
+
+		double beta = x0 >= 0 ? -norm : norm;
+		tau[row] = (beta - x0) / beta;
+		double scale = 1 / (x0 - beta);
+		for (int i = head + 1; i < columnStart + length; i++) {
+			qr[i] *= scale;
+		}
+		qr[head] = beta;
+		diagonal[row] = beta;
+	}
+
+	/*
+	 * Applies reflector h to the column (or vector) starting at target
+	 */
+	private void applyReflector(int h, int target) {
+		applyReflector(h, qr, target);
+	}
+
+	private void applyReflector(int h, double[] values, int target) {
+		double t = tau[h];
+		if (t == 0)
+			return;
+		int reflectorStart = independentColumns[h] * length;
+		double sum = values[target + h];
+		for (int i = h + 1; i < length; i++) {
+			sum += qr[reflectorStart + i] * values[target + i];
+		}
+		double w = t * sum;
+		values[target + h] -= w;
+		for (int i = h + 1; i < length; i++) {
+			values[target + i] -= w * qr[reflectorStart + i];
+		}
+	}
+
+	/* ================================= Methods ================================ */
+	public int rank() {
+		return rank;
+	}
+
+	/*
+	 * Q^T * vector, with the full n x n Q
+	 */
+	public MyVector applyQTransposed(MyVector vector) {
+		double[] values = toArray(vector);
+		for (int h = 0; h < rank; h++) {
+			applyReflector(h, values, 0);
+		}
+		return new MyVector(values);
+	}
+
+	/*
+	 * Q * vector, with the full n x n Q
+	 */
+	public MyVector applyQ(MyVector vector) {
+		double[] values = toArray(vector);
+		for (int h = rank - 1; h >= 0; h--) {
+			applyReflector(h, values, 0);
+		}
+		return new MyVector(values);
+	}
+
+	/*
+	 * The orthogonal projection of the vector onto the span of the columns,
+	 * Q_r * Q_r^T * vector, in O(n * r)
+	 */
+	public MyVector project(MyVector vector) {
+		double[] values = toArray(vector);
+		for (int h = 0; h < rank; h++) {
+			applyReflector(h, values, 0);
+		}
+		Arrays.fill(values, rank, length, 0);
+		for (int h = rank - 1; h >= 0; h--) {
+			applyReflector(h, values, 0);
+		}
+		return new MyVector(values);
+	}
+
+	/* ================================= Getters ================================ */
+	/*
+	 * The indicies of the columns that were not in the span of the ones before
+	 * them. Column i of Q belongs to column getIndependentColumns()[i] of A
+	 */
+	public int[] getIndependentColumns() {
+		return Arrays.copyOf(independentColumns, rank);
+	}
+
+	/*
+	 * The rank() columns of Q that span the same space as A, built by applying
+	 * the reflectors to the unit vectors from the last one back
+	 */
+	public List<MyVector> getOrthonormalColumns() {
+		double[] q = new double[length * rank];
+		for (int j = 0; j < rank; j++) {
+			q[j * length + j] = 1;
+		}
+		for (int h = rank - 1; h >= 0; h--) {
+			// Reflector h leaves the unit vectors before it alone
+			for (int j = h; j < rank; j++) {
+				applyReflector(h, q, j * length);
+			}
+		}
+
+		List<MyVector> orthonormalColumns = new ArrayList<>(rank);
+		for (int j = 0; j < rank; j++) {
+			orthonormalColumns.add(new MyVector(Arrays.copyOfRange(q, j * length, (j + 1) * length)));
+		}
+		return orthonormalColumns;
+	}
+
+	/*
+	 * The length x rank() Q. A matrix can not have zero columns, so when A is
+	 * zero this is the length x length identity instead, which with the zero R
+	 * still gives A = Q * R
+	 */
+	public Matrix getQ() {
+		if (rank == 0) {
+			OriginalMatrix identity = new OriginalMatrix(length, length);
+			for (int i = 0; i < length; i++) {
+				identity.set(i, i, 1);
+			}
+			return identity;
+		}
+		return new OriginalMatrix(getOrthonormalColumns(), true);
+	}
+
+	/*
+	 * The rank() x columns upper trapezoidal R. A dependent column only has
+	 * entries in the rows of the reflectors before it. When A is zero this is
+	 * the length x columns zero matrix, to go with getQ()
+	 */
+	public Matrix getR() {
+		if (rank == 0)
+			return new OriginalMatrix(length, columns);
+		OriginalMatrix r = new OriginalMatrix(rank, columns);
+		for (int j = 0; j < columns; j++) {
+			int before = reflectorsBefore[j];
+			for (int i = 0; i < before; i++) {
+				r.set(i, j, qr[j * length + i]);
+			}
+			if (before < rank && independentColumns[before] == j)
+				r.set(before, j, diagonal[before]);
+		}
+		return r;
+	}
+
+	/*
+	 * The diagonal of R, one element per independent column. Column i of Q
+	 * scaled by element i is the Gram-Schmidt vector for that column
+	 */
+	public double[] getDiagonal() {
+		return Arrays.copyOf(diagonal, rank);
+	}
+
+	public int length() {
+		return length;
+	}
+
+	public int columns() {
+		return columns;
+	}
+
+	/* ================================= Helpers ================================ */
+	private double[] toArray(MyVector vector) {
+		if (vector.size() != length)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+		return vector.contents();
+	}
+
+	private double norm(int from, int count) {
+		// Scaled so squaring does not overflow or underflow
+		double largest = 0;
+		for (int i = from; i < from + count; i++) {
+			largest = Math.max(largest, Math.abs(qr[i]));
+		}
+		if (largest == 0)
+			return 0;
+		double sum = 0;
+		for (int i = from; i < from + count; i++) {
+			double scaled = qr[i] / largest;
+			sum += scaled * scaled;
+		}
+		return largest * Math.sqrt(sum);
+	}
+}
@@ -0,0 +1,322 @@
+package functionality;
+
+import java.util.Arrays;
+import java.util.List;
+
+import representations.Matrix;
+import representations.MyVector;
+import utils.Utils;
+
+/**
+ * Householder QR with column pivoting, A * P = Q * R
+ *
+ * At every step the remaining column with the largest norm is moved to the
+ * front before its reflector is formed, so the diagonal of R is decreasing
+ * in size. The factorization stops at the first diagonal element that is
+ * negligible compared to the first one, and the number of steps taken is the
+ * numerical rank. Since the decision is relative, the rank does not change
+ * when the whole matrix is scaled
+ *
+ * The norms of the remaining columns are downdated after each step instead
+ * of recomputed, which keeps the pivot search O(n) per step. When a downdated
+ * norm has lost too much to cancellation it is recomputed from the column
+ *
+ * The first rank() pivot columns are a minimal subset of the columns that
+ * spans the same space, and the smallest singular value of their R is
+ * estimated by a few steps of inverse iteration on R^T * R
+ */
+public class RankRevealingQR {
+	/* Downdated norms that have shrunk below this fraction of their last exact value are recomputed */
+	private static final double RECOMPUTE_THRESHOLD = Math.sqrt(Math.ulp(1.0));
+	private static final int ESTIMATION_STEPS = 8;
+
+	/* ================================= Fields ================================= */
+	private final int length;
+	private final int columns;
+	private final double[] qr;
+	private final int[] pivots;
+	private final int rank;
+
+	/* ============================== Constructors ============================== */
+	public RankRevealingQR(List<MyVector> vectors) {
+		this(vectors.isEmpty() ? 0 : vectors.get(0).size(), vectors.size(), pack(vectors));
+	}
+
+	public RankRevealingQR(Matrix matrix) {
+		this(matrix.rows(), matrix.columns(), pack(matrix));
+	}
+
+	private RankRevealingQR(int length, int columns, double[] qr) {
+		this.length = length;
+		this.columns = columns;
+		this.qr = qr;
+		this.pivots = new int[columns];
+		for (int j = 0; j < columns; j++) {
+			pivots[j] = j;
+		}
+		this.rank = factor();
+	}
+
+	private static double[] pack(List<MyVector> vectors) {
+		if (vectors.isEmpty())
+			return new double[0];
+		int length = vectors.get(0).size();
+		double[] packed = new double[length * vectors.size()];
+		for (int j = 0; j < vectors.size(); j++) {
+			MyVector vector = vectors.get(j);
+			if (vector.size() != length)
+				throw new IllegalArgumentException("All vectors must be of same dimension");
+			for (int i = 0; i < length; i++) {
+				packed[j * length + i] = vector.get(i);
+			}
+		}
+		return packed;
+	}
+
+	private static double[] pack(Matrix matrix) {
+		int length = matrix.rows();
+		double[] packed = new double[length * matrix.columns()];
+		for (int i = 0; i < length; i++) {
+			for (int j = 0; j < matrix.columns(); j++) {
+				packed[j * length + i] = matrix.get(i, j);
+			}
+		}
+		return packed;
+	}
+
+	/* ============================== Factorization ============================= */
+	/*
+	 * Returns the rank. Column k of the packed array ends up holding column
+	 * pivots[k] of A, with R on and above the diagonal and the reflector below
+	 */
+	private int factor() {
+		double[] norms = new double[columns];
+		double[] exactNorms = new double[columns];
+		for (int j = 0; j < columns; j++) {
+			norms[j] = norm(j * length, 0);
+			exactNorms[j] = norms[j];
+		}
+
+		int maximalRank = Math.min(length, columns);
+		double largestDiagonal = 0;
+		for (int k = 0; k < maximalRank; k++) {
+			int pivot = k;
+			for (int j = k + 1; j < columns; j++) {
+				if (norms[j] > norms[pivot])
+					pivot = j;
+			}
+			if (pivot != k) {
+				swapColumns(k, pivot);
+				swap(norms, k, pivot);
+				swap(exactNorms, k, pivot);
+			}
+
+			int columnStart = k * length;
+			double residual = norm(columnStart, k);
+			if (k == 0)
+				largestDiagonal = residual;
+			if (residual == 0 || Utils.isNegligible(residual, largestDiagonal))
+				return k;
+
+			double tau = formReflector(columnStart, k, residual);
+			for (int j = k + 1; j < columns; j++) {
+				applyReflector(tau, columnStart, k, j * length);
+
+				if (norms[j] == 0)
+					continue;
+				double ratio = Math.abs(qr[j * length + k]) / norms[j];
+				double remaining = Math.max(0, (1 - ratio) * (1 + ratio));
+				double drift = norms[j] / exactNorms[j];
+				if (remaining * drift * drift <= RECOMPUTE_THRESHOLD) {
+					norms[j] = norm(j * length, k + 1);
+					exactNorms[j] = norms[j];
+				} else {
+					norms[j] *= Math.sqrt(remaining);
+				}
+			}
+		}
+		return maximalRank;
+	}
+
+	/*
+	 * Turns column entries [row, length) into a reflector, leaving R_row,row on
+	 * the diagonal and v (without its leading 1) below it. Returns tau, or 0
+	 * when the column already is a multiple of e_row
+	 */
+	private double formReflector(int columnStart, int row, double norm) {
+		int head = columnStart + row;
+		double x0 = qr[head];
+		if (norm(columnStart, row + 1) == 0)
+			return 0;
+
+		double beta = x0 >= 0 ? -norm : norm;
+		double scale = 1 / (x0 - beta);
+		for (int i = head + 1; i < columnStart + length; i++) {
+			qr[i] *= scale;
+		}
+		qr[head] = beta;
+		return (beta - x0) / beta;
+	}
+
+	private void applyReflector(double tau, int reflectorStart, int row, int target) {
+		if (tau == 0)
+			return;
+		double sum = qr[target + row];
+		for (int i = row + 1; i < length; i++) {
+			sum += qr[reflectorStart + i] * qr[target + i];
+		}
+		double w = tau * sum;
+		qr[target + row] -= w;
+		for (int i = row + 1; i < length; i++) {
+			qr[target + i] -= w * qr[reflectorStart + i];
+		}
+	}
+
+	private void swapColumns(int first, int second) {
+		int firstStart = first * length;
+		int secondStart = second * length;
+		for (int i = 0; i < length; i++) {
+			double temporary = qr[firstStart + i];
+			qr[firstStart + i] = qr[secondStart + i];
+			qr[secondStart + i] = temporary;
+		}
+		int temporary = pivots[first];
+		pivots[first] = pivots[second];
+		pivots[second] = temporary;
+	}
+
+	/* ================================= Methods ================================ */
+	/*
+	 * The numerical rank, the number of diagonal elements of R that are not
+	 * negligible compared to the largest one
+	 */
+	public int rank() {
+		return rank;
+	}
+
+	/*
+	 * An estimate of the smallest singular value of the first rank() pivot
+	 * columns, which is how far they are from being dependent. Each step of
+	 * inverse iteration is two triangular solves with R, so O(rank^2)
+	 */
+	public double smallestSingularValueEstimate() {
+		if (rank == 0)
+			return 0;
+
+		double[] x = new double[rank];
+		for (int i = 0; i < rank; i++) {
+			// Uneven, so it is unlikely to be orthogonal to the singular vector
+			x[i] = 1 + (double) i / rank;
+		}
+		double largestEigenvalue = 0;
+		for (int step = 0; step < ESTIMATION_STEPS; step++) {
+			normalize(x);
+			solveRTransposed(x);
+			solveR(x);
+			largestEigenvalue = Math.sqrt(dot(x, x));
+		}
+		return 1 / Math.sqrt(largestEigenvalue);
+	}
+
+	private void solveRTransposed(double[] x) {
+		for (int i = 0; i < rank; i++) {
+			int columnStart = i * length;
+			double sum = x[i];
+			for (int k = 0; k < i; k++) {
+				sum -= qr[columnStart + k] * x[k];
+			}
+			x[i] = sum / qr[columnStart + i];
+		}
+	}
+
+	private void solveR(double[] x) {
+		for (int i = rank - 1; i >= 0; i--) {
+			int columnStart = i * length;
+			double value = x[i] / qr[columnStart + i];
+			x[i] = value;
+			for (int k = 0; k < i; k++) {
+				x[k] -= qr[columnStart + k] * value;
+			}
+		}
+	}
+
+	/* ================================= Getters ================================ */
+	/*
+	 * The order the columns were factored in. Column k of Q * R is column
+	 * getPivotColumns()[k] of A
+	 */
+	public int[] getPivotColumns() {
+		return pivots.clone();
+	}
+
+	/*
+	 * The indicies of a minimal set of columns that spans the same space as
+	 * all of them, in increasing order
+	 */
+	public int[] getBasisColumns() {
+		int[] basisColumns = Arrays.copyOf(pivots, rank);
+		Arrays.sort(basisColumns);
+		return basisColumns;
+	}
+
+	/*
+	 * The absolute values of the diagonal of R, in decreasing order, one for
+	 * each of the rank() factored columns
+	 */
+	public double[] getDiagonal() {
+		double[] diagonal = new double[rank];
+		for (int k = 0; k < rank; k++) {
+			diagonal[k] = Math.abs(qr[k * length + k]);
+		}
+		return diagonal;
+	}
+
+	public int length() {
+		return length;
+	}
+
+	public int columns() {
+		return columns;
+	}
+
+	/* ================================= Helpers ================================ */
+	/*
+	 * The norm of entries [from, length) of the column starting at columnStart
+	 */
+	private double norm(int columnStart, int from) {
+		// Scaled so squaring does not overflow or underflow
+		double largest = 0;
+		for (int i = columnStart + from; i < columnStart + length; i++) {
+			largest = Math.max(largest, Math.abs(qr[i]));
+		}
+		if (largest == 0)
+			return 0;
+		double sum = 0;
+		for (int i = columnStart + from; i < columnStart + length; i++) {
+			double scaled = qr[i] / largest;
+			sum += scaled * scaled;
+		}
+		return largest * Math.sqrt(sum);
+	}
+
+	private static void swap(double[] values, int first, int second) {
+		double temporary = values[first];
+		values[first] = values[second];
+		values[second] = temporary;
+	}
+
+	private static double dot(double[] first, double[] second) {
+		double sum = 0;
+		for (int i = 0; i < first.length; i++) {
+			sum += first[i] * second[i];
+		}
+		return sum;
+	}
+
+	private static void normalize(double[] x) {
+		double length = Math.sqrt(dot(x, x));
+		for (int i = 0; i < x.length; i++) {
+			x[i] /= length;
+		}
+	}
+}
@@ -0,0 +1,476 @@
+package functionality;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+import utils.Utils;
+
+/**
+ * The thick-restart Krylov iteration behind LanczosEigenSolver and
+ * ArnoldiEigenSolver
+ *
+ * An orthonormal basis V of at most m vectors is grown one matrix-vector
+ * product at a time, and kept in the form A * V = V * H + f * b^T, where H
+ * is small and f is orthogonal to V. The eigenpairs of H give approximate
+ * eigenpairs (theta, V * y) of A, whose residual is |b^T * y| * |f|, so
+ * convergence can be checked without touching A. When the basis is full the
+ * best Ritz vectors are kept, the rest of the basis is thrown away, and the
+ * iteration goes on from f. Since the kept vectors span an invariant
+ * subspace of H, the form above still holds after the restart, with a full
+ * last row instead of a single subdiagonal element, so H is simply treated
+ * as a dense matrix
+ *
+ * Only the matrix-vector products touch A, and the memory is the m + 1
+ * basis vectors, where m is about twice the number of eigenvalues wanted.
+ * Every new vector is orthogonalized against the whole basis, and again if
+ * that removed most of it, which keeps the basis orthonormal to working
+ * precision
+ */
+final class RestartedKrylov {
+	private static final int MAXIMAL_RESTARTS = 1000;
+	/* Extra vectors beyond twice the wanted ones, so small requests still have room */
+	private static final int MINIMAL_EXTRA_VECTORS = 20;
+	/* Element indicies per block when combining basis vectors */
+	private static final int BLOCK_SIZE = 256;
+	/* Orthogonalize a second time when less than this much of the vector is left */
+	private static final double REORTHOGONALIZATION_RATIO = 0.7071;
+
+	/* ================================= Fields ================================= */
+	private final Matrix matrix;
+	private final int n;
+	private final int m;
+	private final boolean symmetric;
+	private final boolean largest;
+	private final Random random = new Random(0);
+
+	// The basis, plus the normalized f in the last place. Kept as plain arrays,
+	// and copied into input and output around each product with A
+	private final double[][] basis;
+	private final MyVector input;
+	private final MyVector output;
+	// (m + 1) x m, row-major. Row m holds |f| * b^T
+	private final double[] h;
+	private final double[] block;
+
+	// Ritz values and vectors of the current H. Column j of y is at y[i * m + j]
+	private final double[] ritzReal;
+	private final double[] ritzImaginary;
+	private double[] y;
+	private int[] order;
+
+	final double[] real;
+	final double[] imaginary;
+	final MyVector[] vectors;
+
+	/* ============================== Constructors ============================== */
+	/*
+	 * For symmetric matricies the largest or smallest eigenvalues are found.
+	 * For the rest, largest has to be true, and it means largest in absolute
+	 * value. A complex pair is never split, so there may be count + 1
+	 */
+	RestartedKrylov(Matrix matrix, int count, boolean symmetric, boolean largest) {
+		if (matrix.rows() != matrix.columns())
+			throw new IllegalArgumentException("Can only find eigenvalues of square matricies");
+		int n = matrix.rows();
+		if (count < 1 || count > n)
+			throw new IllegalArgumentException("Illegal number of eigenvalues");
+
+		this.matrix = matrix;
+		this.n = n;
+		this.m = Math.min(n, Math.max(2 * count + 1, count + MINIMAL_EXTRA_VECTORS));
+		this.symmetric = symmetric;
+		this.largest = largest;
+		this.basis = new double[m + 1][n];
+		this.input = new MyVector(n);
+		this.output = new MyVector(n);
+		this.h = new double[(m + 1) * m];
+		this.block = new double[m * BLOCK_SIZE];
+		this.ritzReal = new double[m];
+		this.ritzImaginary = new double[m];
+
+		randomVector(basis[0], 0);
+		int size = 0;
+		int wanted;
+		for (int restart = 0;; restart++) {
+			expand(size);
+			solveProjected();
+			wanted = wholePairs(count);
+			if (converged(wanted))
+				break;
+			if (restart == MAXIMAL_RESTARTS)
+				throw new ArithmeticException("Eigenvalues did not converge");
+			size = restart(wanted);
+		}
+
+		this.real = new double[wanted];
+		this.imaginary = new double[wanted];
+		for (int t = 0; t < wanted; t++) {
+			real[t] = ritzReal[order[t]];
+			imaginary[t] = ritzImaginary[order[t]];
+		}
+		this.vectors = ritzVectors(wanted);
+	}
+
+	/* ================================ Iteration =============================== */
+	/*
+	 * Grows the basis from size vectors to m, adding column j of H for every
+	 * new vector
+	 */
+	private void expand(int size) {
+		for (int j = size; j < m; j++) {
+			double[] w = basis[j + 1];
+			double[] v = basis[j];
+			for (int i = 0; i < n; i++) {
+				input.set(i, v[i]);
+			}
+			matrix.multiplyInto(input, output);
+			for (int i = 0; i < n; i++) {
+				w[i] = output.get(i);
+			}
+			double before = norm(w);
+
+			orthogonalize(w, j + 1, j);
+			double after = norm(w);
+			if (after < REORTHOGONALIZATION_RATIO * before) {
+				// Most of w cancelled, so what is left has lost precision
+				orthogonalize(w, j + 1, j);
+				after = norm(w);
+			}
+			if (after > 1e-12 * before) {
+				h[(j + 1) * m + j] = after;
+				scale(1 / after, w);
+				continue;
+			}
+
+			// The basis spans an invariant subspace, so any new direction will do
+			h[(j + 1) * m + j] = 0;
+			if (j + 1 < n)
+				randomVector(w, j + 1);
+			else
+				Arrays.fill(w, 0);
+		}
+	}
+
+	/*
+	 * Removes the components of w along the first count basis vectors, and
+	 * adds the coefficients to the given column of H, if any
+	 */
+	private void orthogonalize(double[] w, int count, int column) {
+		for (int i = 0; i < count; i++) {
+			double coefficient = dot(basis[i], w);
+			axpy(-coefficient, basis[i], w);
+			if (column >= 0)
+				h[i * m + column] += coefficient;
+		}
+	}
+
+	/*
+	 * A random unit vector orthogonal to the first count basis vectors
+	 */
+	private void randomVector(double[] w, int count) {
+		for (int i = 0; i < n; i++) {
+			w[i] = random.nextDouble() - 0.5;
+		}
+		orthogonalize(w, count, -1);
+		orthogonalize(w, count, -1);
+		scale(1 / norm(w), w);
+	}
+
+	/*
+	 * The Ritz values and vectors of the m x m part of H, and their order from
+	 * most to least wanted. A complex pair stays together, with the positive
+	 * imaginary part first
+	 */
+	private void solveProjected() {
+		OriginalMatrix projected = new OriginalMatrix(m, m);
+		for (int i = 0; i < m; i++) {
+			for (int j = 0; j < m; j++) {
+				projected.set(i, j, symmetric ? (h[i * m + j] + h[j * m + i]) / 2 : h[i * m + j]);
+			}
+		}
+
+		EigenDecomposition decomposition = symmetric ? new SymmetricEigenDecomposition(projected)
+				: new GeneralEigenDecomposition(projected);
+		System.arraycopy(decomposition.getRealEigenvalues(), 0, ritzReal, 0, m);
+		System.arraycopy(decomposition.getImaginaryEigenvalues(), 0, ritzImaginary, 0, m);
+		y = RowReducer.copyContents(decomposition.getV());
+
+		order = new int[m];
+		if (symmetric) {
+			// Already in increasing order
+			for (int t = 0; t < m; t++) {
+				order[t] = largest ? m - 1 - t : t;
+			}
+			return;
+		}
+
+		Integer[] leaders = new Integer[m];
+		int count = 0;
+		for (int i = 0; i < m; i++) {
+			if (ritzImaginary[i] >= 0)
+				leaders[count++] = i;
+		}
+		Arrays.sort(leaders, 0, count, (a, b) -> Double.compare(Math.hypot(ritzReal[b], ritzImaginary[b]),
+				Math.hypot(ritzReal[a], ritzImaginary[a])));
+		int t = 0;
+		for (int k = 0; k < count; k++) {
+			order[t++] = leaders[k];
+			if (ritzImaginary[leaders[k]] > 0)
+				order[t++] = leaders[k] + 1;
+		}
+	}
+
+	/*
+	 * count, or count + 1 if the last wanted value is the first of a pair
+	 */
+	private int wholePairs(int count) {
+		return ritzImaginary[order[count - 1]] > 0 ? count + 1 : count;
+	}
+
+	/*
+	 * Whether every wanted Ritz pair has a negligible residual compared to
+	 * the largest Ritz value
+	 */
+	private boolean converged(int wanted) {
+		double scale = 0;
+		for (int i = 0; i < m; i++) {
+			scale = Math.max(scale, Math.hypot(ritzReal[i], ritzImaginary[i]));
+		}
+
+		for (int t = 0; t < wanted; t++) {
+			int index = order[t];
+			double residual = Math.abs(lastRowTimes(index));
+			double length = columnLength(index);
+			if (ritzImaginary[index] > 0) {
+				residual = Math.hypot(residual, lastRowTimes(index + 1));
+				length = Math.hypot(length, columnLength(index + 1));
+				t++;
+			}
+			if (!Utils.isNegligible(residual / length, scale))
+				return false;
+		}
+		return true;
+	}
+
+	/*
+	 * Keeps the span of the most wanted half of the unwanted Ritz vectors
+	 * along with the wanted ones, and returns the new size of the basis
+	 */
+	private int restart(int wanted) {
+		int keep = Math.min(m - 1, wanted + (m - wanted) / 2);
+		if (ritzImaginary[order[keep - 1]] > 0)
+			keep = keep + 1 < m ? keep + 1 : keep - 1;
+
+		// An orthonormal basis Q of the kept Ritz vectors, or of their real and
+		// imaginary parts
+		double[] q = new double[m * keep];
+		for (int t = 0; t < keep; t++) {
+			for (int i = 0; i < m; i++) {
+				q[i * keep + t] = y[i * m + order[t]];
+			}
+		}
+		orthonormalizeColumns(q, m, keep);
+
+		// H becomes Q^T * H * Q with the last row b^T * Q
+		double[] hq = new double[(m + 1) * keep];
+		for (int i = 0; i <= m; i++) {
+			for (int l = 0; l < m; l++) {
+				double value = h[i * m + l];
+				if (value == 0)
+					continue;
+				for (int t = 0; t < keep; t++) {
+					hq[i * keep + t] += value * q[l * keep + t];
+				}
+			}
+		}
+		Arrays.fill(h, 0);
+		for (int i = 0; i < keep; i++) {
+			for (int l = 0; l < m; l++) {
+				double value = q[l * keep + i];
+				for (int t = 0; t < keep; t++) {
+					h[i * m + t] += value * hq[l * keep + t];
+				}
+			}
+		}
+		System.arraycopy(hq, m * keep, h, keep * m, keep);
+
+		combineBasis(q, keep);
+		double[] residual = basis[m];
+		basis[m] = basis[keep];
+		basis[keep] = residual;
+		return keep;
+	}
+
+	/*
+	 * The wanted Ritz vectors V * y, normalized, with complex pairs normalized
+	 * together
+	 */
+	private MyVector[] ritzVectors(int wanted) {
+		double[] coefficients = new double[m * wanted];
+		for (int t = 0; t < wanted; t++) {
+			for (int i = 0; i < m; i++) {
+				coefficients[i * wanted + t] = y[i * m + order[t]];
+			}
+		}
+		combineBasis(coefficients, wanted);
+
+		MyVector[] result = new MyVector[wanted];
+		for (int t = 0; t < wanted; t++) {
+			double length = norm(basis[t]);
+			if (imaginary[t] > 0)
+				length = Math.hypot(length, norm(basis[t + 1]));
+			else if (imaginary[t] < 0)
+				length = Math.hypot(length, norm(basis[t - 1]));
+			result[t] = new MyVector(basis[t]);
+			result[t].scale(1 / length);
+		}
+		return result;
+	}
+
+	/* ================================= Helpers ================================ */
+	/*
+	 * Replaces the first columns basis vectors by V * coefficients, where
+	 * coefficients is m x columns, row-major. This is done for a block of
+	 * element indicies at a time, so it only needs room for that block of
+	 * every basis vector, and the inner loop runs over contiguous memory
+	 */
+	private void combineBasis(double[] coefficients, int columns) {
+		double[] combined = new double[columns * BLOCK_SIZE];
+		for (int from = 0; from < n; from += BLOCK_SIZE) {
+			int length = Math.min(BLOCK_SIZE, n - from);
+			for (int l = 0; l < m; l++) {
+				System.arraycopy(basis[l], from, block, l * BLOCK_SIZE, length);
+			}
+
+			Arrays.fill(combined, 0);
+			for (int l = 0; l < m; l++) {
+				for (int t = 0; t < columns; t++) {
+					double coefficient = coefficients[l * columns + t];
+					if (coefficient == 0)
+						continue;
+					int target = t * BLOCK_SIZE;
+					int source = l * BLOCK_SIZE;
+					for (int r = 0; r < length; r++) {
+						combined[target + r] += coefficient * block[source + r];
+					}
+				}
+			}
+
+			for (int t = 0; t < columns; t++) {
+				System.arraycopy(combined, t * BLOCK_SIZE, basis[t], from, length);
+			}
+		}
+	}
+
+	/*
+	 * Modified Gram-Schmidt, twice, on the columns of a small row-major matrix
+	 */
+	private static void orthonormalizeColumns(double[] q, int rows, int columns) {
+		for (int t = 0; t < columns; t++) {
+			for (int pass = 0; pass < 2; pass++) {
+				for (int s = 0; s < t; s++) {
+					double coefficient = 0;
+					for (int i = 0; i < rows; i++) {
+						coefficient += q[i * columns + s] * q[i * columns + t];
+					}
+					for (int i = 0; i < rows; i++) {
+						q[i * columns + t] -= coefficient * q[i * columns + s];
+					}
+				}
+			}
+			double length = 0;
+			for (int i = 0; i < rows; i++) {
+				length += q[i * columns + t] * q[i * columns + t];
+			}
+			length = Math.sqrt(length);
+			for (int i = 0; i < rows; i++) {
+				q[i * columns + t] /= length;
+			}
+		}
+	}
+
+	private double lastRowTimes(int column) {
+		double sum = 0;
+		for (int l = 0; l < m; l++) {
+			sum += h[m * m + l] * y[l * m + column];
+		}
+		return sum;
+	}
+
+	private double columnLength(int column) {
+		double sum = 0;
+		for (int l = 0; l < m; l++) {
+			sum += y[l * m + column] * y[l * m + column];
+		}
+		return Math.sqrt(sum);
+	}
+
+	/*
+	 * Four partial sums, so the additions do not all wait for each other
+	 */
+	private static double dot(double[] u, double[] v) {
+		double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+		int i = 0;
+		for (; i + 3 < u.length; i += 4) {
+			sum0 += u[i] * v[i];
+			sum1 += u[i + 1] * v[i + 1];
+			sum2 += u[i + 2] * v[i + 2];
+			sum3 += u[i + 3] * v[i + 3];
+		}
+		for (; i < u.length; i++) {
+			sum0 += u[i] * v[i];
+		}
+		return (sum0 + sum1) + (sum2 + sum3);
+	}
+
+	private static void axpy(double a, double[] x, double[] y) {
+		for (int i = 0; i < x.length; i++) {
+			y[i] += a * x[i];
+		}
+	}
+
+	private static void scale(double c, double[] v) {
+		for (int i = 0; i < v.length; i++) {
+			v[i] *= c;
+		}
+	}
+
+	private static double norm(double[] v) {
+		return Math.sqrt(dot(v, v));
+	}
+
+	/* ================================= Results ================================ */
+	/*
+	 * The eigenvectors as columns, n x number of eigenvalues
+	 */
+	Matrix getV() {
+		OriginalMatrix v = new OriginalMatrix(n, vectors.length);
+		for (int j = 0; j < vectors.length; j++) {
+			for (int i = 0; i < n; i++) {
+				v.set(i, j, vectors[j].get(i));
+			}
+		}
+		return v;
+	}
+
+	/*
+	 * The eigenvalues on the diagonal, with a complex pair a +- bi as the
+	 * block [a, b; -b, a]
+	 */
+	Matrix getD() {
+		int count = real.length;
+		OriginalMatrix d = new OriginalMatrix(count, count);
+		for (int i = 0; i < count; i++) {
+			d.set(i, i, real[i]);
+			if (imaginary[i] > 0) {
+				d.set(i, i + 1, imaginary[i]);
+			} else if (imaginary[i] < 0) {
+				d.set(i, i - 1, imaginary[i]);
+			}
+		}
+		return d;
+	}
+}
@@ -1,13 +1,12 @@
 package functionality;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import calculation.MatrixCalculator;
 import representations.ElementaryMatrix;
 import representations.Matrix;
-import representations.MyVector;
+import representations.OperationTape;
 import representations.OriginalMatrix;
 import utils.MatrixBank;
 import utils.Utils;
@@ -35,58 +34,79 @@ public class RowReducer {
 	/* ============================= Primary methods ============================ */
 	public ReductionResult reduce(Matrix matrix) {
 		if (Matrix.isIdentityMatrix(matrix))
-			return new ReductionResult(matrix, new ArrayList<>());
-
-		List<ElementaryMatrix> operationsPerformed = new ArrayList<>();
-
-		List<MyVector> rowVectors = matrix.getRowVectors();
-		int numberOfVectors = rowVectors.size();
-		int lengthOfVectors = rowVectors.get(0).size();
+			return new ReductionResult(matrix, new OperationTape(matrix.rows()));
+
+		// We work on a contiguous row-major copy, so row i starts at i * columns.
+		// The operations are recorded on a tape, so no step allocates anything
+		int numberOfVectors = matrix.rows();
+		int lengthOfVectors = matrix.columns();
+		double[] rows = copyContents(matrix);
+		OperationTape operationsPerformed = new OperationTape(numberOfVectors);
+
+		// Entries this small compared to the largest one are treated as zero
+		double scale = 0;
+		for (double value : rows) {
+			scale = Math.max(scale, Math.abs(value));
+		}
 
-		for (int c = 0; c < lengthOfVectors; c++) {
-			int pivotIndex = -1;
+		// The row the next pivot goes in, which is also the number of pivots so far
+		int pivotRow = 0;
+		for (int c = 0; c < lengthOfVectors && pivotRow < numberOfVectors; c++) {
 			// We are now working with column number c.
-			// We should have c pivots already established and moved up
-			for (int r = c; r < numberOfVectors; r++) {
-				// Checking if non zero (have to allow for a floating point rounding error)
-				if (!Utils.isZero(rowVectors.get(r).get(c))) {
+			// We should have pivotRow pivots already established and moved up.
+			// The largest candidate is picked, so the multipliers are at most 1
+			int pivotIndex = pivotRow;
+			for (int r = pivotRow + 1; r < numberOfVectors; r++) {
+				if (Math.abs(rows[r * lengthOfVectors + c]) > Math.abs(rows[pivotIndex * lengthOfVectors + c]))
 					pivotIndex = r;
-				}
 			}
 
-			// If no pivotvector was found we move to the next column
-			if (pivotIndex == -1) {
+			// If no pivotvector was found what is left of the column is rounding
+			// noise, so it is cleared and we move to the next column
+			if (Utils.isNegligible(rows[pivotIndex * lengthOfVectors + c], scale)) {
+				for (int r = pivotRow; r < numberOfVectors; r++) {
+					rows[r * lengthOfVectors + c] = 0;
+				}
 				continue;
 			}
 
 			// Else we move our pivotrow up to it's designated spot
-			MyVector pivotVector = rowVectors.get(pivotIndex);
-			if (pivotIndex != c) {
-				rowVectors.set(pivotIndex, rowVectors.get(c));
-				rowVectors.set(c, pivotVector);
-				operationsPerformed.add(new ElementaryMatrix(numberOfVectors).swapRows(pivotIndex, c));
-				pivotIndex = c;
+			if (pivotIndex != pivotRow) {
+				swapRows(rows, lengthOfVectors, pivotIndex, pivotRow);
+				operationsPerformed.recordSwap(pivotIndex, pivotRow);
+				pivotIndex = pivotRow;
 			}
+			int pivotStart = pivotIndex * lengthOfVectors;
 
 			// Then we scale it so the first element is 1
-			double ratio = 1 / pivotVector.get(c);
-			pivotVector.scale(ratio);
-			operationsPerformed.add(new ElementaryMatrix(numberOfVectors).scaleRow(c, ratio));
+			double ratio = 1 / rows[pivotStart + c];
+			for (int j = 0; j < lengthOfVectors; j++) {
+				rows[pivotStart + j] *= ratio;
+			}
+			rows[pivotStart + c] = 1;
+			operationsPerformed.recordScale(pivotIndex, ratio);
 
-			// Lastly we subtract the required amount of pivotVector from the others
+			// Lastly we subtract the required amount of pivotVector from the others.
+			// The eliminated entries are set to exactly zero
 			for (int i = 0; i < numberOfVectors; i++) {
 				if (i == pivotIndex)
 					continue;
 
-				double scalar = rowVectors.get(i).get(c);
-				if (Utils.isZero(scalar))
+				int rowStart = i * lengthOfVectors;
+				double scalar = rows[rowStart + c];
+				if (scalar == 0)
 					continue;
 
-				rowVectors.get(i).subtract(pivotVector.scaled(scalar));
-				operationsPerformed.add(new ElementaryMatrix(numberOfVectors).subtractScaledRow(i, pivotIndex, scalar));
+				for (int j = 0; j < lengthOfVectors; j++) {
+					rows[rowStart + j] -= scalar * rows[pivotStart + j];
+				}
+				rows[rowStart + c] = 0;
+				operationsPerformed.recordSubtractScaled(i, pivotIndex, scalar);
 			}
+			pivotRow++;
 		}
-		return new ReductionResult(new OriginalMatrix(rowVectors), operationsPerformed);
+		return new ReductionResult(new OriginalMatrix(numberOfVectors, lengthOfVectors, rows, 0, lengthOfVectors),
+				operationsPerformed);
 	}
 
 	public Optional<Matrix> inverse(Matrix matrix) {
@@ -103,9 +123,50 @@ public class RowReducer {
 	}
 
 	/* ============================= Helper methods ============================= */
+	/*
+	 * Copies the matrix into a fresh row-major array. Dense matricies are copied
+	 * row by row straight from their backing array
+	 */
+	static double[] copyContents(Matrix matrix) {
+		int rows = matrix.rows();
+		int columns = matrix.columns();
+		double[] copy = new double[rows * columns];
+
+		if (matrix instanceof OriginalMatrix dense) {
+			double[] source = dense.getBackingArray();
+			for (int i = 0; i < rows; i++) {
+				System.arraycopy(source, dense.getOffset() + i * dense.getStride(), copy, i * columns, columns);
+			}
+			return copy;
+		}
+
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				copy[i * columns + j] = matrix.get(i, j);
+			}
+		}
+		return copy;
+	}
+
+	private static void swapRows(double[] rows, int columns, int first, int second) {
+		int firstStart = first * columns;
+		int secondStart = second * columns;
+		for (int j = 0; j < columns; j++) {
+			double temporary = rows[firstStart + j];
+			rows[firstStart + j] = rows[secondStart + j];
+			rows[secondStart + j] = temporary;
+		}
+	}
+
+	/*
+	 * A tape is replayed onto the identity in O(k * n). Any other list is
+	 * multiplied together one matrix at a time
+	 */
 	public Matrix aggregateOperations(List<ElementaryMatrix> operations) {
 		if (operations.isEmpty())
 			throw new IllegalArgumentException("Cannot aggregate an empty list if not provided with dimension");
+		if (operations instanceof OperationTape tape)
+			return tape.toMatrix();
 
 		Matrix aggregateMatrix = MatrixBank.identity(operations.get(0).rows());
 		for (ElementaryMatrix e : operations) {
@@ -117,6 +178,8 @@ public class RowReducer {
 	public Matrix aggregateOperations(List<ElementaryMatrix> operations, int dimensions) {
 		if (operations.isEmpty())
 			return MatrixBank.identity(dimensions);
+		if (operations instanceof OperationTape tape)
+			return tape.toMatrix();
 
 		Matrix aggregateMatrix = MatrixBank.identity(operations.get(0).rows());
 		for (ElementaryMatrix e : operations) {
@@ -0,0 +1,954 @@
+package functionality;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import calculation.MatrixCalculator;
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+import utils.Utils;
+
+/**
+ * Eigenvalues and eigenvectors of a symmetric matrix, A = V * D * V^T
+ *
+ * The matrix is first brought to tridiagonal form T = Q^T * A * Q with
+ * Householder reflectors. Only the lower triangle is kept up to date. The
+ * reflectors are found a panel of columns at a time: each one still costs a
+ * symmetric matrix-vector product with the trailing matrix, but the trailing
+ * matrix is only updated once per panel, by a matrix product. That way half
+ * of the 4/3 * n^3 flops run at matrix product speed instead of memory speed
+ *
+ * Eigenvectors are optional, since they make up most of the work. Without
+ * them, the eigenvalues of T are found by QL iteration with implicit shifts,
+ * which is O(n^2). With them, T is split in two halves that are solved
+ * recursively and joined through a rank-one update, whose eigenvalues are
+ * the roots of the secular equation. Joining the eigenvectors of the halves
+ * is a matrix product, and eigenvalues that barely move are deflated and keep
+ * their vectors. Small pieces are solved by QL iteration. At the end, the
+ * reflectors are applied to the vectors in blocks, as I - V * T * V^T, so
+ * that this part is made of matrix products as well
+ *
+ * The eigenvalues are in increasing order, and the eigenvectors are
+ * orthonormal
+ */
+public class SymmetricEigenDecomposition implements EigenDecomposition {
+	/* Updates with fewer flops than this stay on the calling thread */
+	private static final long PARALLEL_THRESHOLD = 1L << 18;
+	private static final int MAXIMAL_ITERATIONS = 60;
+	/* Reflectors per panel, and per block when they are applied to the vectors */
+	private static final int BLOCK = 64;
+	/* Columns of the trailing matrix per product when a panel is applied */
+	private static final int UPDATE_BLOCK = 256;
+	/* Pieces of T this small are solved by QL iteration */
+	private static final int LEAF = 32;
+	private static final int SECULAR_ITERATIONS = 100;
+
+	/* ================================= Fields ================================= */
+	private final int dimension;
+	private final double[] eigenvalues;
+	// Eigenvector i is elements [i * dimension, (i + 1) * dimension)
+	private final double[] eigenvectors;
+	// The scale eigenvalues are compared at when grouping them into eigenspaces
+	private final double spectralRadius;
+
+	/* ============================== Constructors ============================== */
+	public SymmetricEigenDecomposition(Matrix matrix) {
+		this(matrix, true);
+	}
+
+	public SymmetricEigenDecomposition(Matrix matrix, boolean computeEigenvectors) {
+		if (matrix.rows() != matrix.columns())
+			throw new IllegalArgumentException("Can only find eigenvalues of square matricies");
+
+		int n = matrix.rows();
+		this.dimension = n;
+		double[] a = RowReducer.copyContents(matrix);
+
+		double largestElement = 0;
+		for (double value : a) {
+			largestElement = Math.max(largestElement, Math.abs(value));
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < i; j++) {
+				if (!Utils.isNegligible(a[i * n + j] - a[j * n + i], largestElement))
+					throw new IllegalArgumentException("Matrix is not symmetric");
+			}
+		}
+
+		MatrixCalculator calculator = new MatrixCalculator();
+		double[] diagonal = new double[n];
+		double[] offDiagonal = new double[n];
+		double[] tau = new double[n];
+		tridiagonalize(a, diagonal, offDiagonal, tau, calculator);
+
+		double[] vectors = null;
+		if (computeEigenvectors) {
+			vectors = new double[n * n];
+			solve(diagonal, offDiagonal, vectors, 0, n, calculator);
+			backTransform(a, tau, vectors, calculator);
+		} else {
+			diagonalize(diagonal, offDiagonal, null);
+		}
+
+		this.eigenvalues = diagonal;
+		this.eigenvectors = vectors;
+		sort();
+
+		double largest = 0;
+		for (double eigenvalue : eigenvalues) {
+			largest = Math.max(largest, Math.abs(eigenvalue));
+		}
+		this.spectralRadius = largest;
+	}
+
+	/* ============================ Tridiagonalization ========================== */
+	/*
+	 * Leaves the diagonal of T in diagonal and T[i][i + 1] in offDiagonal[i].
+	 * Reflector k acts on indicies k + 1 and up, and its vector, with the
+	 * leading 1, is stored in row k of a from column k + 1, in the upper
+	 * triangle that is not used otherwise
+	 */
+	private static void tridiagonalize(double[] a, double[] diagonal, double[] offDiagonal, double[] tau,
+			MatrixCalculator calculator) {
+		int n = diagonal.length;
+		for (int first = 0; first < n - 2; first += BLOCK) {
+			reducePanel(a, first, Math.min(first + BLOCK, n - 2), diagonal, offDiagonal, tau, calculator);
+		}
+
+		if (n >= 2) {
+			diagonal[n - 2] = a[(n - 2) * n + n - 2];
+			offDiagonal[n - 2] = a[(n - 1) * n + n - 2];
+		}
+		diagonal[n - 1] = a[(n - 1) * n + n - 1];
+		offDiagonal[n - 1] = 0;
+	}
+
+	/*
+	 * Finds the reflectors of columns [first, end). The trailing matrix B is
+	 * left as it was until the end of the panel, so it really stands for
+	 * B - V * W^T - W * V^T, with reflector j in vs[j] and its update vector in
+	 * ws[j]. Each column and each product with B is corrected for that, and at
+	 * the end the rest of B gets the whole update as one matrix product
+	 */
+	private static void reducePanel(double[] a, int first, int end, double[] diagonal, double[] offDiagonal,
+			double[] tau, MatrixCalculator calculator) {
+		int n = diagonal.length;
+		int width = end - first;
+		double[][] vs = new double[width][n];
+		double[][] ws = new double[width][n];
+
+		for (int j = 0; j < width; j++) {
+			int k = first + j;
+			double[] v = vs[j];
+			double[] w = ws[j];
+
+			// Column k, brought up to date with the reflectors of the panel so far
+			for (int i = k; i < n; i++) {
+				double update = 0;
+				for (int p = 0; p < j; p++) {
+					update += vs[p][i] * ws[p][k] + ws[p][i] * vs[p][k];
+				}
+				a[i * n + k] -= update;
+			}
+			diagonal[k] = a[k * n + k];
+
+			// Column k below the diagonal
+			double norm = 0;
+			double largest = 0;
+			for (int i = k + 1; i < n; i++) {
+				v[i] = a[i * n + k];
+				largest = Math.max(largest, Math.abs(v[i]));
+			}
+			if (largest > 0) {
+				for (int i = k + 1; i < n; i++) {
+					double scaled = v[i] / largest;
+					norm += scaled * scaled;
+				}
+				norm = largest * Math.sqrt(norm);
+			}
+
+			double x0 = v[k + 1];
+			boolean alreadyReduced = true;
+			for (int i = k + 2; i < n && alreadyReduced; i++) {
+				alreadyReduced = v[i] == 0;
+			}
+			if (alreadyReduced) {
+				// Already tridiagonal in this column, so H = I and w stays 0
+				tau[k] = 0;
+				offDiagonal[k] = x0;
+				v[k + 1] = 1;
+				System.arraycopy(v, k + 1, a, k * n + k + 1, n - k - 1);
+				continue;
+			}
+
+			double beta = x0 >= 0 ? -norm : norm;
+			double t = (beta - x0) / beta;
+			double scale = 1 / (x0 - beta);
+			v[k + 1] = 1;
+			for (int i = k + 2; i < n; i++) {
+				v[i] *= scale;
+			}
+			tau[k] = t;
+			offDiagonal[k] = beta;
+			System.arraycopy(v, k + 1, a, k * n + k + 1, n - k - 1);
+
+			// p = tau * B * v, with B symmetric and only its lower triangle read
+			int from = k + 1;
+			long work = 2L * (n - from) * (n - from);
+			symmetricProduct(a, n, from, v, w, work >= PARALLEL_THRESHOLD);
+			for (int p = 0; p < j; p++) {
+				double[] vp = vs[p];
+				double[] wp = ws[p];
+				double wv = 0;
+				double vv = 0;
+				for (int i = from; i < n; i++) {
+					wv += wp[i] * v[i];
+					vv += vp[i] * v[i];
+				}
+				for (int i = from; i < n; i++) {
+					w[i] -= vp[i] * wv + wp[i] * vv;
+				}
+			}
+			double pv = 0;
+			for (int i = from; i < n; i++) {
+				w[i] *= t;
+				pv += w[i] * v[i];
+			}
+			// w = p - (tau / 2) * (p^T v) * v, then B = B - v * w^T - w * v^T
+			double correction = t / 2 * pv;
+			for (int i = from; i < n; i++) {
+				w[i] -= correction * v[i];
+			}
+		}
+
+		// B = B + [-V, -W] * [W, V]^T, one block of columns at a time, down from the diagonal
+		int size = n - end;
+		int inner = 2 * width;
+		OriginalMatrix left = new OriginalMatrix(size, inner);
+		OriginalMatrix right = new OriginalMatrix(size, inner);
+		double[] leftContents = left.getBackingArray();
+		double[] rightContents = right.getBackingArray();
+		for (int r = 0; r < size; r++) {
+			for (int p = 0; p < width; p++) {
+				leftContents[r * inner + p] = -vs[p][end + r];
+				leftContents[r * inner + width + p] = -ws[p][end + r];
+				rightContents[r * inner + p] = ws[p][end + r];
+				rightContents[r * inner + width + p] = vs[p][end + r];
+			}
+		}
+		for (int column = 0; column < size; column += UPDATE_BLOCK) {
+			int columns = Math.min(UPDATE_BLOCK, size - column);
+			OriginalMatrix rows = new OriginalMatrix(size - column, inner, leftContents, column * inner, inner);
+			OriginalMatrix block = new OriginalMatrix(columns, inner, rightContents, column * inner, inner);
+			OriginalMatrix target = new OriginalMatrix(size - column, columns, a, (end + column) * n + end + column, n);
+			calculator.multiplyAddInto(rows, block.transposed(), target);
+		}
+	}
+
+	/*
+	 * w = B * v for the trailing matrix B from row and column from. Row i
+	 * gives element i through its dot product with v, and elements below i
+	 * through the transposed half. In parallel, each task takes a band of rows
+	 * of about equal area and adds into its own copy of w
+	 */
+	private static void symmetricProduct(double[] a, int n, int from, double[] v, double[] w, boolean parallel) {
+		int threads = ForkJoinPool.getCommonPoolParallelism();
+		if (!parallel || threads < 2) {
+			Arrays.fill(w, from, n, 0);
+			addSymmetricProduct(a, n, from, from, n, v, w);
+			return;
+		}
+
+		int bands = 2 * threads;
+		int[] bounds = new int[bands + 1];
+		int size = n - from;
+		for (int band = 0; band <= bands; band++) {
+			// The first r rows of the triangle hold about r^2 / 2 elements
+			bounds[band] = from + (int) Math.round(size * Math.sqrt((double) band / bands));
+		}
+		List<double[]> partials = IntStream.range(0, bands).parallel().mapToObj(band -> {
+			double[] partial = new double[n];
+			addSymmetricProduct(a, n, from, bounds[band], bounds[band + 1], v, partial);
+			return partial;
+		}).toList();
+
+		Arrays.fill(w, from, n, 0);
+		for (double[] partial : partials) {
+			for (int i = from; i < n; i++) {
+				w[i] += partial[i];
+			}
+		}
+	}
+
+	private static void addSymmetricProduct(double[] a, int n, int from, int firstRow, int endRow, double[] v,
+			double[] w) {
+		for (int i = firstRow; i < endRow; i++) {
+			int rowStart = i * n;
+			double vi = v[i];
+			double sum = 0;
+			for (int j = from; j < i; j++) {
+				double element = a[rowStart + j];
+				sum += element * v[j];
+				w[j] += element * vi;
+			}
+			w[i] += sum + a[rowStart + i] * vi;
+		}
+	}
+
+	/* ============================= QL iteration =============================== */
+	/*
+	 * Implicit-shift QL on the tridiagonal matrix. The eigenvalues end up in
+	 * diagonal. Every rotation of indicies i and i + 1 is also applied to
+	 * vectors i and i + 1, when there are vectors
+	 */
+	private static void diagonalize(double[] diagonal, double[] offDiagonal, double[] vectors) {
+		int n = diagonal.length;
+		double shiftSum = 0;
+		double scale = 0;
+		double epsilon = Math.ulp(1.0);
+
+		for (int l = 0; l < n; l++) {
+			scale = Math.max(scale, Math.abs(diagonal[l]) + Math.abs(offDiagonal[l]));
+			int m = l;
+			while (m < n - 1 && Math.abs(offDiagonal[m]) > epsilon * scale) {
+				m++;
+			}
+
+			int iterations = 0;
+			while (m > l) {
+				if (++iterations > MAXIMAL_ITERATIONS)
+					throw new ArithmeticException("Eigenvalues did not converge");
+
+				// Shift by the eigenvalue of the leading 2 x 2 block closest to diagonal[l]
+				double g = diagonal[l];
+				double p = (diagonal[l + 1] - g) / (2 * offDiagonal[l]);
+				double r = Math.hypot(p, 1);
+				if (p < 0)
+					r = -r;
+				diagonal[l] = offDiagonal[l] / (p + r);
+				diagonal[l + 1] = offDiagonal[l] * (p + r);
+				double next = diagonal[l + 1];
+				double h = g - diagonal[l];
+				for (int i = l + 2; i < n; i++) {
+					diagonal[i] -= h;
+				}
+				shiftSum += h;
+
+				// Chase the bulge from m back up to l
+				p = diagonal[m];
+				double c = 1;
+				double c2 = c;
+				double c3 = c;
+				double firstOffDiagonal = offDiagonal[l + 1];
+				double s = 0;
+				double s2 = 0;
+				for (int i = m - 1; i >= l; i--) {
+					c3 = c2;
+					c2 = c;
+					s2 = s;
+					g = c * offDiagonal[i];
+					h = c * p;
+					r = Math.hypot(p, offDiagonal[i]);
+					offDiagonal[i + 1] = s * r;
+					s = offDiagonal[i] / r;
+					c = p / r;
+					p = c * diagonal[i] - s * g;
+					diagonal[i + 1] = h + s * (c * g + s * diagonal[i]);
+
+					if (vectors != null)
+						rotate(vectors, n, i, c, s);
+				}
+				p = -s * s2 * c3 * firstOffDiagonal * offDiagonal[l] / next;
+				offDiagonal[l] = s * p;
+				diagonal[l] = c * p;
+
+				if (Math.abs(offDiagonal[l]) <= epsilon * scale)
+					break;
+			}
+			diagonal[l] += shiftSum;
+			offDiagonal[l] = 0;
+		}
+	}
+
+	/*
+	 * Vector i + 1 becomes s * x_i + c * x_(i+1), and vector i becomes
+	 * c * x_i - s * x_(i+1)
+	 */
+	private static void rotate(double[] vectors, int n, int i, double c, double s) {
+		int first = i * n;
+		int second = first + n;
+		for (int k = 0; k < n; k++) {
+			double x = vectors[first + k];
+			double y = vectors[second + k];
+			vectors[second + k] = s * x + c * y;
+			vectors[first + k] = c * x - s * y;
+		}
+	}
+
+	/* ============================ Divide and conquer ========================== */
+	/*
+	 * Eigenvalues and eigenvectors of the piece [from, to) of T. The vectors
+	 * of the piece go in rows [from, to) of vectors, with their components in
+	 * columns [from, to), and the eigenvalues in the same positions of
+	 * diagonal
+	 */
+	private static void solve(double[] diagonal, double[] offDiagonal, double[] vectors, int from, int to,
+			MatrixCalculator calculator) {
+		int n = diagonal.length;
+		int size = to - from;
+		if (size <= LEAF) {
+			double[] pieceDiagonal = Arrays.copyOfRange(diagonal, from, to);
+			double[] pieceOffDiagonal = new double[size];
+			System.arraycopy(offDiagonal, from, pieceOffDiagonal, 0, size - 1);
+			double[] pieceVectors = new double[size * size];
+			for (int i = 0; i < size; i++) {
+				pieceVectors[i * size + i] = 1;
+			}
+			diagonalize(pieceDiagonal, pieceOffDiagonal, pieceVectors);
+			System.arraycopy(pieceDiagonal, 0, diagonal, from, size);
+			for (int i = 0; i < size; i++) {
+				System.arraycopy(pieceVectors, i * size, vectors, (from + i) * n + from, size);
+			}
+			return;
+		}
+
+		// T = diag(T1, T2) + rho * u * u^T, with u = e_(split-1) + sign * e_split
+		int split = from + size / 2;
+		double coupling = offDiagonal[split - 1];
+		double rho = Math.abs(coupling);
+		diagonal[split - 1] -= rho;
+		diagonal[split] -= rho;
+		solve(diagonal, offDiagonal, vectors, from, split, calculator);
+		solve(diagonal, offDiagonal, vectors, split, to, calculator);
+		merge(diagonal, vectors, from, split, to, rho, coupling < 0 ? -1 : 1, calculator);
+	}
+
+	/*
+	 * Joins the solved halves [from, split) and [split, to). In the basis of
+	 * their eigenvectors the piece is D + rho * z * z^T, so its eigenvectors
+	 * are combinations of the old ones, with the coefficients in the rows of
+	 * q. An eigenvalue whose z is negligible, or that is too close to another
+	 * after a rotation moves all of z onto the other, is deflated: it stays
+	 * where it is and keeps its vector. The rest are the roots of the secular
+	 * equation 1 + rho * sum(z_i^2 / (d_i - x)) = 0
+	 */
+	private static void merge(double[] diagonal, double[] vectors, int from, int split, int to, double coupling,
+			double sign, MatrixCalculator calculator) {
+		int n = diagonal.length;
+		int size = to - from;
+		double epsilon = Math.ulp(1.0);
+
+		double[] values = Arrays.copyOfRange(diagonal, from, to);
+		double[] weights = new double[size];
+		double normSquared = 0;
+		for (int i = 0; i < size; i++) {
+			int rowStart = (from + i) * n;
+			weights[i] = from + i < split ? vectors[rowStart + split - 1] : sign * vectors[rowStart + split];
+			normSquared += weights[i] * weights[i];
+		}
+		double norm = Math.sqrt(normSquared);
+		for (int i = 0; i < size; i++) {
+			weights[i] /= norm;
+		}
+		double rho = coupling * normSquared;
+
+		int[] order = IntStream.range(0, size).boxed().sorted(Comparator.comparingDouble(i -> values[i]))
+				.mapToInt(Integer::intValue).toArray();
+		double largest = 0;
+		for (double value : values) {
+			largest = Math.max(largest, Math.abs(value));
+		}
+		double tolerance = 8 * epsilon * Math.max(largest, rho);
+
+		// Deflation, in increasing order of eigenvalue
+		int[] kept = new int[size];
+		int keptCount = 0;
+		int[] deflated = new int[size];
+		int deflatedCount = 0;
+		// Rotation r replaced vectors firsts[r] and seconds[r], x and y, by c * x + s * y and c * y - s * x
+		int[] firsts = new int[size];
+		int[] seconds = new int[size];
+		double[] cosines = new double[size];
+		double[] sines = new double[size];
+		int rotations = 0;
+		int previous = -1;
+		for (int i : order) {
+			if (rho * Math.abs(weights[i]) <= tolerance) {
+				deflated[deflatedCount++] = i;
+				continue;
+			}
+			if (previous < 0) {
+				previous = i;
+				continue;
+			}
+			double length = Math.hypot(weights[previous], weights[i]);
+			double c = weights[i] / length;
+			double s = -weights[previous] / length;
+			double gap = values[i] - values[previous];
+			if (Math.abs(gap * c * s) <= tolerance) {
+				weights[i] = length;
+				weights[previous] = 0;
+				firsts[rotations] = previous;
+				seconds[rotations] = i;
+				cosines[rotations] = c;
+				sines[rotations] = s;
+				rotations++;
+				double value = values[previous] * c * c + values[i] * s * s;
+				values[i] = values[previous] * s * s + values[i] * c * c;
+				values[previous] = value;
+				deflated[deflatedCount++] = previous;
+			} else {
+				kept[keptCount++] = previous;
+			}
+			previous = i;
+		}
+		if (previous >= 0)
+			kept[keptCount++] = previous;
+
+		int k = keptCount;
+		double[] poles = new double[k];
+		double[] residues = new double[k];
+		double weightSum = 0;
+		for (int b = 0; b < k; b++) {
+			poles[b] = values[kept[b]];
+			residues[b] = weights[kept[b]];
+			weightSum += residues[b] * residues[b];
+		}
+
+		// Root j is poles[origins[j]] + shifts[j], with the shift kept apart for accuracy
+		int[] origins = new int[k];
+		double[] shifts = new double[k];
+		double bound = rho * weightSum;
+		IntStream roots = IntStream.range(0, k);
+		if ((long) k * k * 10 >= PARALLEL_THRESHOLD)
+			roots = roots.parallel();
+		roots.forEach(j -> secularRoot(poles, residues, rho, bound, j, origins, shifts));
+
+		// z recomputed from the roots, so the vectors come out orthogonal
+		double[] corrected = new double[k];
+		IntStream indicies = IntStream.range(0, k);
+		if ((long) k * k >= PARALLEL_THRESHOLD)
+			indicies = indicies.parallel();
+		indicies.forEach(i -> {
+			double product = (shifts[k - 1] - (poles[i] - poles[origins[k - 1]])) / rho;
+			for (int j = 0; j < k - 1; j++) {
+				double distance = shifts[j] - (poles[i] - poles[origins[j]]);
+				product *= distance / (j < i ? poles[j] - poles[i] : poles[j + 1] - poles[i]);
+			}
+			corrected[i] = Math.copySign(Math.sqrt(product), residues[i]);
+		});
+
+		double[] q = new double[size * size];
+		double[] newValues = new double[size];
+		IntStream rows = IntStream.range(0, k);
+		if ((long) k * k >= PARALLEL_THRESHOLD)
+			rows = rows.parallel();
+		rows.forEach(j -> {
+			double[] u = new double[k];
+			double length = 0;
+			for (int b = 0; b < k; b++) {
+				u[b] = corrected[b] / ((poles[b] - poles[origins[j]]) - shifts[j]);
+				length += u[b] * u[b];
+			}
+			length = Math.sqrt(length);
+			for (int b = 0; b < k; b++) {
+				q[j * size + kept[b]] = u[b] / length;
+			}
+			newValues[j] = poles[origins[j]] + shifts[j];
+		});
+		for (int t = 0; t < deflatedCount; t++) {
+			q[(k + t) * size + deflated[t]] = 1;
+			newValues[k + t] = values[deflated[t]];
+		}
+		for (int r = rotations - 1; r >= 0; r--) {
+			int first = firsts[r];
+			int second = seconds[r];
+			double c = cosines[r];
+			double s = sines[r];
+			for (int row = 0; row < size; row++) {
+				double x = q[row * size + first];
+				double y = q[row * size + second];
+				q[row * size + first] = c * x - s * y;
+				q[row * size + second] = s * x + c * y;
+			}
+		}
+
+		combine(vectors, n, q, k, from, split, to, calculator);
+		System.arraycopy(newValues, 0, diagonal, from, size);
+	}
+
+	/*
+	 * Root j of the secular equation, in increasing order, for increasing
+	 * poles and rho > 0. It lies between poles j and j + 1, or above the last
+	 * pole by at most bound. The pole it is closer to is taken as the origin.
+	 * Each step solves a model with the two poles around the root exact and
+	 * the other terms fitted to their value and slope, and falls back to
+	 * bisection when that leaves the bracket
+	 */
+	private static void secularRoot(double[] poles, double[] residues, double rho, double bound, int j,
+			int[] origins, double[] shifts) {
+		int k = poles.length;
+		if (k == 1) {
+			origins[j] = 0;
+			shifts[j] = bound;
+			return;
+		}
+
+		int origin;
+		int left;
+		double lower;
+		double upper;
+		if (j < k - 1) {
+			double middle = (poles[j + 1] - poles[j]) / 2;
+			double value = 1;
+			for (int i = 0; i < k; i++) {
+				value += rho * residues[i] * residues[i] / ((poles[i] - poles[j]) - middle);
+			}
+			if (value > 0) {
+				origin = j;
+				lower = 0;
+				upper = middle;
+			} else {
+				origin = j + 1;
+				lower = (poles[j] - poles[j + 1]) / 2;
+				upper = 0;
+			}
+			left = j;
+		} else {
+			origin = k - 1;
+			lower = 0;
+			upper = bound;
+			left = k - 2;
+		}
+
+		double epsilon = Math.ulp(1.0);
+		double x = lower + (upper - lower) / 2;
+		for (int iteration = 0; iteration < SECULAR_ITERATIONS; iteration++) {
+			// psi is the sum over poles up to left, phi over the rest
+			double psi = 0;
+			double psiSlope = 0;
+			double phi = 0;
+			double phiSlope = 0;
+			for (int i = 0; i < k; i++) {
+				double term = rho * residues[i] * residues[i];
+				double distance = (poles[i] - poles[origin]) - x;
+				if (i <= left) {
+					psi += term / distance;
+					psiSlope += term / (distance * distance);
+				} else {
+					phi += term / distance;
+					phiSlope += term / (distance * distance);
+				}
+			}
+			double value = 1 + psi + phi;
+			double error = 8 * epsilon * (1 + Math.abs(psi) + Math.abs(phi))
+					+ epsilon * Math.abs(x) * (psiSlope + phiSlope);
+			if (Math.abs(value) <= error)
+				break;
+			if (value < 0)
+				lower = x;
+			else
+				upper = x;
+
+			// c * (d1 - h) * (d2 - h) + s * (d2 - h) + r * (d1 - h) = 0 for the step h
+			double d1 = (poles[left] - poles[origin]) - x;
+			double d2 = (poles[left + 1] - poles[origin]) - x;
+			double s = psiSlope * d1 * d1;
+			double r = phiSlope * d2 * d2;
+			double c = value - s / d1 - r / d2;
+			double b = c * (d1 + d2) + s + r;
+			double constant = d1 * d2 * value;
+			double next = Double.NaN;
+			if (c == 0) {
+				if (b != 0)
+					next = x + constant / b;
+			} else {
+				double discriminant = Math.max(0, b * b - 4 * c * constant);
+				double half = (b + Math.copySign(Math.sqrt(discriminant), b)) / 2;
+				if (half != 0) {
+					double step = half / c;
+					double other = constant / half;
+					boolean stepInside = x + step > lower && x + step < upper;
+					boolean otherInside = x + other > lower && x + other < upper;
+					if (otherInside && (!stepInside || Math.abs(other) < Math.abs(step)))
+						step = other;
+					next = x + step;
+				}
+			}
+			if (!(next > lower && next < upper)) {
+				next = lower + (upper - lower) / 2;
+				if (next <= lower || next >= upper)
+					break;
+			}
+			x = next;
+		}
+		origins[j] = origin;
+		shifts[j] = x;
+	}
+
+	/*
+	 * Replaces rows [from, to) of vectors by q times them. The left half of
+	 * the old rows only has components in [from, split) and the right half in
+	 * [split, to), so each half of the new rows is one product. The first k
+	 * rows of q are dense, the deflated ones below only have one or a few
+	 * nonzeros and are added up directly
+	 */
+	private static void combine(double[] vectors, int n, double[] q, int k, int from, int split, int to,
+			MatrixCalculator calculator) {
+		int size = to - from;
+		int leftSize = split - from;
+		int rightSize = to - split;
+
+		double[] leftContents = null;
+		double[] rightContents = null;
+		if (k > 0) {
+			OriginalMatrix leftPart = new OriginalMatrix(k, leftSize);
+			OriginalMatrix rightPart = new OriginalMatrix(k, rightSize);
+			calculator.multiplyInto(new OriginalMatrix(k, leftSize, q, 0, size),
+					new OriginalMatrix(leftSize, leftSize, vectors, from * n + from, n), leftPart);
+			calculator.multiplyInto(new OriginalMatrix(k, rightSize, q, leftSize, size),
+					new OriginalMatrix(rightSize, rightSize, vectors, split * n + split, n), rightPart);
+			leftContents = leftPart.getBackingArray();
+			rightContents = rightPart.getBackingArray();
+		}
+
+		double[] deflatedRows = new double[(size - k) * size];
+		IntStream rows = IntStream.range(k, size);
+		if ((long) (size - k) * size >= PARALLEL_THRESHOLD)
+			rows = rows.parallel();
+		rows.forEach(row -> {
+			int target = (row - k) * size;
+			for (int old = 0; old < size; old++) {
+				double coefficient = q[row * size + old];
+				if (coefficient == 0)
+					continue;
+				int oldStart = (from + old) * n;
+				int start = old < leftSize ? from : split;
+				int end = old < leftSize ? split : to;
+				for (int column = start; column < end; column++) {
+					deflatedRows[target + column - from] += coefficient * vectors[oldStart + column];
+				}
+			}
+		});
+
+		for (int row = 0; row < k; row++) {
+			int rowStart = (from + row) * n;
+			System.arraycopy(leftContents, row * leftSize, vectors, rowStart + from, leftSize);
+			System.arraycopy(rightContents, row * rightSize, vectors, rowStart + split, rightSize);
+		}
+		for (int row = k; row < size; row++) {
+			System.arraycopy(deflatedRows, (row - k) * size, vectors, (from + row) * n + from, size);
+		}
+	}
+
+	/* ============================= Back-transform ============================= */
+	/*
+	 * Turns eigenvectors of T into eigenvectors of A by applying Q to each of
+	 * them. The reflectors are taken a block at a time, the last block first.
+	 * A block is I - V * T * V^T for its reflectors V and an upper triangular
+	 * T, and as the vectors are rows it is applied as X - ((X * V) * T^T) * V^T
+	 */
+	private static void backTransform(double[] a, double[] tau, double[] vectors, MatrixCalculator calculator) {
+		int n = tau.length;
+		int reflectors = n - 2;
+		if (reflectors <= 0)
+			return;
+		for (int first = (reflectors - 1) / BLOCK * BLOCK; first >= 0; first -= BLOCK) {
+			int width = Math.min(BLOCK, reflectors - first);
+			int size = n - first - 1;
+
+			// V^T, with reflector j from column j on
+			OriginalMatrix reflectorRows = new OriginalMatrix(width, size);
+			double[] v = reflectorRows.getBackingArray();
+			for (int j = 0; j < width; j++) {
+				int k = first + j;
+				System.arraycopy(a, k * n + k + 1, v, j * size + j, size - j);
+			}
+
+			double[] t = new double[width * width];
+			for (int j = 0; j < width; j++) {
+				double tj = tau[first + j];
+				t[j * width + j] = tj;
+				if (tj == 0)
+					continue;
+				double[] products = new double[j];
+				for (int p = 0; p < j; p++) {
+					double sum = 0;
+					for (int i = j; i < size; i++) {
+						sum += v[p * size + i] * v[j * size + i];
+					}
+					products[p] = sum;
+				}
+				for (int p = 0; p < j; p++) {
+					double sum = 0;
+					for (int r = p; r < j; r++) {
+						sum += t[p * width + r] * products[r];
+					}
+					t[p * width + j] = -tj * sum;
+				}
+			}
+
+			OriginalMatrix target = new OriginalMatrix(n, size, vectors, first + 1, n);
+			OriginalMatrix projections = new OriginalMatrix(n, width);
+			calculator.multiplyInto(target, reflectorRows.transposed(), projections);
+			double[] xv = projections.getBackingArray();
+			OriginalMatrix scaled = new OriginalMatrix(n, width);
+			double[] xvt = scaled.getBackingArray();
+			for (int row = 0; row < n; row++) {
+				for (int j = 0; j < width; j++) {
+					double sum = 0;
+					for (int r = j; r < width; r++) {
+						sum += xv[row * width + r] * t[j * width + r];
+					}
+					xvt[row * width + j] = -sum;
+				}
+			}
+			calculator.multiplyAddInto(scaled, reflectorRows, target);
+		}
+	}
+
+	/*
+	 * Sorts the eigenvalues in increasing order, moving the vectors along
+	 */
+	private void sort() {
+		int n = dimension;
+		for (int i = 0; i < n - 1; i++) {
+			int smallest = i;
+			for (int j = i + 1; j < n; j++) {
+				if (eigenvalues[j] < eigenvalues[smallest])
+					smallest = j;
+			}
+			if (smallest == i)
+				continue;
+			double temporary = eigenvalues[i];
+			eigenvalues[i] = eigenvalues[smallest];
+			eigenvalues[smallest] = temporary;
+			if (eigenvectors != null) {
+				for (int k = 0; k < n; k++) {
+					double value = eigenvectors[i * n + k];
+					eigenvectors[i * n + k] = eigenvectors[smallest * n + k];
+					eigenvectors[smallest * n + k] = value;
+				}
+			}
+		}
+	}
+
+	/* ================================= Getters ================================ */
+	@Override
+	public int dimension() {
+		return dimension;
+	}
+
+	@Override
+	public boolean hasEigenvectors() {
+		return eigenvectors != null;
+	}
+
+	/*
+	 * All the eigenvalues, repeated by multiplicity, in increasing order
+	 */
+	public double[] getEigenvalues() {
+		return eigenvalues.clone();
+	}
+
+	@Override
+	public double[] getRealEigenvalues() {
+		return getEigenvalues();
+	}
+
+	/*
+	 * A symmetric matrix only has real eigenvalues
+	 */
+	@Override
+	public double[] getImaginaryEigenvalues() {
+		return new double[dimension];
+	}
+
+	/*
+	 * A unit eigenvector for getEigenvalues()[index]
+	 */
+	public MyVector getEigenvector(int index) {
+		requireEigenvectors();
+		if (index < 0 || index >= dimension)
+			throw new IllegalArgumentException("Illegal index");
+		return new MyVector(Arrays.copyOfRange(eigenvectors, index * dimension, (index + 1) * dimension));
+	}
+
+	/*
+	 * The orthogonal V, with the eigenvectors as columns
+	 */
+	@Override
+	public Matrix getV() {
+		requireEigenvectors();
+		OriginalMatrix v = new OriginalMatrix(dimension, dimension);
+		double[] target = v.getBackingArray();
+		for (int j = 0; j < dimension; j++) {
+			for (int i = 0; i < dimension; i++) {
+				target[i * dimension + j] = eigenvectors[j * dimension + i];
+			}
+		}
+		return v;
+	}
+
+	/*
+	 * The diagonal D, with the eigenvalues in increasing order
+	 */
+	@Override
+	public Matrix getD() {
+		OriginalMatrix d = new OriginalMatrix(dimension, dimension);
+		for (int i = 0; i < dimension; i++) {
+			d.set(i, i, eigenvalues[i]);
+		}
+		return d;
+	}
+
+	/* =============================== Eigenspaces ============================== */
+	/*
+	 * The span of the eigenvectors whose eigenvalues are equal to the given one
+	 * up to rounding, compared to the largest eigenvalue. It is the empty
+	 * vector space if the value is not an eigenvalue
+	 */
+	public VectorSpace eigenspace(double eigenvalue) {
+		requireEigenvectors();
+		List<MyVector> vectors = new ArrayList<>();
+		for (int i = 0; i < dimension; i++) {
+			if (Utils.isNegligible(eigenvalues[i] - eigenvalue, spectralRadius))
+				vectors.add(getEigenvector(i));
+		}
+		return vectors.isEmpty() ? new VectorSpace() : new VectorSpace(vectors, true);
+	}
+
+	/*
+	 * One eigenspace for each distinct eigenvalue, in increasing order of
+	 * eigenvalue. Their dimensions add up to the dimension of the matrix
+	 */
+	public List<VectorSpace> eigenspaces() {
+		requireEigenvectors();
+		List<VectorSpace> eigenspaces = new ArrayList<>();
+		int start = 0;
+		while (start < dimension) {
+			int end = start + 1;
+			while (end < dimension && Utils.isNegligible(eigenvalues[end] - eigenvalues[start], spectralRadius)) {
+				end++;
+			}
+			List<MyVector> vectors = new ArrayList<>(end - start);
+			for (int i = start; i < end; i++) {
+				vectors.add(getEigenvector(i));
+			}
+			eigenspaces.add(new VectorSpace(vectors, true));
+			start = end;
+		}
+		return eigenspaces;
+	}
+
+	/* ================================= Helpers ================================ */
+	private void requireEigenvectors() {
+		if (eigenvectors == null)
+			throw new IllegalStateException("Eigenvectors were not computed");
+	}
+}
@@ -5,20 +5,46 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import calculation.MatrixCalculator;
+import representations.LowRankProjector;
 import representations.Matrix;
 import representations.MyVector;
 import representations.OriginalMatrix;
 import utils.Utils;
-import utils.records.ReductionResult;
 
+/*
+ * A vector space given by a list of spanning vectors
+ *
+ * Next to the vectors it was given, the space keeps an orthonormal basis Q of
+ * their span that grows one vector at a time. A vector is orthogonalized
+ * against Q with modified Gram-Schmidt, run twice so Q stays orthogonal to
+ * working precision, and whatever is left is the part of the vector outside
+ * the space. So contains, add and getDimension are O(n * k) residual checks
+ * that never refactor anything. Many vectors can be checked at once by
+ * passing them as the columns of a matrix
+ *
+ * Vectors handed to a constructor are only absorbed into Q the first time Q
+ * is needed. The space holds on to the vectors it is given, so they should
+ * not be changed afterwards
+ */
 public class VectorSpace {
 	/* ================================= Fields ================================= */
 	private List<MyVector> basis;
 	private int dimensionOfVectors;
 
-	// For now the VectorSpace has it's own rowreducer object
-	// This might be exchanged for a singleton design pattern in the future
-	private RowReducer reducer = new RowReducer();
+	// Orthonormal basis of the span, one vector after another
+	private double[] orthonormalBasis = new double[0];
+	// The length of each orthonormal vector before it was normalized
+	private double[] residualLengths = new double[0];
+	// The index of the basis vector each orthonormal vector came from
+	private int[] sources = new int[0];
+	private int dimension;
+	// How many of the basis vectors have been absorbed into the orthonormal basis
+	private int absorbed;
+	// Projection onto the space, dropped whenever the space grows
+	private LowRankProjector projector;
+	// Whether the vectors are known to be linearly independent, so they are a basis as given
+	private boolean independent;
 
 	/* ============================== Constructors ============================== */
 	/*
@@ -41,10 +67,20 @@ public class VectorSpace {
 		int dimension = potentialBasis.get(0).size();
 		if (potentialBasis.stream().anyMatch(v -> v.size() != dimension))
 			throw new IllegalArgumentException("All vectors must be of same dimension");
-		this.basis = potentialBasis;
+		this.basis = new ArrayList<>(potentialBasis);
 		this.dimensionOfVectors = dimension;
 	}
 
+	/*
+	 * For vectors that are linearly independent by construction, like the
+	 * ones a row reduction gives. The dimension is then known without
+	 * orthogonalizing anything
+	 */
+	VectorSpace(List<MyVector> basis, boolean independent) {
+		this(basis);
+		this.independent = independent;
+	}
+
 	public VectorSpace(Matrix matrix) {
 		this.basis = new ArrayList<>();
 		matrix.getColumnVectors().stream().forEach(c -> basis.addLast(c));
@@ -72,10 +108,14 @@ public class VectorSpace {
 		if (vector.size() != dimensionOfVectors)
 			throw new IllegalArgumentException("Can't add vector of different dimension");
 
-		if (contains(vector))
+		absorbBasis();
+		double[] residual = vector.contents();
+		if (!absorb(residual, vector.length(), basis.size()))
 			return false;
 
 		basis.add(vector);
+		absorbed++;
+		projector = null;
 		return true;
 	}
 
@@ -84,26 +124,233 @@ public class VectorSpace {
 		if (basis.isEmpty())
 			return false;
 
-		Matrix columnSpan = new OriginalMatrix(basis, true);
-		ReductionResult result = reducer.reduce(columnSpan);
-		Matrix aggregatedOperations = reducer.aggregateOperations(result.operations(), columnSpan.columns());
-		List<MyVector> resultRows = result.reducedMatrix().getRowVectors();
-		MyVector rightHandVector = aggregatedOperations.multiply(vector);
-
-		/*
-		 * We iterate through each row of our augmented matrix
-		 * If the rightHandVector has a non zero element, the resultRow can not be all
-		 * zeros. Checking the length is valid in this case as any inner product must
-		 * abide by positivity
-		 */
-		for (int i = 0; i < rightHandVector.size(); i++) {
-			if (!Utils.isZero(rightHandVector.get(i)) && Utils.isZero(resultRows.get(i).length())) {
-				return false;
+		if (vector.size() != dimensionOfVectors)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+
+		absorbBasis();
+		double[] residual = vector.contents();
+		orthogonalize(residual);
+		return Utils.isNegligibleResidual(norm(residual), vector.length());
+	}
+
+	/**
+	 * Checks every column of the matrix at once. The coordinates C = Q^T * X of
+	 * all the columns are one blocked matrix product, run in parallel. Since Q
+	 * is orthonormal, |x|^2 - |c|^2 is the squared residual of a column, which
+	 * settles every column that is clearly outside the space. Only the columns
+	 * that might be inside get their residual x - Q * c computed exactly
+	 * 
+	 * @param vectors the vectors to check, as columns
+	 * @return one element per column, true where that column is in the space
+	 */
+	public boolean[] contains(Matrix vectors) {
+		if (vectors.rows() != dimensionOfVectors && !basis.isEmpty())
+			throw new IllegalArgumentException("Matrix has wrong dimensions");
+
+		int n = dimensionOfVectors;
+		int count = vectors.columns();
+		boolean[] contained = new boolean[count];
+		if (basis.isEmpty())
+			return contained;
+
+		OriginalMatrix x = vectors instanceof OriginalMatrix dense ? dense
+				: new OriginalMatrix(n, count, RowReducer.copyContents(vectors), 0, count);
+		double[] xContents = x.getBackingArray();
+		double[] lengths = new double[count];
+		for (int i = 0; i < n; i++) {
+			int rowStart = x.getOffset() + i * x.getStride();
+			for (int j = 0; j < count; j++) {
+				double value = xContents[rowStart + j];
+				lengths[j] += value * value;
+			}
+		}
+
+		absorbBasis();
+		double[] coordinates = new double[dimension * count];
+		if (dimension > 0) {
+			Matrix qTransposed = new OriginalMatrix(dimension, n, orthonormalBasis, 0, n);
+			new MatrixCalculator().multiplyInto(qTransposed, x,
+					new OriginalMatrix(dimension, count, coordinates, 0, count));
+		}
+		double[] coordinateLengths = new double[count];
+		for (int k = 0; k < dimension; k++) {
+			for (int j = 0; j < count; j++) {
+				double c = coordinates[k * count + j];
+				coordinateLengths[j] += c * c;
+			}
+		}
+
+		double[] residual = new double[n];
+		for (int j = 0; j < count; j++) {
+			double length = Math.sqrt(lengths[j]);
+			// The subtraction is only accurate to a few ulps of |x|^2
+			double estimate = lengths[j] - coordinateLengths[j] - 1e-14 * lengths[j];
+			if (estimate > 0 && !Utils.isNegligibleResidual(Math.sqrt(estimate), length))
+				continue;
+
+			for (int i = 0; i < n; i++) {
+				residual[i] = xContents[x.getOffset() + i * x.getStride() + j];
+			}
+			for (int k = 0; k < dimension; k++) {
+				double c = coordinates[k * count + j];
+				int start = k * n;
+				for (int i = 0; i < n; i++) {
+					residual[i] -= c * orthonormalBasis[start + i];
+				}
+			}
+			contained[j] = Utils.isNegligibleResidual(norm(residual), length);
+		}
+		return contained;
+	}
+
+	public boolean[] contains(List<MyVector> vectors) {
+		if (vectors.isEmpty())
+			return new boolean[0];
+		return contains(new OriginalMatrix(vectors, true));
+	}
+
+	/*
+	 * Q * Q^T * X for every column of X, as two matrix products
+	 */
+	Matrix projectColumns(Matrix vectors) {
+		if (vectors.rows() != dimensionOfVectors)
+			throw new IllegalArgumentException("Matrix has wrong dimensions");
+
+		absorbBasis();
+		if (dimension == 0)
+			return new OriginalMatrix(vectors.rows(), vectors.columns());
+
+		// The basis vectors one after another are the rows of Q^T
+		MatrixCalculator calculator = new MatrixCalculator();
+		Matrix qTransposed = new OriginalMatrix(dimension, dimensionOfVectors, orthonormalBasis, 0,
+				dimensionOfVectors);
+		Matrix coordinates = calculator.multiply(qTransposed, vectors);
+		return calculator.multiply(qTransposed.transposed(), coordinates);
+	}
+
+	/*
+	 * A subset of the basis vectors that spans the space with none to spare.
+	 * These are the vectors that added to the orthonormal basis, so each one
+	 * is outside the span of the ones before it by the same test contains
+	 * uses, and they span exactly the space that contains sees
+	 */
+	public List<MyVector> getMinimalBasis() {
+		absorbBasis();
+		List<MyVector> minimalBasis = new ArrayList<>(dimension);
+		for (int k = 0; k < dimension; k++) {
+			minimalBasis.add(basis.get(sources[k]));
+		}
+		return minimalBasis;
+	}
+
+	/**
+	 * Removes the basis vectors that are in the span of the others, keeping
+	 * the ones given by getMinimalBasis()
+	 * 
+	 * @return the number of vectors that were removed
+	 */
+	public int prune() {
+		List<MyVector> minimalBasis = getMinimalBasis();
+		int removed = basis.size() - minimalBasis.size();
+		if (removed == 0)
+			return 0;
+
+		// The removed vectors added nothing to the orthonormal basis, so it
+		// stays as it is
+		basis = minimalBasis;
+		for (int k = 0; k < dimension; k++) {
+			sources[k] = k;
+		}
+		absorbed = basis.size();
+		independent = true;
+		return removed;
+	}
+
+	/*
+	 * Every vector orthogonal to the space, found as the kernel of the matrix
+	 * whose rows are the orthonormal basis. The zero space is given as the
+	 * empty vector space
+	 */
+	public VectorSpace orthogonalComplement() {
+		if (basis.isEmpty())
+			throw new IllegalStateException("The empty vector space has no dimension of vectors");
+
+		absorbBasis();
+		if (dimension == 0) {
+			List<MyVector> unitVectors = new ArrayList<>(dimensionOfVectors);
+			for (int i = 0; i < dimensionOfVectors; i++) {
+				unitVectors.add(MyVector.unitVector(dimensionOfVectors, i));
 			}
+			return new VectorSpace(unitVectors);
+		}
+		Matrix rows = new OriginalMatrix(dimension, dimensionOfVectors,
+				Arrays.copyOf(orthonormalBasis, dimension * dimensionOfVectors), 0, dimensionOfVectors);
+		return new FundamentalSubspaces(rows).kernel();
+	}
+
+	/* ============================ Orthonormal basis =========================== */
+	private void absorbBasis() {
+		while (absorbed < basis.size()) {
+			MyVector vector = basis.get(absorbed);
+			absorb(vector.contents(), vector.length(), absorbed++);
 		}
+	}
+
+	/*
+	 * Orthogonalizes the vector against the basis and appends it if anything
+	 * is left, remembering which basis vector it came from. Returns whether it
+	 * was appended
+	 */
+	private boolean absorb(double[] vector, double originalLength, int source) {
+		orthogonalize(vector);
+		double length = norm(vector);
+		if (Utils.isNegligibleResidual(length, originalLength))
+			return false;
+
+		int n = dimensionOfVectors;
+		if ((dimension + 1) * n > orthonormalBasis.length) {
+			orthonormalBasis = Arrays.copyOf(orthonormalBasis, Math.max(2 * dimension, 4) * n);
+			residualLengths = Arrays.copyOf(residualLengths, Math.max(2 * dimension, 4));
+			sources = Arrays.copyOf(sources, Math.max(2 * dimension, 4));
+		}
+		for (int i = 0; i < n; i++) {
+			orthonormalBasis[dimension * n + i] = vector[i] / length;
+		}
+		residualLengths[dimension] = length;
+		sources[dimension] = source;
+		dimension++;
 		return true;
 	}
 
+	/*
+	 * Removes the component in the space from the vector, in place. Modified
+	 * Gram-Schmidt, done twice since one pass can leave a component of the size
+	 * of the rounding error times the condition of the vectors
+	 */
+	private void orthogonalize(double[] vector) {
+		int n = dimensionOfVectors;
+		for (int pass = 0; pass < 2; pass++) {
+			for (int k = 0; k < dimension; k++) {
+				int start = k * n;
+				double projection = 0;
+				for (int i = 0; i < n; i++) {
+					projection += orthonormalBasis[start + i] * vector[i];
+				}
+				for (int i = 0; i < n; i++) {
+					vector[i] -= projection * orthonormalBasis[start + i];
+				}
+			}
+		}
+	}
+
+	private static double norm(double[] vector) {
+		double sum = 0;
+		for (double value : vector) {
+			sum += value * value;
+		}
+		return Math.sqrt(sum);
+	}
+
 	/* ================================= Getters ================================ */
 	public List<MyVector> getBasisVectors() {
 		return basis.stream().collect(Collectors.toCollection(ArrayList::new));
@@ -112,4 +359,52 @@ public class VectorSpace {
 	public int getDimensionOfVectors() {
 		return dimensionOfVectors;
 	}
+
+	/*
+	 * The dimension of the space, which is the number of vectors in a basis and
+	 * may be less than the number of vectors the space was given
+	 */
+	public int getDimension() {
+		if (independent)
+			return basis.size();
+		absorbBasis();
+		return dimension;
+	}
+
+	/*
+	 * The orthogonal projection onto the space, as Q * Q^T in low-rank form.
+	 * It is built once and reused until the space changes. It shares the
+	 * orthonormal basis with the space, which is only ever appended to
+	 */
+	public LowRankProjector getProjector() {
+		absorbBasis();
+		if (projector == null || projector.rank() != dimension)
+			projector = new LowRankProjector(dimensionOfVectors, dimension, orthonormalBasis);
+		return projector;
+	}
+
+	/*
+	 * An orthonormal basis of the space, kept up to date as vectors are added
+	 */
+	public List<MyVector> getOrthonormalBasis() {
+		absorbBasis();
+		List<MyVector> orthonormalVectors = new ArrayList<>(dimension);
+		int n = dimensionOfVectors;
+		for (int k = 0; k < dimension; k++) {
+			orthonormalVectors.add(new MyVector(Arrays.copyOfRange(orthonormalBasis, k * n, (k + 1) * n)));
+		}
+		return orthonormalVectors;
+	}
+
+	/*
+	 * The Gram-Schmidt vectors of the basis, what is left of each independent
+	 * basis vector after removing its components along the ones before it
+	 */
+	List<MyVector> getOrthogonalBasis() {
+		List<MyVector> orthogonalVectors = getOrthonormalBasis();
+		for (int k = 0; k < dimension; k++) {
+			orthogonalVectors.get(k).scale(residualLengths[k]);
+		}
+		return orthogonalVectors;
+	}
 }
@@ -1,25 +1,27 @@
 package representations;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.IntStream;
 
 import functionality.VectorSpace;
-import utils.MatrixBank;
 
 /*
  * Object to represent elementary matricies. They have limited functionality
  * as they are only intended for finding inverses (Should only really be multiplied)
+ *
+ * The matrix is stored as the row operations that built it, plus a factor
+ * from scale(), instead of as n identity rows. Creating one is O(1), and
+ * applying it to a vector or an n x m matrix replays the operations in O(n)
+ * or O(n * m)
  */
 public class ElementaryMatrix implements Matrix {
 
-	List<MyVector> rowVectors;
-	int dimension;
+	private final OperationTape operations;
+	private final int dimension;
+	private double factor = 1;
 
 	public ElementaryMatrix(int dimension) {
 		this.dimension = dimension;
-		this.rowVectors = MatrixBank.identityVectors(dimension);
+		this.operations = new OperationTape(dimension);
 	}
 
 	/* ============================= Unique methods ============================= */
@@ -30,7 +32,7 @@ public class ElementaryMatrix implements Matrix {
 		if (firstRowIndex < 0 || firstRowIndex >= dimension || secondRowIndex < 0 || secondRowIndex >= dimension)
 			throw new IllegalArgumentException("Rows do not exist");
 
-		Collections.swap(rowVectors, firstRowIndex, secondRowIndex);
+		operations.recordSwap(firstRowIndex, secondRowIndex);
 		return this;
 	}
 
@@ -38,7 +40,7 @@ public class ElementaryMatrix implements Matrix {
 		if (rowIndex < 0 || rowIndex >= dimension)
 			throw new IllegalArgumentException("Row does not exist");
 
-		rowVectors.get(rowIndex).scale(c);
+		operations.recordScale(rowIndex, c);
 		return this;
 	}
 
@@ -49,56 +51,128 @@ public class ElementaryMatrix implements Matrix {
 		if (subtractorIndex < 0 || subtractorIndex >= dimension || targetIndex < 0 || targetIndex >= dimension)
 			throw new IllegalArgumentException("Rows do not exist");
 
-		rowVectors.get(targetIndex).subtract(rowVectors.get(subtractorIndex));
+		operations.recordSubtractScaled(targetIndex, subtractorIndex, 1);
 		return this;
 	}
 
 	public ElementaryMatrix subtractScaledRow(int targetIndex, int subtractorIndex, double scalar) {
-		rowVectors.get(targetIndex).subtract(rowVectors.get(subtractorIndex).scaled(scalar));
+		operations.recordSubtractScaled(targetIndex, subtractorIndex, scalar);
 		return this;
 	}
 
+	/*
+	 * this * matrix in O(n * m), without forming this
+	 */
+	public Matrix leftMultiply(Matrix matrix) {
+		if (matrix.rows() != dimension)
+			throw new IllegalArgumentException("Incompatible dimensions");
+
+		int columns = matrix.columns();
+		double[] result = OperationTape.copyRows(matrix);
+		operations.replay(result, columns);
+		scaleAll(result);
+		return new OriginalMatrix(dimension, columns, result, 0, columns);
+	}
+
+	/*
+	 * matrix * this in O(n * m). The rows of the result are the rows of matrix
+	 * times this, so the transposed operations are replayed onto the columns
+	 */
+	public Matrix rightMultiply(Matrix matrix) {
+		if (matrix.columns() != dimension)
+			throw new IllegalArgumentException("Incompatible dimensions");
+
+		int rows = matrix.rows();
+		double[] transposed = new double[dimension * rows];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < dimension; j++) {
+				transposed[j * rows + i] = matrix.get(i, j);
+			}
+		}
+		operations.replayTransposed(transposed, rows);
+		scaleAll(transposed);
+
+		OriginalMatrix result = new OriginalMatrix(rows, dimension);
+		for (int j = 0; j < dimension; j++) {
+			for (int i = 0; i < rows; i++) {
+				result.set(i, j, transposed[j * rows + i]);
+			}
+		}
+		return result;
+	}
+
+	private void scaleAll(double[] contents) {
+		if (factor == 1)
+			return;
+		for (int i = 0; i < contents.length; i++) {
+			contents[i] *= factor;
+		}
+	}
+
+	/*
+	 * The dense form, only built when someone asks for whole rows or columns
+	 */
+	private OriginalMatrix toDense() {
+		OriginalMatrix dense = (OriginalMatrix) operations.toMatrix();
+		dense.scale(factor);
+		return dense;
+	}
+
 	/* ============================ Standard methods ============================ */
 
 	@Override
 	public void scale(double c) {
-		for (MyVector vector : rowVectors)
-			vector.scale(c);
+		factor *= c;
 	}
 
 	@Override
 	public int rows() {
-		return rowVectors.size();
+		return dimension;
 	}
 
 	@Override
 	public int columns() {
-		return rowVectors.get(0).size();
+		return dimension;
+	}
+
+	/*
+	 * Column j of this matrix is this times e_j, so one element costs O(n)
+	 */
+	@Override
+	public double get(int row, int column) {
+		if (row < 0 || row >= dimension || column < 0 || column >= dimension)
+			throw new IllegalArgumentException("Illegal indicies");
+
+		double[] unit = new double[dimension];
+		unit[column] = 1;
+		operations.replay(unit, 1);
+		return factor * unit[row];
+	}
+
+	@Override
+	public MyVector multiply(MyVector vector) {
+		MyVector result = operations.apply(vector);
+		if (factor != 1)
+			result.scale(factor);
+		return result;
 	}
 
 	@Override
 	public List<MyVector> getRowVectors() {
-		return List.copyOf(rowVectors);
+		return toDense().getRowVectors();
 	}
 
 	@Override
 	public List<MyVector> getColumnVectors() {
-		return new ArrayList<>(IntStream.range(0, dimension)
-				.mapToObj(i -> new MyVector(rowVectors.stream().mapToDouble(row -> row.get(i)).toArray()))
-				.toList());
+		return toDense().getColumnVectors();
 	}
 
 	@Override
 	public String toString() {
-		return new OriginalMatrix(rowVectors).toString();
+		return toDense().toString();
 	}
 
 	/* ========================== Not supported methods ========================= */
-	@Override
-	public double get(int row, int column) {
-		throw new UnsupportedOperationException("Can't get elements from elementary matricies");
-	}
-
 	@Override
 	public void set(int row, int column, double value) {
 		throw new UnsupportedOperationException("Can't set elements in elementary matricies");
@@ -121,11 +195,6 @@ public class ElementaryMatrix implements Matrix {
 		throw new UnsupportedOperationException("Elementary matricies can't transpose");
 	}
 
-	@Override
-	public MyVector multiply(MyVector vector) {
-		throw new UnsupportedOperationException("Unimplemented method 'multiply'");
-	}
-
 	@Override
 	public VectorSpace col() {
 		throw new UnsupportedOperationException("Cant get subspaces of elementary matricies");
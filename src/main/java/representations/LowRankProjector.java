@@ -0,0 +1,181 @@
+package representations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import functionality.VectorSpace;
+
+/*
+ * The orthogonal projection onto a k-dimensional subspace of R^n, stored as an
+ * orthonormal basis Q of the subspace instead of the n x n matrix Q * Q^T
+ *
+ * Applying it is Q * (Q^T * v), which is O(n * k) time and needs no memory
+ * beyond Q itself. Elements are computed when asked for, in O(k) each, and
+ * the dense matrix is only built by getRowVectors and getColumnVectors
+ */
+public class LowRankProjector implements Matrix {
+
+	private final int length;
+	private final int rank;
+	private final double[] basis;
+
+	/* ============================== Constructors ============================== */
+	/*
+	 * Wraps rank orthonormal vectors of the given length, stored one after
+	 * another in the array, without copying them. The first rank * length
+	 * elements must not change afterwards
+	 */
+	public LowRankProjector(int length, int rank, double[] basis) {
+		if (length <= 0 || rank < 0 || rank > length)
+			throw new IllegalArgumentException("Illegal dimensions");
+		if ((long) rank * length > basis.length)
+			throw new IllegalArgumentException("Array is too small for the given dimensions");
+		this.length = length;
+		this.rank = rank;
+		this.basis = basis;
+	}
+
+	/* ============================= Unique methods ============================= */
+	public int rank() {
+		return rank;
+	}
+
+	/* ============================ Standard methods ============================ */
+	@Override
+	public MyVector multiply(MyVector vector) {
+		MyVector result = new MyVector(length);
+		multiplyInto(vector, result);
+		return result;
+	}
+
+	@Override
+	public void multiplyInto(MyVector vector, MyVector result) {
+		if (vector.size() != length)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+		if (result.size() != length)
+			throw new IllegalArgumentException("Result vector has wrong dimensions");
+		if (result == vector)
+			throw new IllegalArgumentException("Result can not be the vector being multiplied");
+
+		double[] x = vector.backingArray();
+		double[] y = result.backingArray();
+		Arrays.fill(y, 0);
+		for (int k = 0; k < rank; k++) {
+			int start = k * length;
+			double coordinate = 0;
+			for (int i = 0; i < length; i++) {
+				coordinate += basis[start + i] * x[i];
+			}
+			for (int i = 0; i < length; i++) {
+				y[i] += coordinate * basis[start + i];
+			}
+		}
+	}
+
+	/*
+	 * A projection is symmetric
+	 */
+	@Override
+	public Matrix transposed() {
+		return this;
+	}
+
+	@Override
+	public int rows() {
+		return length;
+	}
+
+	@Override
+	public int columns() {
+		return length;
+	}
+
+	@Override
+	public double get(int row, int column) {
+		if (row < 0 || row >= length || column < 0 || column >= length)
+			throw new IllegalArgumentException("Illegal indicies");
+
+		double sum = 0;
+		for (int k = 0; k < rank; k++) {
+			sum += basis[k * length + row] * basis[k * length + column];
+		}
+		return sum;
+	}
+
+	@Override
+	public List<MyVector> getRowVectors() {
+		List<MyVector> rowVectors = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			rowVectors.add(multiply(MyVector.unitVector(length, i)));
+		}
+		return rowVectors;
+	}
+
+	@Override
+	public List<MyVector> getColumnVectors() {
+		return getRowVectors();
+	}
+
+	@Override
+	public String toString() {
+		return new OriginalMatrix(getRowVectors()).toString();
+	}
+
+	/* ============================ Subspace getters ============================ */
+	@Override
+	public VectorSpace col() {
+		List<MyVector> vectors = new ArrayList<>(rank);
+		for (int k = 0; k < rank; k++) {
+			vectors.add(MyVector.wrap(Arrays.copyOfRange(basis, k * length, (k + 1) * length)));
+		}
+		return rank == 0 ? new VectorSpace() : new VectorSpace(vectors);
+	}
+
+	@Override
+	public VectorSpace row() {
+		return col();
+	}
+
+	/*
+	 * A projection leaves the space it projects onto alone and sends its
+	 * orthogonal complement to zero
+	 */
+	@Override
+	public VectorSpace ker() {
+		if (rank == 0) {
+			List<MyVector> unitVectors = new ArrayList<>(length);
+			for (int i = 0; i < length; i++) {
+				unitVectors.add(MyVector.unitVector(length, i));
+			}
+			return new VectorSpace(unitVectors);
+		}
+		return col().orthogonalComplement();
+	}
+
+	@Override
+	public VectorSpace coker() {
+		return ker();
+	}
+
+	/* ========================== Not supported methods ========================= */
+	@Override
+	public void set(int row, int column, double value) {
+		throw new UnsupportedOperationException("Can't set elements in projectors");
+	}
+
+	@Override
+	public void scale(double c) {
+		throw new UnsupportedOperationException("Projectors can't scale");
+	}
+
+	@Override
+	public void add(Matrix m) {
+		throw new UnsupportedOperationException("Projectors can't add");
+	}
+
+	@Override
+	public void subtract(Matrix m) {
+		throw new UnsupportedOperationException("Projectors can't subtract");
+	}
+}
@@ -2,6 +2,7 @@ package representations;
 
 import java.util.List;
 
+import functionality.EigenDecomposition;
 import functionality.VectorSpace;
 import utils.Utils;
 
@@ -29,6 +30,23 @@ public interface Matrix {
 
 	public MyVector multiply(MyVector vector);
 
+	/**
+	 * Writes this * vector into result instead of allocating a new vector.
+	 * Implementations with direct access to their storage override this to
+	 * avoid allocating at all
+	 * 
+	 * @param vector
+	 * @param result must have one element per row and must not be vector itself
+	 */
+	public default void multiplyInto(MyVector vector, MyVector result) {
+		if (result.size() != rows())
+			throw new IllegalArgumentException("Result vector has wrong dimensions");
+		if (result == vector)
+			throw new IllegalArgumentException("Result can not be the vector being multiplied");
+
+		System.arraycopy(multiply(vector).backingArray(), 0, result.backingArray(), 0, result.size());
+	}
+
 	public Matrix transposed();
 
 	public void set(int row, int column, double value);
@@ -57,5 +75,11 @@ public interface Matrix {
 
 	public VectorSpace coker();
 
-	// public VectorSpace eigen();
+	/*
+	 * The eigenvalues and eigenvectors, from the symmetric solver when the
+	 * matrix is symmetric and the general one otherwise
+	 */
+	public default EigenDecomposition eigen() {
+		return EigenDecomposition.of(this, true);
+	}
 }
@@ -56,6 +56,19 @@ public class MyVector implements Iterable<Double>, Comparable<MyVector> {
 		this.size = size;
 	}
 
+	/*
+	 * Wraps an array without the defensive copy. Only for kernels in this package
+	 * that have just allocated the array themselves
+	 */
+	static MyVector wrap(double[] contents) {
+		return new MyVector(contents, false);
+	}
+
+	private MyVector(double[] contents, boolean copy) {
+		this.contents = copy ? contents.clone() : contents;
+		this.size = contents.length;
+	}
+
 	/* ================================= Methods ================================ */
 
 	public void scale(double c) {
@@ -64,6 +77,10 @@ public class MyVector implements Iterable<Double>, Comparable<MyVector> {
 		}
 	}
 
+	public void set(int index, double value) {
+		contents[index] = value;
+	}
+
 	public MyVector scaled(double c) {
 		MyVector newVector = new MyVector(contents);
 		newVector.scale(c);
@@ -81,7 +98,7 @@ public class MyVector implements Iterable<Double>, Comparable<MyVector> {
 		if (!(sharesDimension(vector)))
 			throw new IllegalArgumentException("Cannot add vectors with different sizes");
 		for (int i = 0; i < size; i++) {
-			contents[i] += vector.contents()[i];
+			contents[i] += vector.contents[i];
 		}
 	}
 
@@ -90,7 +107,7 @@ public class MyVector implements Iterable<Double>, Comparable<MyVector> {
 			throw new IllegalArgumentException("Cannot subtract vectors with different sizes");
 
 		for (int i = 0; i < size; i++) {
-			contents[i] -= vector.contents()[i];
+			contents[i] -= vector.contents[i];
 		}
 	}
 
@@ -120,6 +137,14 @@ public class MyVector implements Iterable<Double>, Comparable<MyVector> {
 		return contents.clone();
 	}
 
+	/*
+	 * The array itself, without the copy contents() makes. Package-private so
+	 * only the matrix kernels next to this class can read it directly
+	 */
+	double[] backingArray() {
+		return contents;
+	}
+
 	/* ================================== Other ================================= */
 	@Override
 	public String toString() {
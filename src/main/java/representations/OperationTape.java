@@ -0,0 +1,243 @@
+package representations;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/*
+ * A sequence of elementary row operations, stored as
+ * (operation, target row, source row, scalar) entries in primitive arrays
+ *
+ * Recording an operation never allocates (apart from growing the arrays now
+ * and then), so RowReducer can log every step without building an n x n
+ * ElementaryMatrix for it. The tape still reads as a List<ElementaryMatrix>,
+ * and an ElementaryMatrix is only built when get() asks for it
+ *
+ * The product E = E_k * ... * E_1 of the operations is never formed unless
+ * toMatrix() is called. Instead the operations are replayed, in the order they
+ * were recorded, straight onto a vector or onto every column of a matrix,
+ * which is O(k) per column rather than a dense product per operation
+ */
+public class OperationTape extends AbstractList<ElementaryMatrix> {
+
+	/* ================================= Fields ================================= */
+	private static final byte SWAP = 0;
+	private static final byte SCALE = 1;
+	private static final byte SUBTRACT_SCALED = 2;
+
+	private final int dimension;
+	private byte[] kinds = new byte[16];
+	private int[] targets = new int[16];
+	private int[] sources = new int[16];
+	private double[] scalars = new double[16];
+	private int size;
+
+	/* ============================== Constructors ============================== */
+	public OperationTape(int dimension) {
+		this.dimension = dimension;
+	}
+
+	/* ================================ Recording =============================== */
+	public void recordSwap(int firstRow, int secondRow) {
+		record(SWAP, firstRow, secondRow, 0);
+	}
+
+	public void recordScale(int row, double scalar) {
+		record(SCALE, row, row, scalar);
+	}
+
+	/*
+	 * target row -= scalar * source row
+	 */
+	public void recordSubtractScaled(int targetRow, int sourceRow, double scalar) {
+		record(SUBTRACT_SCALED, targetRow, sourceRow, scalar);
+	}
+
+	private void record(byte kind, int target, int source, double scalar) {
+		if (target < 0 || target >= dimension || source < 0 || source >= dimension)
+			throw new IllegalArgumentException("Rows do not exist");
+
+		if (size == kinds.length) {
+			int capacity = size * 2;
+			kinds = Arrays.copyOf(kinds, capacity);
+			targets = Arrays.copyOf(targets, capacity);
+			sources = Arrays.copyOf(sources, capacity);
+			scalars = Arrays.copyOf(scalars, capacity);
+		}
+		kinds[size] = kind;
+		targets[size] = target;
+		sources[size] = source;
+		scalars[size] = scalar;
+		size++;
+	}
+
+	/* ================================= Replay ================================= */
+	/*
+	 * E * vector, without forming E
+	 */
+	public MyVector apply(MyVector vector) {
+		if (vector.size() != dimension)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+
+		double[] result = vector.backingArray().clone();
+		replay(result, 1);
+		return MyVector.wrap(result);
+	}
+
+	/*
+	 * E^T * vector. Each operation is its own kind transposed (a row
+	 * subtraction moves the other way), replayed from the last one back
+	 */
+	public MyVector applyTransposed(MyVector vector) {
+		if (vector.size() != dimension)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+
+		double[] result = vector.backingArray().clone();
+		replayTransposed(result, 1);
+		return MyVector.wrap(result);
+	}
+
+	/*
+	 * E * matrix, replaying every operation on whole rows of a row-major copy
+	 */
+	public Matrix apply(Matrix matrix) {
+		if (matrix.rows() != dimension)
+			throw new IllegalArgumentException("Matrix has wrong dimensions");
+
+		int columns = matrix.columns();
+		double[] result = copyRows(matrix);
+		replay(result, columns);
+		return new OriginalMatrix(dimension, columns, result, 0, columns);
+	}
+
+	/*
+	 * E^T * matrix, the same way
+	 */
+	public Matrix applyTransposed(Matrix matrix) {
+		if (matrix.rows() != dimension)
+			throw new IllegalArgumentException("Matrix has wrong dimensions");
+
+		int columns = matrix.columns();
+		double[] result = copyRows(matrix);
+		replayTransposed(result, columns);
+		return new OriginalMatrix(dimension, columns, result, 0, columns);
+	}
+
+	/*
+	 * The aggregated matrix E itself. Costs O(k * n) on top of the n x n result
+	 */
+	public Matrix toMatrix() {
+		double[] result = new double[dimension * dimension];
+		for (int i = 0; i < dimension; i++) {
+			result[i * dimension + i] = 1;
+		}
+		replay(result, dimension);
+		return new OriginalMatrix(dimension, dimension, result, 0, dimension);
+	}
+
+	/*
+	 * Replays the tape onto a row-major block with the given number of columns
+	 */
+	void replay(double[] rows, int columns) {
+		for (int k = 0; k < size; k++) {
+			int targetStart = targets[k] * columns;
+			int sourceStart = sources[k] * columns;
+			switch (kinds[k]) {
+				case SWAP:
+					for (int j = 0; j < columns; j++) {
+						double temporary = rows[targetStart + j];
+						rows[targetStart + j] = rows[sourceStart + j];
+						rows[sourceStart + j] = temporary;
+					}
+					break;
+				case SCALE:
+					double factor = scalars[k];
+					for (int j = 0; j < columns; j++) {
+						rows[targetStart + j] *= factor;
+					}
+					break;
+				default:
+					double scalar = scalars[k];
+					for (int j = 0; j < columns; j++) {
+						rows[targetStart + j] -= scalar * rows[sourceStart + j];
+					}
+			}
+		}
+	}
+
+	void replayTransposed(double[] rows, int columns) {
+		for (int k = size - 1; k >= 0; k--) {
+			int targetStart = targets[k] * columns;
+			int sourceStart = sources[k] * columns;
+			switch (kinds[k]) {
+				case SWAP:
+					for (int j = 0; j < columns; j++) {
+						double temporary = rows[targetStart + j];
+						rows[targetStart + j] = rows[sourceStart + j];
+						rows[sourceStart + j] = temporary;
+					}
+					break;
+				case SCALE:
+					double factor = scalars[k];
+					for (int j = 0; j < columns; j++) {
+						rows[targetStart + j] *= factor;
+					}
+					break;
+				default:
+					// (I - c e_t e_s^T)^T = I - c e_s e_t^T
+					double scalar = scalars[k];
+					for (int j = 0; j < columns; j++) {
+						rows[sourceStart + j] -= scalar * rows[targetStart + j];
+					}
+			}
+		}
+	}
+
+	/*
+	 * A row-major copy of the matrix, straight from the backing array when dense
+	 */
+	static double[] copyRows(Matrix matrix) {
+		int rows = matrix.rows();
+		int columns = matrix.columns();
+		double[] copy = new double[rows * columns];
+		if (matrix instanceof OriginalMatrix dense) {
+			double[] source = dense.getBackingArray();
+			for (int i = 0; i < rows; i++) {
+				System.arraycopy(source, dense.getOffset() + i * dense.getStride(), copy, i * columns, columns);
+			}
+			return copy;
+		}
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				copy[i * columns + j] = matrix.get(i, j);
+			}
+		}
+		return copy;
+	}
+
+	/* ================================== List ================================== */
+	@Override
+	public ElementaryMatrix get(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException(index);
+
+		ElementaryMatrix matrix = new ElementaryMatrix(dimension);
+		switch (kinds[index]) {
+			case SWAP:
+				return matrix.swapRows(targets[index], sources[index]);
+			case SCALE:
+				return matrix.scaleRow(targets[index], scalars[index]);
+			default:
+				return matrix.subtractScaledRow(targets[index], sources[index], scalars[index]);
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/* ================================= Getters ================================ */
+	public int dimension() {
+		return dimension;
+	}
+}
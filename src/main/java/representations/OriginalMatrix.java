@@ -5,8 +5,9 @@ import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.IntStream;
+import java.util.Objects;
 
+import functionality.FundamentalSubspaces;
 import functionality.VectorSpace;
 
 public class OriginalMatrix implements Matrix {
@@ -15,12 +16,25 @@ public class OriginalMatrix implements Matrix {
 	 * Matricies are the centre of this project
 	 * They could have been built up of vectors, but it is more decoupled and
 	 * efficient to store the info in arrays
+	 * 
+	 * The elements are stored row by row in one contiguous double[], so element
+	 * (i, j) lives at offset + i * stride + j. Keeping everything in one array
+	 * avoids a pointer chase per element and lets the kernels stream through
+	 * memory. The offset and stride also allow a matrix to be a view into a
+	 * larger array without copying
 	 */
 
 	/* ================================= Fields ================================= */
 	private final int rows;
 	private final int columns;
-	private final double[][] contents;
+	private final double[] contents;
+	private final int offset;
+	private final int stride;
+	// Counts the changes made through the methods, so cached results know when they are stale
+	private int modifications;
+	// Shared by ker and coker, along with the count it was computed at
+	private FundamentalSubspaces subspaces;
+	private int subspacesModifications;
 
 	/* ================================= Helpers ================================ */
 
@@ -32,27 +46,48 @@ public class OriginalMatrix implements Matrix {
 		return 0 <= columnIndex && columnIndex < columns;
 	}
 
+	private int index(int row, int column) {
+		return offset + row * stride + column;
+	}
+
 	/* ============================== Constructors ============================== */
 	public OriginalMatrix(int rows, int columns) {
 		if (rows <= 0 || columns <= 0)
 			throw new IllegalArgumentException("Can not have dimension=0");
 		this.rows = rows;
 		this.columns = columns;
-		contents = new double[rows][columns];
+		this.contents = new double[rows * columns];
+		this.offset = 0;
+		this.stride = columns;
 	}
 
 	public OriginalMatrix(double[][] contents) {
 		this(contents.length, contents[0].length);
 
-		// This could be done with
-		// System.arraycopy
 		for (int i = 0; i < rows; i++) {
-			for (int j = 0; j < columns; j++) {
-				this.contents[i][j] = contents[i][j];
-			}
+			if (contents[i].length != columns)
+				throw new IllegalArgumentException("All rows must be of same length");
+			System.arraycopy(contents[i], 0, this.contents, i * columns, columns);
 		}
 	}
 
+	/*
+	 * Wraps an existing row-major array without copying it. Element (i, j) is read
+	 * from contents[offset + i * stride + j], so changes to the array are visible
+	 * in the matrix and the other way around
+	 */
+	public OriginalMatrix(int rows, int columns, double[] contents, int offset, int stride) {
+		if (rows <= 0 || columns <= 0)
+			throw new IllegalArgumentException("Can not have dimension=0");
+		if (offset < 0 || stride < columns || offset + (long) (rows - 1) * stride + columns > contents.length)
+			throw new IllegalArgumentException("Array is too small for the given dimensions, offset and stride");
+		this.rows = rows;
+		this.columns = columns;
+		this.contents = contents;
+		this.offset = offset;
+		this.stride = stride;
+	}
+
 	/*
 	 * Constructur that takes a number of vectors and combines them into a matrix
 	 * The default is that the vectors are interpreted as rows
@@ -68,20 +103,21 @@ public class OriginalMatrix implements Matrix {
 				throw new IllegalArgumentException("All vectors must be of same length");
 		}
 
-		if (!considerVectorsAsColumns) {
-			double[][] contents = vectors.stream().map(MyVector::contents).toArray(double[][]::new);
-
-			this.contents = contents;
-			this.rows = contents.length;
-			this.columns = contents[0].length;
-		} else {
-			double[][] contents = IntStream.range(0, vectorSize)
-					.mapToObj(i -> vectors.stream().mapToDouble(vector -> vector.get(i)).toArray())
-					.toArray(double[][]::new);
-
-			this.contents = contents;
-			this.rows = contents.length;
-			this.columns = contents[0].length;
+		this.rows = considerVectorsAsColumns ? vectorSize : vectors.size();
+		this.columns = considerVectorsAsColumns ? vectors.size() : vectorSize;
+		this.contents = new double[rows * columns];
+		this.offset = 0;
+		this.stride = columns;
+
+		for (int v = 0; v < vectors.size(); v++) {
+			double[] vectorContents = vectors.get(v).backingArray();
+			if (!considerVectorsAsColumns) {
+				System.arraycopy(vectorContents, 0, contents, v * columns, columns);
+			} else {
+				for (int i = 0; i < rows; i++) {
+					contents[i * columns + v] = vectorContents[i];
+				}
+			}
 		}
 	}
 
@@ -91,22 +127,41 @@ public class OriginalMatrix implements Matrix {
 			throw new IllegalArgumentException("Illegal indicies");
 		}
 
-		contents[row][column] = value;
+		contents[index(row, column)] = value;
+		modifications++;
 	}
 
 	@Override
 	public MyVector multiply(MyVector vector) {
-		if (vector.size() != this.contents[0].length)
+		if (vector.size() != columns)
 			throw new IllegalArgumentException("Vector has wrong dimensions");
 
-		MyVector resultVector = new MyVector(this.contents.length);
-		List<MyVector> columns = getColumnVectors();
+		MyVector result = new MyVector(rows);
+		multiplyInto(vector, result);
+		return result;
+	}
 
-		for (int i = 0; i < columns.size(); i++) {
-			resultVector.add(columns.get(i).scaled(vector.get(i)));
-		}
-		return resultVector;
+	@Override
+	public void multiplyInto(MyVector vector, MyVector result) {
+		if (vector.size() != columns)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+		if (result.size() != rows)
+			throw new IllegalArgumentException("Result vector has wrong dimensions");
+		if (result == vector)
+			throw new IllegalArgumentException("Result can not be the vector being multiplied");
 
+		double[] x = vector.backingArray();
+		double[] y = result.backingArray();
+
+		// Each row is a contiguous slice, so this is a dot product per row
+		for (int i = 0; i < rows; i++) {
+			int rowStart = index(i, 0);
+			double sum = 0;
+			for (int j = 0; j < columns; j++) {
+				sum += contents[rowStart + j] * x[j];
+			}
+			y[i] = sum;
+		}
 	}
 
 	public Matrix transposed() {
@@ -115,10 +170,12 @@ public class OriginalMatrix implements Matrix {
 
 	public void scale(double c) {
 		for (int i = 0; i < rows; i++) {
+			int rowStart = index(i, 0);
 			for (int j = 0; j < columns; j++) {
-				contents[i][j] = c * contents[i][j];
+				contents[rowStart + j] = c * contents[rowStart + j];
 			}
 		}
+		modifications++;
 	}
 
 	@Override
@@ -126,11 +183,7 @@ public class OriginalMatrix implements Matrix {
 		if (!(rows == m.rows() && columns == m.columns()))
 			throw new IllegalArgumentException("Can not add matricies of different dimensions");
 
-		for (int i = 0; i < rows; i++) {
-			for (int j = 0; j < columns; j++) {
-				contents[i][j] += m.get(i, j);
-			}
-		}
+		accumulate(m, 1);
 	}
 
 	@Override
@@ -138,13 +191,41 @@ public class OriginalMatrix implements Matrix {
 		if (!(rows == m.rows() && columns == m.columns()))
 			throw new IllegalArgumentException("Can not subtractmatricies of different dimensions");
 
+		accumulate(m, -1);
+	}
+
+	private void accumulate(Matrix m, double sign) {
+		modifications++;
+		if (m instanceof OriginalMatrix other) {
+			for (int i = 0; i < rows; i++) {
+				int rowStart = index(i, 0);
+				int otherRowStart = other.index(i, 0);
+				for (int j = 0; j < columns; j++) {
+					contents[rowStart + j] += sign * other.contents[otherRowStart + j];
+				}
+			}
+			return;
+		}
+
 		for (int i = 0; i < rows; i++) {
 			for (int j = 0; j < columns; j++) {
-				contents[i][j] -= m.get(i, j);
+				contents[index(i, j)] += sign * m.get(i, j);
 			}
 		}
 	}
 
+	/*
+	 * Returns a view of a block of this matrix. The view shares storage with this
+	 * matrix, so there are side effects to modifying either object
+	 */
+	public OriginalMatrix view(int fromRow, int fromColumn, int rows, int columns) {
+		if (!(rowIndexIsValid(fromRow) && columnIndexIsValid(fromColumn)
+				&& fromRow + rows <= this.rows && fromColumn + columns <= this.columns))
+			throw new IllegalArgumentException("Illegal indicies");
+
+		return new OriginalMatrix(rows, columns, contents, index(fromRow, fromColumn), stride);
+	}
+
 	public void sortRows() {
 
 	}
@@ -162,40 +243,88 @@ public class OriginalMatrix implements Matrix {
 
 	@Override
 	public double get(int row, int column) {
-		return contents[row][column];
+		Objects.checkIndex(row, rows);
+		Objects.checkIndex(column, columns);
+		return contents[index(row, column)];
 	}
 
 	public double[][] getContents() {
 		double[][] copy = new double[rows][columns];
 		for (int i = 0; i < rows; i++) {
-			copy[i] = contents[i].clone();
+			System.arraycopy(contents, index(i, 0), copy[i], 0, columns);
 		}
 		return copy;
 	}
 
+	/*
+	 * The raw storage, for kernels that want to skip get() and set(). Element
+	 * (i, j) lives at getBackingArray()[getOffset() + i * getStride() + j]
+	 * No copy is made, so writes go straight into the matrix. The matrix does
+	 * not see such writes, or writes through a view, so call markChanged()
+	 * after them
+	 */
+	public double[] getBackingArray() {
+		return contents;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public int getStride() {
+		return stride;
+	}
+
 	@Override
 	public List<MyVector> getRowVectors() {
-		return new ArrayList<>(Arrays.stream(contents).map(a -> new MyVector(a)).toList());
+		List<MyVector> rowVectors = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			int rowStart = index(i, 0);
+			rowVectors.add(MyVector.wrap(Arrays.copyOfRange(contents, rowStart, rowStart + columns)));
+		}
+		return rowVectors;
 	}
 
-	/*
-	 * This one is a bit tricky to debug, but works as intended
-	 * - We start with the stream of all the column indicies
-	 * - Then for each of the indicicies we create a new stream of the contents
-	 * and map each row to the element at our index
-	 * - We gather this stream in an array, and cast it to a vector
-	 * - Finally we collect all vectors to an ArrayList
-	 * 
-	 */
-
 	@Override
 	public List<MyVector> getColumnVectors() {
-		return new ArrayList<>(IntStream.range(0, columns)
-				.mapToObj(i -> new MyVector(Arrays.stream(contents).mapToDouble(row -> row[i]).toArray()))
-				.toList());
+		double[][] columnContents = new double[columns][rows];
+		for (int i = 0; i < rows; i++) {
+			int rowStart = index(i, 0);
+			for (int j = 0; j < columns; j++) {
+				columnContents[j][i] = contents[rowStart + j];
+			}
+		}
+		List<MyVector> columnVectors = new ArrayList<>(columns);
+		for (double[] column : columnContents) {
+			columnVectors.add(MyVector.wrap(column));
+		}
+		return columnVectors;
+	}
+
+	/*
+	 * Tells the matrix its contents were changed without going through its
+	 * methods, so cached results are computed again
+	 */
+	public void markChanged() {
+		modifications++;
 	}
 
 	/* ============================ Subspace getters ============================ */
+	/*
+	 * The column and row space are spanned by the columns and rows themselves,
+	 * which costs nothing until the space is used. The kernel and cokernel
+	 * share one row reduction, which is kept until the matrix is changed. Each
+	 * call returns a new space. FundamentalSubspaces gives all four from one
+	 * reduction, with the pivot columns and rows as bases
+	 */
+	private FundamentalSubspaces subspaces() {
+		if (subspaces == null || subspacesModifications != modifications) {
+			subspaces = new FundamentalSubspaces(this);
+			subspacesModifications = modifications;
+		}
+		return subspaces;
+	}
+
 	@Override
 	public VectorSpace col() {
 		return new VectorSpace(getColumnVectors());
@@ -208,14 +337,12 @@ public class OriginalMatrix implements Matrix {
 
 	@Override
 	public VectorSpace ker() {
-		// TODO Auto-generated method stub
-		throw new UnsupportedOperationException("Unimplemented method 'ker'");
+		return subspaces().kernel();
 	}
 
 	@Override
 	public VectorSpace coker() {
-		// TODO Auto-generated method stub
-		throw new UnsupportedOperationException("Unimplemented method 'coker'");
+		return subspaces().cokernel();
 	}
 
 	/* ================================== Other ================================= */
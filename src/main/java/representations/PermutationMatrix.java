@@ -0,0 +1,237 @@
+package representations;
+
+import java.util.List;
+
+import functionality.VectorSpace;
+
+/*
+ * A permutation matrix stored as an index array instead of n x n zeros and
+ * ones. Row i of P is e_p[i], so row i of P * A is row p[i] of A, the same
+ * convention as LUDecomposition.getPivot()
+ *
+ * Composing, inverting and applying one is O(n), or O(n * m) for an n x m
+ * matrix, and never touches a dense product
+ */
+public class PermutationMatrix implements Matrix {
+
+	private final int[] permutation;
+
+	/* ============================== Constructors ============================== */
+	/*
+	 * The identity permutation
+	 */
+	public PermutationMatrix(int dimension) {
+		this.permutation = new int[dimension];
+		for (int i = 0; i < dimension; i++) {
+			permutation[i] = i;
+		}
+	}
+
+	public PermutationMatrix(int[] permutation) {
+		boolean[] seen = new boolean[permutation.length];
+		for (int index : permutation) {
+			if (index < 0 || index >= permutation.length || seen[index])
+				throw new IllegalArgumentException("Not a permutation");
+			seen[index] = true;
+		}
+		this.permutation = permutation.clone();
+	}
+
+	private PermutationMatrix(int[] permutation, boolean copy) {
+		this.permutation = copy ? permutation.clone() : permutation;
+	}
+
+	/* ============================= Unique methods ============================= */
+	/*
+	 * this * other
+	 */
+	public PermutationMatrix compose(PermutationMatrix other) {
+		if (other.permutation.length != permutation.length)
+			throw new IllegalArgumentException("Incompatible dimensions");
+
+		int[] composed = new int[permutation.length];
+		for (int i = 0; i < permutation.length; i++) {
+			composed[i] = other.permutation[permutation[i]];
+		}
+		return new PermutationMatrix(composed, false);
+	}
+
+	public PermutationMatrix inverse() {
+		int[] inverse = new int[permutation.length];
+		for (int i = 0; i < permutation.length; i++) {
+			inverse[permutation[i]] = i;
+		}
+		return new PermutationMatrix(inverse, false);
+	}
+
+	/*
+	 * The determinant, +1 for an even permutation and -1 for an odd one. Every
+	 * cycle of length l takes l - 1 swaps
+	 */
+	public int sign() {
+		boolean[] visited = new boolean[permutation.length];
+		int sign = 1;
+		for (int i = 0; i < permutation.length; i++) {
+			if (visited[i])
+				continue;
+			for (int j = permutation[i]; j != i; j = permutation[j]) {
+				visited[j] = true;
+				sign = -sign;
+			}
+			visited[i] = true;
+		}
+		return sign;
+	}
+
+	/*
+	 * this * matrix, which moves row p[i] of matrix to row i
+	 */
+	public Matrix leftMultiply(Matrix matrix) {
+		if (matrix.rows() != permutation.length)
+			throw new IllegalArgumentException("Incompatible dimensions");
+
+		int columns = matrix.columns();
+		OriginalMatrix result = new OriginalMatrix(permutation.length, columns);
+		double[] target = result.getBackingArray();
+		if (matrix instanceof OriginalMatrix dense) {
+			double[] source = dense.getBackingArray();
+			for (int i = 0; i < permutation.length; i++) {
+				System.arraycopy(source, dense.getOffset() + permutation[i] * dense.getStride(), target,
+						i * columns, columns);
+			}
+			return result;
+		}
+		for (int i = 0; i < permutation.length; i++) {
+			for (int j = 0; j < columns; j++) {
+				target[i * columns + j] = matrix.get(permutation[i], j);
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * matrix * this, which moves column j of matrix to column p[j]
+	 */
+	public Matrix rightMultiply(Matrix matrix) {
+		if (matrix.columns() != permutation.length)
+			throw new IllegalArgumentException("Incompatible dimensions");
+
+		int rows = matrix.rows();
+		int columns = permutation.length;
+		OriginalMatrix result = new OriginalMatrix(rows, columns);
+		double[] target = result.getBackingArray();
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				target[i * columns + permutation[j]] = matrix.get(i, j);
+			}
+		}
+		return result;
+	}
+
+	public int[] getPermutation() {
+		return permutation.clone();
+	}
+
+	/* ============================ Standard methods ============================ */
+	@Override
+	public MyVector multiply(MyVector vector) {
+		if (vector.size() != permutation.length)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+
+		double[] result = new double[permutation.length];
+		for (int i = 0; i < permutation.length; i++) {
+			result[i] = vector.get(permutation[i]);
+		}
+		return MyVector.wrap(result);
+	}
+
+	/*
+	 * P^T = P^-1
+	 */
+	@Override
+	public Matrix transposed() {
+		return inverse();
+	}
+
+	@Override
+	public int rows() {
+		return permutation.length;
+	}
+
+	@Override
+	public int columns() {
+		return permutation.length;
+	}
+
+	@Override
+	public double get(int row, int column) {
+		if (row < 0 || row >= permutation.length || column < 0 || column >= permutation.length)
+			throw new IllegalArgumentException("Illegal indicies");
+
+		return permutation[row] == column ? 1 : 0;
+	}
+
+	@Override
+	public List<MyVector> getRowVectors() {
+		return toDense().getRowVectors();
+	}
+
+	@Override
+	public List<MyVector> getColumnVectors() {
+		return toDense().getColumnVectors();
+	}
+
+	@Override
+	public String toString() {
+		return toDense().toString();
+	}
+
+	private OriginalMatrix toDense() {
+		OriginalMatrix dense = new OriginalMatrix(permutation.length, permutation.length);
+		for (int i = 0; i < permutation.length; i++) {
+			dense.set(i, permutation[i], 1);
+		}
+		return dense;
+	}
+
+	/* ========================== Not supported methods ========================= */
+	@Override
+	public void set(int row, int column, double value) {
+		throw new UnsupportedOperationException("Can't set elements in permutation matricies");
+	}
+
+	@Override
+	public void scale(double c) {
+		throw new UnsupportedOperationException("Permutation matricies can't scale");
+	}
+
+	@Override
+	public void add(Matrix m) {
+		throw new UnsupportedOperationException("Permutation matricies can't add");
+	}
+
+	@Override
+	public void subtract(Matrix m) {
+		throw new UnsupportedOperationException("Permutation matricies can't subtract");
+	}
+
+	@Override
+	public VectorSpace col() {
+		throw new UnsupportedOperationException("Cant get subspaces of permutation matricies");
+	}
+
+	@Override
+	public VectorSpace row() {
+		throw new UnsupportedOperationException("Cant get subspaces of permutation matricies");
+	}
+
+	@Override
+	public VectorSpace ker() {
+		throw new UnsupportedOperationException("Cant get subspaces of permutation matricies");
+	}
+
+	@Override
+	public VectorSpace coker() {
+		throw new UnsupportedOperationException("Cant get subspaces of permutation matricies");
+	}
+}
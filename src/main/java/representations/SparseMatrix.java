@@ -0,0 +1,738 @@
+package representations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import functionality.FundamentalSubspaces;
+import functionality.VectorSpace;
+
+/**
+ * Sparse matrix stored in compressed sparse row (CSR) form
+ * Only the nonzero elements are stored, so memory is O(rows + nonzeros)
+ *
+ * The storage is a list of "lines". In CSR every line is a row:
+ * - pointers[i] .. pointers[i + 1] is the range of row i in indices and values
+ * - indices holds the column of each stored element, sorted within a row
+ * - values holds the elements themselves
+ *
+ * transposed() returns a view that reads the same arrays as compressed sparse
+ * column (CSC) form, so transposing is free. Like TransposedMatrix the view
+ * shares storage with this matrix, so there are side effects to modifying
+ * either object
+ */
+public class SparseMatrix implements Matrix {
+
+	/* ================================= Fields ================================= */
+	private final int rows;
+	private final int columns;
+	private final Storage storage;
+	private final boolean compressedRows;
+	private SparseMatrix transposedView;
+
+	/* Products with fewer nonzeros than this per thread stay on one thread */
+	static final int PARALLEL_GRAIN = 1 << 15;
+	private int[] partitionCache;
+	private int[] partitionsFor;
+
+	/*
+	 * The arrays are shared between a matrix and its transposed view, and set()
+	 * may have to grow them, so both views hold on to this object rather than the
+	 * arrays themselves
+	 */
+	private static final class Storage {
+		int[] pointers;
+		int[] indices;
+		double[] values;
+
+		Storage(int[] pointers, int[] indices, double[] values) {
+			this.pointers = pointers;
+			this.indices = indices;
+			this.values = values;
+		}
+
+		int nonZeros() {
+			return pointers[pointers.length - 1];
+		}
+	}
+
+	/**
+	 * Receives the stored elements of a sparse matrix one at a time
+	 */
+	@FunctionalInterface
+	public interface NonZeroConsumer {
+		void accept(int row, int column, double value);
+	}
+
+	/* ================================= Helpers ================================ */
+	private boolean rowIndexIsValid(int rowIndex) {
+		return 0 <= rowIndex && rowIndex < rows;
+	}
+
+	private boolean columnIndexIsValid(int columnIndex) {
+		return 0 <= columnIndex && columnIndex < columns;
+	}
+
+	private int lines() {
+		return compressedRows ? rows : columns;
+	}
+
+	private int lineLength() {
+		return compressedRows ? columns : rows;
+	}
+
+	/*
+	 * Position of (row, column) in indices/values, or a negative number
+	 * (-(insertion point) - 1) if it is not stored
+	 */
+	private int find(int row, int column) {
+		int line = compressedRows ? row : column;
+		int index = compressedRows ? column : row;
+		return Arrays.binarySearch(storage.indices, storage.pointers[line], storage.pointers[line + 1], index);
+	}
+
+	/* ============================== Constructors ============================== */
+	/*
+	 * Constructor for the all zero matrix
+	 */
+	public SparseMatrix(int rows, int columns) {
+		this(rows, columns, new int[rows + 1], new int[0], new double[0]);
+	}
+
+	/**
+	 * Builds a matrix from CSR arrays. The arrays are used as they are, not
+	 * copied
+	 *
+	 * @param rowPointers   length rows + 1, starting at 0 and never decreasing
+	 * @param columnIndices column of each element, strictly increasing within a
+	 *                      row
+	 * @param values        the elements, in the same order as columnIndices
+	 */
+	public SparseMatrix(int rows, int columns, int[] rowPointers, int[] columnIndices, double[] values) {
+		if (rows <= 0 || columns <= 0)
+			throw new IllegalArgumentException("Can not have dimension=0");
+		validate(rows, columns, rowPointers, columnIndices, values);
+
+		this.rows = rows;
+		this.columns = columns;
+		this.storage = new Storage(rowPointers, columnIndices, values);
+		this.compressedRows = true;
+	}
+
+	private SparseMatrix(int rows, int columns, Storage storage, boolean compressedRows) {
+		this.rows = rows;
+		this.columns = columns;
+		this.storage = storage;
+		this.compressedRows = compressedRows;
+	}
+
+	private static void validate(int lines, int lineLength, int[] pointers, int[] indices, double[] values) {
+		if (pointers.length != lines + 1 || pointers[0] != 0)
+			throw new IllegalArgumentException("Pointers must have one entry per line plus one, starting at 0");
+
+		int nonZeros = pointers[lines];
+		if (nonZeros > indices.length || nonZeros > values.length)
+			throw new IllegalArgumentException("Pointers refer past the end of the index or value array");
+
+		for (int line = 0; line < lines; line++) {
+			if (pointers[line + 1] < pointers[line])
+				throw new IllegalArgumentException("Pointers must never decrease");
+			for (int k = pointers[line]; k < pointers[line + 1]; k++) {
+				if (indices[k] < 0 || indices[k] >= lineLength)
+					throw new IllegalArgumentException("Index out of range");
+				if (k > pointers[line] && indices[k] <= indices[k - 1])
+					throw new IllegalArgumentException("Indices must be strictly increasing within a line");
+			}
+		}
+	}
+
+	/* ================================ Builders ================================ */
+	/**
+	 * Copies the nonzero elements of any matrix into a new sparse matrix
+	 */
+	public static SparseMatrix fromDense(Matrix matrix) {
+		int rows = matrix.rows();
+		int columns = matrix.columns();
+
+		double[] data = null;
+		int offset = 0, stride = 0;
+		if (matrix instanceof OriginalMatrix dense) {
+			data = dense.getBackingArray();
+			offset = dense.getOffset();
+			stride = dense.getStride();
+		}
+
+		// First pass counts the nonzeros in each row, second pass fills them in
+		int[] rowPointers = new int[rows + 1];
+		for (int i = 0; i < rows; i++) {
+			int count = 0;
+			for (int j = 0; j < columns; j++) {
+				double value = data != null ? data[offset + i * stride + j] : matrix.get(i, j);
+				if (value != 0)
+					count++;
+			}
+			rowPointers[i + 1] = rowPointers[i] + count;
+		}
+
+		int[] columnIndices = new int[rowPointers[rows]];
+		double[] values = new double[rowPointers[rows]];
+		int k = 0;
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				double value = data != null ? data[offset + i * stride + j] : matrix.get(i, j);
+				if (value != 0) {
+					columnIndices[k] = j;
+					values[k++] = value;
+				}
+			}
+		}
+		return new SparseMatrix(rows, columns, new Storage(rowPointers, columnIndices, values), true);
+	}
+
+	/**
+	 * Builds a matrix from (row, column, value) triplets. Elements given more
+	 * than once are summed. Only the first count entries of the arrays are read.
+	 * To collect the triplets from several threads, use SparseMatrixBuilder
+	 */
+	public static SparseMatrix fromTriplets(int rows, int columns, int[] rowIndices, int[] columnIndices,
+			double[] values, int count) {
+		if (rows <= 0 || columns <= 0)
+			throw new IllegalArgumentException("Can not have dimension=0");
+		if (count > rowIndices.length || count > columnIndices.length || count > values.length)
+			throw new IllegalArgumentException("Count is larger than the triplet arrays");
+
+		SparseMatrixBuilder.Chunk triplets = new SparseMatrixBuilder.Chunk(rowIndices, columnIndices, values, count);
+		return SparseMatrixBuilder.assemble(rows, columns, List.of(triplets));
+	}
+
+	/*
+	 * Wraps CSR arrays that are already known to be valid, skipping the checks
+	 */
+	static SparseMatrix wrap(int rows, int columns, int[] rowPointers, int[] columnIndices, double[] values) {
+		return new SparseMatrix(rows, columns, new Storage(rowPointers, columnIndices, values), true);
+	}
+
+	/*
+	 * Insertion sort for short lines, which is the common case, and a sort of
+	 * packed (index, position) keys for long ones
+	 */
+	static void sortByIndex(int[] indices, double[] values, int from, int to) {
+		int length = to - from;
+		if (length < 32) {
+			for (int k = from + 1; k < to; k++) {
+				int index = indices[k];
+				double value = values[k];
+				int m = k - 1;
+				while (m >= from && indices[m] > index) {
+					indices[m + 1] = indices[m];
+					values[m + 1] = values[m];
+					m--;
+				}
+				indices[m + 1] = index;
+				values[m + 1] = value;
+			}
+			return;
+		}
+
+		long[] keys = new long[length];
+		for (int k = 0; k < length; k++) {
+			keys[k] = ((long) indices[from + k] << 32) | k;
+		}
+		Arrays.sort(keys);
+		double[] sortedValues = new double[length];
+		for (int k = 0; k < length; k++) {
+			indices[from + k] = (int) (keys[k] >>> 32);
+			sortedValues[k] = values[from + (int) keys[k]];
+		}
+		System.arraycopy(sortedValues, 0, values, from, length);
+	}
+
+	public OriginalMatrix toDense() {
+		OriginalMatrix dense = new OriginalMatrix(rows, columns);
+		forEachNonZero(dense::set);
+		return dense;
+	}
+
+	/*
+	 * Returns this matrix if it already is in CSR form, otherwise a CSR copy
+	 */
+	public SparseMatrix toCompressedRows() {
+		if (compressedRows)
+			return this;
+		return new SparseMatrix(rows, columns, transposeStorage(storage, columns, rows), true);
+	}
+
+	/*
+	 * Turns CSR arrays into CSC arrays (or the other way around) with one counting
+	 * pass, so the result comes out sorted without any comparisons
+	 */
+	private static Storage transposeStorage(Storage source, int lines, int lineLength) {
+		int nonZeros = source.nonZeros();
+		int[] pointers = new int[lineLength + 1];
+		for (int k = 0; k < nonZeros; k++) {
+			pointers[source.indices[k] + 1]++;
+		}
+		for (int i = 0; i < lineLength; i++) {
+			pointers[i + 1] += pointers[i];
+		}
+
+		int[] next = Arrays.copyOf(pointers, lineLength);
+		int[] indices = new int[nonZeros];
+		double[] values = new double[nonZeros];
+		for (int line = 0; line < lines; line++) {
+			for (int k = source.pointers[line]; k < source.pointers[line + 1]; k++) {
+				int position = next[source.indices[k]]++;
+				indices[position] = line;
+				values[position] = source.values[k];
+			}
+		}
+		return new Storage(pointers, indices, values);
+	}
+
+	/* ================================= Methods ================================ */
+	/*
+	 * Overwriting a stored element is O(log n). Adding a new nonzero has to shift
+	 * the arrays, so building a matrix element by element should use
+	 * fromTriplets or SparseMatrixBuilder instead
+	 */
+	@Override
+	public void set(int row, int column, double value) {
+		if (!(rowIndexIsValid(row) && columnIndexIsValid(column)))
+			throw new IllegalArgumentException("Illegal indicies");
+
+		int position = find(row, column);
+		if (position >= 0) {
+			storage.values[position] = value;
+			return;
+		}
+		if (value == 0)
+			return;
+
+		position = -position - 1;
+		int nonZeros = storage.nonZeros();
+		if (nonZeros == storage.indices.length) {
+			int capacity = Math.max(8, nonZeros + (nonZeros >> 1));
+			storage.indices = Arrays.copyOf(storage.indices, capacity);
+			storage.values = Arrays.copyOf(storage.values, capacity);
+		}
+		System.arraycopy(storage.indices, position, storage.indices, position + 1, nonZeros - position);
+		System.arraycopy(storage.values, position, storage.values, position + 1, nonZeros - position);
+		storage.indices[position] = compressedRows ? column : row;
+		storage.values[position] = value;
+
+		int line = compressedRows ? row : column;
+		for (int l = line + 1; l < storage.pointers.length; l++) {
+			storage.pointers[l]++;
+		}
+	}
+
+	@Override
+	public MyVector multiply(MyVector vector) {
+		if (vector.size() != columns)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+
+		MyVector result = new MyVector(rows);
+		multiplyInto(vector, result);
+		return result;
+	}
+
+	/*
+	 * In CSR form large products are split between threads. The rows are cut so
+	 * every task gets about the same number of nonzeros rather than the same
+	 * number of rows, so a few very dense rows do not leave one thread doing all
+	 * the work. Every row is still summed by a single thread in the same order,
+	 * so the result does not depend on the number of threads
+	 * 
+	 * The CSC view scatters into the result, which can't be split by rows, so it
+	 * runs on the calling thread. Use toCompressedRows() to get the parallel
+	 * version
+	 */
+	@Override
+	public void multiplyInto(MyVector vector, MyVector result) {
+		if (vector.size() != columns)
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+		if (result.size() != rows)
+			throw new IllegalArgumentException("Result vector has wrong dimensions");
+		if (result == vector)
+			throw new IllegalArgumentException("Result can not be the vector being multiplied");
+
+		double[] x = vector.backingArray();
+		double[] y = result.backingArray();
+
+		if (!compressedRows) {
+			multiplyColumns(x, y);
+			return;
+		}
+
+		int[] partitions = rowPartitions();
+		if (partitions.length <= 2) {
+			multiplyRows(x, y, 0, rows);
+			return;
+		}
+		IntStream.range(0, partitions.length - 1).parallel()
+				.forEach(p -> multiplyRows(x, y, partitions[p], partitions[p + 1]));
+	}
+
+	private void multiplyRows(double[] x, double[] y, int fromRow, int toRow) {
+		int[] pointers = storage.pointers;
+		int[] indices = storage.indices;
+		double[] values = storage.values;
+
+		// One sparse dot product per row
+		for (int i = fromRow; i < toRow; i++) {
+			double sum = 0;
+			for (int k = pointers[i]; k < pointers[i + 1]; k++) {
+				sum += values[k] * x[indices[k]];
+			}
+			y[i] = sum;
+		}
+	}
+
+	private void multiplyColumns(double[] x, double[] y) {
+		int[] pointers = storage.pointers;
+		int[] indices = storage.indices;
+		double[] values = storage.values;
+
+		// Each stored column is scaled by its element of x and scattered into the
+		// result
+		Arrays.fill(y, 0);
+		for (int j = 0; j < columns; j++) {
+			double xj = x[j];
+			for (int k = pointers[j]; k < pointers[j + 1]; k++) {
+				y[indices[k]] += values[k] * xj;
+			}
+		}
+	}
+
+	/*
+	 * Row boundaries that split the nonzeros into roughly equal parts. Cached
+	 * per pointer array. set() updates the pointers in place, which can leave
+	 * the cached split less balanced but never wrong, since it still covers
+	 * every row exactly once
+	 */
+	private int[] rowPartitions() {
+		int[] pointers = storage.pointers;
+		if (partitionsFor == pointers && partitionCache != null)
+			return partitionCache;
+
+		int nonZeros = storage.nonZeros();
+		int parts = (int) Math.min(rows, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L,
+				nonZeros / PARALLEL_GRAIN));
+		if (parts <= 1) {
+			partitionCache = new int[] { 0, rows };
+		} else {
+			int[] boundaries = new int[parts + 1];
+			boundaries[parts] = rows;
+			for (int p = 1; p < parts; p++) {
+				long target = (long) nonZeros * p / parts;
+				// First row that starts at or after the target nonzero
+				int row = Arrays.binarySearch(pointers, 0, rows + 1, (int) target);
+				if (row < 0)
+					row = -row - 1;
+				else
+					while (row > 0 && pointers[row - 1] == target)
+						row--;
+				boundaries[p] = Math.max(boundaries[p - 1], Math.min(row, rows));
+			}
+			partitionCache = boundaries;
+		}
+		partitionsFor = pointers;
+		return partitionCache;
+	}
+
+	@Override
+	public Matrix transposed() {
+		if (transposedView == null) {
+			transposedView = new SparseMatrix(columns, rows, storage, !compressedRows);
+			transposedView.transposedView = this;
+		}
+		return transposedView;
+	}
+
+	@Override
+	public void scale(double c) {
+		double[] values = storage.values;
+		int nonZeros = storage.nonZeros();
+		for (int k = 0; k < nonZeros; k++) {
+			values[k] *= c;
+		}
+	}
+
+	@Override
+	public void add(Matrix m) {
+		if (!(rows == m.rows() && columns == m.columns()))
+			throw new IllegalArgumentException("Can not add matricies of different dimensions");
+
+		accumulate(m, 1);
+	}
+
+	@Override
+	public void subtract(Matrix m) {
+		if (!(rows == m.rows() && columns == m.columns()))
+			throw new IllegalArgumentException("Can not subtract matricies of different dimensions");
+
+		accumulate(m, -1);
+	}
+
+	/*
+	 * Merges the other matrix into this one line by line. A sparse argument is
+	 * first brought into the same orientation, and then the two sorted index
+	 * lists of every line are merged, so this is O(nonzeros of both). A dense
+	 * argument has to be read in full, so that is O(rows * columns). Elements
+	 * that cancel to exactly zero are dropped
+	 */
+	private void accumulate(Matrix m, double sign) {
+		int lines = lines();
+		int lineLength = lineLength();
+		Storage other = null;
+		if (m instanceof SparseMatrix sparse) {
+			other = sparse.compressedRows == compressedRows ? sparse.storage
+					: transposeStorage(sparse.storage, sparse.lines(), sparse.lineLength());
+		}
+
+		int[] ownPointers = storage.pointers;
+		int[] ownIndices = storage.indices;
+		double[] ownValues = storage.values;
+		int capacity = other != null ? storage.nonZeros() + other.nonZeros() : Math.max(16, storage.nonZeros());
+		int[] pointers = new int[lines + 1];
+		int[] indices = new int[capacity];
+		double[] values = new double[capacity];
+		int count = 0;
+
+		for (int line = 0; line < lines; line++) {
+			int k = ownPointers[line];
+			int end = ownPointers[line + 1];
+
+			if (other != null) {
+				int l = other.pointers[line];
+				int otherEnd = other.pointers[line + 1];
+				while (k < end || l < otherEnd) {
+					int index;
+					double value;
+					if (l == otherEnd || (k < end && ownIndices[k] < other.indices[l])) {
+						index = ownIndices[k];
+						value = ownValues[k++];
+					} else if (k == end || other.indices[l] < ownIndices[k]) {
+						index = other.indices[l];
+						value = sign * other.values[l++];
+					} else {
+						index = ownIndices[k];
+						value = ownValues[k++] + sign * other.values[l++];
+					}
+					if (value != 0) {
+						indices[count] = index;
+						values[count++] = value;
+					}
+				}
+			} else {
+				for (int index = 0; index < lineLength; index++) {
+					double value = sign * (compressedRows ? m.get(line, index) : m.get(index, line));
+					if (k < end && ownIndices[k] == index)
+						value += ownValues[k++];
+					if (value == 0)
+						continue;
+					if (count == indices.length) {
+						indices = Arrays.copyOf(indices, 2 * count);
+						values = Arrays.copyOf(values, 2 * count);
+					}
+					indices[count] = index;
+					values[count++] = value;
+				}
+			}
+			pointers[line + 1] = count;
+		}
+
+		storage.pointers = pointers;
+		storage.indices = count == indices.length ? indices : Arrays.copyOf(indices, count);
+		storage.values = count == values.length ? values : Arrays.copyOf(values, count);
+	}
+
+	/* ============================ Nonzero iteration =========================== */
+	/**
+	 * Visits every stored element, in storage order
+	 */
+	public void forEachNonZero(NonZeroConsumer consumer) {
+		for (int line = 0; line < lines(); line++) {
+			forEachInLine(line, consumer);
+		}
+	}
+
+	/**
+	 * Visits the stored elements of one row in order of column. O(nonzeros in the
+	 * row) in CSR form
+	 */
+	public void forEachNonZeroInRow(int row, NonZeroConsumer consumer) {
+		Objects.checkIndex(row, rows);
+		if (compressedRows) {
+			forEachInLine(row, consumer);
+			return;
+		}
+		for (int column = 0; column < columns; column++) {
+			int position = find(row, column);
+			if (position >= 0)
+				consumer.accept(row, column, storage.values[position]);
+		}
+	}
+
+	/**
+	 * Visits the stored elements of one column in order of row. O(nonzeros in
+	 * the column) in CSC form, which is what transposed() returns
+	 */
+	public void forEachNonZeroInColumn(int column, NonZeroConsumer consumer) {
+		Objects.checkIndex(column, columns);
+		if (!compressedRows) {
+			forEachInLine(column, consumer);
+			return;
+		}
+		for (int row = 0; row < rows; row++) {
+			int position = find(row, column);
+			if (position >= 0)
+				consumer.accept(row, column, storage.values[position]);
+		}
+	}
+
+	private void forEachInLine(int line, NonZeroConsumer consumer) {
+		int[] indices = storage.indices;
+		double[] values = storage.values;
+		for (int k = storage.pointers[line]; k < storage.pointers[line + 1]; k++) {
+			if (compressedRows)
+				consumer.accept(line, indices[k], values[k]);
+			else
+				consumer.accept(indices[k], line, values[k]);
+		}
+	}
+
+	/* ================================= Getters ================================ */
+	@Override
+	public int rows() {
+		return rows;
+	}
+
+	@Override
+	public int columns() {
+		return columns;
+	}
+
+	@Override
+	public double get(int row, int column) {
+		Objects.checkIndex(row, rows);
+		Objects.checkIndex(column, columns);
+		int position = find(row, column);
+		return position >= 0 ? storage.values[position] : 0;
+	}
+
+	public int nonZeros() {
+		return storage.nonZeros();
+	}
+
+	/*
+	 * True for CSR, false for a CSC view made by transposed()
+	 */
+	public boolean isCompressedRows() {
+		return compressedRows;
+	}
+
+	/*
+	 * The raw storage, for kernels that work on the compressed form directly. In
+	 * CSR form the lines are rows and the indices are columns, in CSC form it is
+	 * the other way around. No copies are made
+	 */
+	public int[] getPointers() {
+		return storage.pointers;
+	}
+
+	public int[] getIndices() {
+		return storage.indices;
+	}
+
+	public double[] getValues() {
+		return storage.values;
+	}
+
+	@Override
+	public List<MyVector> getRowVectors() {
+		double[][] rowContents = new double[rows][columns];
+		forEachNonZero((i, j, value) -> rowContents[i][j] = value);
+		List<MyVector> rowVectors = new ArrayList<>(rows);
+		for (double[] row : rowContents) {
+			rowVectors.add(MyVector.wrap(row));
+		}
+		return rowVectors;
+	}
+
+	@Override
+	public List<MyVector> getColumnVectors() {
+		double[][] columnContents = new double[columns][rows];
+		forEachNonZero((i, j, value) -> columnContents[j][i] = value);
+		List<MyVector> columnVectors = new ArrayList<>(columns);
+		for (double[] column : columnContents) {
+			columnVectors.add(MyVector.wrap(column));
+		}
+		return columnVectors;
+	}
+
+	/* ============================ Subspace getters ============================ */
+	/*
+	 * VectorSpace holds dense vectors, so the subspaces are dense, with one
+	 * vector of length rows (or columns) per basis vector. They are only meant
+	 * for matricies small enough for that. Columns and rows without any stored
+	 * elements are skipped, since they add nothing to the span
+	 */
+	@Override
+	public VectorSpace col() {
+		return new VectorSpace(nonEmptyLines(false));
+	}
+
+	@Override
+	public VectorSpace row() {
+		return new VectorSpace(nonEmptyLines(true));
+	}
+
+	@Override
+	public VectorSpace ker() {
+		return new FundamentalSubspaces(this).kernel();
+	}
+
+	@Override
+	public VectorSpace coker() {
+		return new FundamentalSubspaces(this).cokernel();
+	}
+
+	/*
+	 * The rows, or the columns, that have at least one stored element, as dense
+	 * vectors. A single zero vector if there are none
+	 */
+	private List<MyVector> nonEmptyLines(boolean wantRows) {
+		int count = wantRows ? rows : columns;
+		int length = wantRows ? columns : rows;
+		int[] position = new int[count];
+		Arrays.fill(position, -1);
+		List<double[]> contents = new ArrayList<>();
+		forEachNonZero((i, j, value) -> {
+			int line = wantRows ? i : j;
+			if (position[line] < 0) {
+				position[line] = contents.size();
+				contents.add(new double[length]);
+			}
+			contents.get(position[line])[wantRows ? j : i] = value;
+		});
+		if (contents.isEmpty())
+			// The zero matrix still has subspaces of the right dimension
+			contents.add(new double[length]);
+
+		List<MyVector> vectors = new ArrayList<>(contents.size());
+		for (double[] line : contents) {
+			vectors.add(MyVector.wrap(line));
+		}
+		return vectors;
+	}
+
+	/* ================================== Other ================================= */
+	@Override
+	public String toString() {
+		return toDense().toString();
+	}
+}
@@ -0,0 +1,236 @@
+package representations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Collects (row, column, value) triplets and turns them into a SparseMatrix
+ *
+ * add() can be called from many threads at once. Every thread writes into its
+ * own fixed-size chunks, so adding never takes a lock or copies earlier
+ * triplets. Elements added more than once are summed when the matrix is built.
+ *
+ * build() reads every triplet added before it was called, so all adding
+ * threads must be done (for example joined) first. It sorts the triplets with
+ * a parallel counting pass by row and then sorts and merges each row in
+ * parallel, so it is O(nonzeros) apart from the sorting within rows
+ */
+public class SparseMatrixBuilder {
+
+	/* ================================= Fields ================================= */
+	static final int CHUNK_SIZE = 1 << 14;
+
+	/* Fewer triplets than this per partition is not worth a separate task */
+	private static final int MIN_PARTITION_SIZE = 1 << 16;
+
+	private final int rows;
+	private final int columns;
+	private final ConcurrentLinkedQueue<Chunk> chunks = new ConcurrentLinkedQueue<>();
+	private final ThreadLocal<Chunk> currentChunk = new ThreadLocal<>();
+
+	/*
+	 * A block of triplets written by a single thread
+	 */
+	static final class Chunk {
+		final int[] rows;
+		final int[] columns;
+		final double[] values;
+		int count;
+
+		Chunk(int capacity) {
+			this(new int[capacity], new int[capacity], new double[capacity], 0);
+		}
+
+		Chunk(int[] rows, int[] columns, double[] values, int count) {
+			this.rows = rows;
+			this.columns = columns;
+			this.values = values;
+			this.count = count;
+		}
+	}
+
+	@FunctionalInterface
+	private interface TripletVisitor {
+		void visit(int row, int column, double value);
+	}
+
+	/* ============================== Constructors ============================== */
+	public SparseMatrixBuilder(int rows, int columns) {
+		if (rows <= 0 || columns <= 0)
+			throw new IllegalArgumentException("Can not have dimension=0");
+		this.rows = rows;
+		this.columns = columns;
+	}
+
+	/* ================================= Methods ================================ */
+	/**
+	 * Adds value to element (row, column). Safe to call from several threads at
+	 * once
+	 */
+	public void add(int row, int column, double value) {
+		if (row < 0 || row >= rows || column < 0 || column >= columns)
+			throw new IllegalArgumentException("Illegal indicies");
+
+		Chunk chunk = currentChunk.get();
+		if (chunk == null || chunk.count == CHUNK_SIZE) {
+			chunk = new Chunk(CHUNK_SIZE);
+			chunks.add(chunk);
+			currentChunk.set(chunk);
+		}
+		chunk.rows[chunk.count] = row;
+		chunk.columns[chunk.count] = column;
+		chunk.values[chunk.count] = value;
+		chunk.count++;
+	}
+
+	/**
+	 * Number of triplets added so far, counting duplicates
+	 */
+	public long size() {
+		long size = 0;
+		for (Chunk chunk : chunks) {
+			size += chunk.count;
+		}
+		return size;
+	}
+
+	public SparseMatrix build() {
+		return assemble(rows, columns, new ArrayList<>(chunks));
+	}
+
+	/* ================================ Assembly ================================ */
+	/*
+	 * The triplets are numbered in chunk order and cut into equal contiguous
+	 * partitions, at most size / rows of them. Each partition counts its rows,
+	 * the counts give every (partition, row) pair its own slice of the output,
+	 * and then the partitions scatter into their slices without any
+	 * synchronization
+	 */
+	static SparseMatrix assemble(int rows, int columns, List<Chunk> chunks) {
+		long[] chunkStarts = new long[chunks.size() + 1];
+		for (int c = 0; c < chunks.size(); c++) {
+			chunkStarts[c + 1] = chunkStarts[c] + chunks.get(c).count;
+		}
+		long total = chunkStarts[chunks.size()];
+		if (total > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Too many triplets for one sparse matrix");
+		int size = (int) total;
+
+		int partitions = partitions(size, rows);
+
+		// Pass 1: count the triplets of each row within each partition
+		int[][] offsets = new int[partitions][];
+		IntStream.range(0, partitions).parallel().forEach(p -> {
+			int[] counts = new int[rows];
+			visit(chunks, chunkStarts, partitionStart(p, partitions, size), partitionStart(p + 1, partitions, size),
+					(row, column, value) -> {
+						if (row < 0 || row >= rows || column < 0 || column >= columns)
+							throw new IllegalArgumentException("Illegal indicies");
+						counts[row]++;
+					});
+			offsets[p] = counts;
+		});
+
+		// Row i holds the triplets of partition 0, then partition 1 and so on
+		int[] rowPointers = new int[rows + 1];
+		for (int i = 0; i < rows; i++) {
+			int count = 0;
+			for (int p = 0; p < partitions; p++) {
+				count += offsets[p][i];
+			}
+			rowPointers[i + 1] = rowPointers[i] + count;
+		}
+		IntStream.range(0, rows).parallel().forEach(i -> {
+			int running = rowPointers[i];
+			for (int p = 0; p < partitions; p++) {
+				int count = offsets[p][i];
+				offsets[p][i] = running;
+				running += count;
+			}
+		});
+
+		// Pass 2: scatter every triplet into its slot
+		int[] groupedColumns = new int[size];
+		double[] groupedValues = new double[size];
+		IntStream.range(0, partitions).parallel().forEach(p -> {
+			int[] next = offsets[p];
+			visit(chunks, chunkStarts, partitionStart(p, partitions, size), partitionStart(p + 1, partitions, size),
+					(row, column, value) -> {
+						int position = next[row]++;
+						groupedColumns[position] = column;
+						groupedValues[position] = value;
+					});
+		});
+
+		// Pass 3: sort each row by column and count the distinct columns
+		int[] distinct = new int[rows + 1];
+		IntStream.range(0, rows).parallel().forEach(i -> {
+			int from = rowPointers[i];
+			int to = rowPointers[i + 1];
+			SparseMatrix.sortByIndex(groupedColumns, groupedValues, from, to);
+			int count = 0;
+			for (int k = from; k < to; k++) {
+				if (k == from || groupedColumns[k] != groupedColumns[k - 1])
+					count++;
+			}
+			distinct[i + 1] = count;
+		});
+		for (int i = 0; i < rows; i++) {
+			distinct[i + 1] += distinct[i];
+		}
+
+		// Pass 4: merge the duplicates into the final arrays
+		int[] columnIndices = new int[distinct[rows]];
+		double[] values = new double[distinct[rows]];
+		IntStream.range(0, rows).parallel().forEach(i -> {
+			int write = distinct[i] - 1;
+			for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+				if (k == rowPointers[i] || groupedColumns[k] != groupedColumns[k - 1]) {
+					write++;
+					columnIndices[write] = groupedColumns[k];
+					values[write] = groupedValues[k];
+				} else {
+					values[write] += groupedValues[k];
+				}
+			}
+		});
+
+		return SparseMatrix.wrap(rows, columns, distinct, columnIndices, values);
+	}
+
+	/* ================================= Helpers ================================ */
+	/*
+	 * Every partition counts into its own array of length rows, so with few
+	 * triplets per row the partitions are capped to keep those arrays no larger
+	 * than the triplets themselves
+	 */
+	static int partitions(int size, int rows) {
+		long limit = Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L, size / MIN_PARTITION_SIZE);
+		return (int) Math.max(1, Math.min(limit, size / rows));
+	}
+
+	private static long partitionStart(int partition, int partitions, int size) {
+		return (long) size * partition / partitions;
+	}
+
+	/*
+	 * Visits the triplets with global numbers in [from, to), in order
+	 */
+	private static void visit(List<Chunk> chunks, long[] chunkStarts, long from, long to, TripletVisitor visitor) {
+		int c = 0;
+		while (c < chunks.size() && chunkStarts[c + 1] <= from) {
+			c++;
+		}
+		for (; c < chunks.size() && chunkStarts[c] < to; c++) {
+			Chunk chunk = chunks.get(c);
+			int start = (int) Math.max(0, from - chunkStarts[c]);
+			int end = (int) Math.min(chunk.count, to - chunkStarts[c]);
+			for (int k = start; k < end; k++) {
+				visitor.visit(chunk.rows[k], chunk.columns[k], chunk.values[k]);
+			}
+		}
+	}
+}
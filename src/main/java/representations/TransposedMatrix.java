@@ -1,6 +1,9 @@
 package representations;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import functionality.VectorSpace;
 
@@ -9,6 +12,9 @@ import functionality.VectorSpace;
  * This is not a deep copy, so there are side effects to modifying either object
  */
 public class TransposedMatrix implements Matrix {
+	/* Elements of the result per task, and the smallest product worth splitting */
+	private static final int BLOCK_SIZE = 256;
+	private static final long PARALLEL_THRESHOLD = 1L << 18;
 
 	Matrix originalMatrix;
 
@@ -87,14 +93,12 @@ public class TransposedMatrix implements Matrix {
 
 	@Override
 	public VectorSpace ker() {
-		// TODO Auto-generated method stub
-		throw new UnsupportedOperationException("Unimplemented method 'ker'");
+		return originalMatrix.coker();
 	}
 
 	@Override
 	public VectorSpace coker() {
-		// TODO Auto-generated method stub
-		throw new UnsupportedOperationException("Unimplemented method 'coker'");
+		return originalMatrix.ker();
 	}
 
 	/* ================================== Other ================================= */
@@ -106,8 +110,68 @@ public class TransposedMatrix implements Matrix {
 
 	@Override
 	public MyVector multiply(MyVector vector) {
-		// TODO Auto-generated method stub
-		throw new UnsupportedOperationException("Unimplemented method 'multiply'");
+		if (vector.size() != columns())
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+
+		MyVector result = new MyVector(rows());
+		multiplyInto(vector, result);
+		return result;
+	}
+
+	/*
+	 * Element j of the result is column j of the original dotted with the
+	 * vector. For a dense original the result is cut into blocks of elements,
+	 * and each block runs down the rows of the original, so its memory is read
+	 * row by row instead of with a stride. Large products give the blocks to
+	 * different threads. Every element is still summed by one thread in the
+	 * same order, so the result does not depend on the number of threads
+	 */
+	@Override
+	public void multiplyInto(MyVector vector, MyVector result) {
+		if (vector.size() != columns())
+			throw new IllegalArgumentException("Vector has wrong dimensions");
+		if (result.size() != rows())
+			throw new IllegalArgumentException("Result vector has wrong dimensions");
+		if (result == vector)
+			throw new IllegalArgumentException("Result can not be the vector being multiplied");
+
+		double[] x = vector.backingArray();
+		double[] y = result.backingArray();
+
+		if (!(originalMatrix instanceof OriginalMatrix dense)) {
+			Arrays.fill(y, 0);
+			for (int i = 0; i < x.length; i++) {
+				for (int j = 0; j < y.length; j++) {
+					y[j] += originalMatrix.get(i, j) * x[i];
+				}
+			}
+			return;
+		}
+
+		int blocks = (y.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		long work = (long) x.length * y.length;
+		if (blocks == 1 || work < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+			multiplyColumns(dense, x, y, 0, y.length);
+			return;
+		}
+		IntStream.range(0, blocks).parallel().forEach(b -> multiplyColumns(dense, x, y, b * BLOCK_SIZE,
+				Math.min(y.length, (b + 1) * BLOCK_SIZE)));
+	}
+
+	private static void multiplyColumns(OriginalMatrix dense, double[] x, double[] y, int fromColumn,
+			int toColumn) {
+		double[] contents = dense.getBackingArray();
+		int offset = dense.getOffset();
+		int stride = dense.getStride();
+
+		Arrays.fill(y, fromColumn, toColumn, 0);
+		for (int i = 0; i < x.length; i++) {
+			double xi = x[i];
+			int rowStart = offset + i * stride;
+			for (int j = fromColumn; j < toColumn; j++) {
+				y[j] += contents[rowStart + j] * xi;
+			}
+		}
 	}
 
 }
@@ -8,6 +8,7 @@ import java.util.stream.Collectors;
 import representations.Matrix;
 import representations.MyVector;
 import representations.OriginalMatrix;
+import representations.SparseMatrix;
 
 /* ==================== AI GENERATED CLASS FOR DEBUGGING ==================== */
 
@@ -127,6 +128,21 @@ public class MatrixBank {
 		return new OriginalMatrix(contents);
 	}
 
+	/**
+	 * Returns a symmetric positive-definite matrix of the specified size
+	 * (a Hilbert matrix plus the identity).
+	 */
+	public static Matrix positiveDefinite(int size) {
+		double[][] contents = new double[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				contents[i][j] = 1.0 / (i + j + 1);
+			}
+			contents[i][i] += 1.0;
+		}
+		return new OriginalMatrix(contents);
+	}
+
 	/**
 	 * Returns a rectangular matrix with the specified dimensions.
 	 */
@@ -170,23 +186,26 @@ public class MatrixBank {
 
 	/**
 	 * Returns a sparse matrix with the specified dimensions.
+	 * Only the nonzero elements are stored, see SparseMatrix.
 	 */
 	public static Matrix sparse(int rows, int columns, double density) {
 		if (density < 0.0 || density > 1.0) {
 			throw new IllegalArgumentException("Density must be between 0.0 and 1.0");
 		}
 
-		double[][] contents = new double[rows][columns];
-		int nonZeroCount = (int) (rows * columns * density);
-		nonZeroCount = Math.max(1, nonZeroCount);
+		long requested = (long) (rows * (long) columns * density);
+		int nonZeroCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, requested));
 
+		int[] rowIndices = new int[nonZeroCount];
+		int[] columnIndices = new int[nonZeroCount];
+		double[] values = new double[nonZeroCount];
 		for (int k = 0; k < nonZeroCount; k++) {
-			int i = (int) (Math.random() * rows);
-			int j = (int) (Math.random() * columns);
-			contents[i][j] = Math.random() * 10 + 1;
+			rowIndices[k] = (int) (Math.random() * rows);
+			columnIndices[k] = (int) (Math.random() * columns);
+			values[k] = Math.random() * 10 + 1;
 		}
 
-		return new OriginalMatrix(contents);
+		return SparseMatrix.fromTriplets(rows, columns, rowIndices, columnIndices, values, nonZeroCount);
 	}
 
 	/**
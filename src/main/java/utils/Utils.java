@@ -2,6 +2,7 @@ package utils;
 
 public class Utils {
 	private static final double TOLERANCE = 1e-5;
+	private static final double RELATIVE_TOLERANCE = 1e-10;
 
 	public static boolean isZero(double value) {
 		return Math.abs(value) < TOLERANCE;
@@ -13,6 +14,23 @@ public class Utils {
 		return Math.abs(value) < specifiedTolerance;
 	}
 
+	/*
+	 * Whether what is left of a vector after removing its component in a space
+	 * is rounding noise compared to the length of the vector it came from. Only
+	 * relative, so scaling all the data does not change the answer
+	 */
+	public static boolean isNegligibleResidual(double residual, double originalLength) {
+		return residual <= RELATIVE_TOLERANCE * originalLength;
+	}
+
+	/*
+	 * Whether the value is rounding noise compared to the scale of the numbers
+	 * it was computed from. Unlike isZero this does not depend on the units
+	 */
+	public static boolean isNegligible(double value, double scale) {
+		return Math.abs(value) <= RELATIVE_TOLERANCE * scale;
+	}
+
 	public static boolean isOne(double value) {
 		return isZero(value - 1);
 	}
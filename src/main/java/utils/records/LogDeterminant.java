@@ -0,0 +1,13 @@
+package utils.records;
+
+/*
+ * A determinant stored as sign * exp(logAbsoluteValue), so that very large or
+ * very small determinants don't overflow or underflow. A singular matrix has
+ * sign 0 and logAbsoluteValue negative infinity
+ */
+public record LogDeterminant(double sign, double logAbsoluteValue) {
+
+	public double value() {
+		return sign == 0 ? 0 : sign * Math.exp(logAbsoluteValue);
+	}
+};
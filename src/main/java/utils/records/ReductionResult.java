@@ -4,6 +4,17 @@ import java.util.List;
 
 import representations.ElementaryMatrix;
 import representations.Matrix;
+import representations.OperationTape;
 
 public record ReductionResult(Matrix reducedMatrix, List<ElementaryMatrix> operations) {
+
+	/*
+	 * The operations as a tape that can be replayed onto vectors and matricies.
+	 * RowReducer always records on a tape
+	 */
+	public OperationTape tape() {
+		if (operations instanceof OperationTape tape)
+			return tape;
+		throw new IllegalStateException("Operations were not recorded on a tape");
+	}
 };
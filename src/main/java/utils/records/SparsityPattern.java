@@ -0,0 +1,12 @@
+package utils.records;
+
+/*
+ * Where the nonzero elements of a sparse matrix are, without their values.
+ * Stored as CSR row pointers and sorted column indices
+ */
+public record SparsityPattern(int rows, int columns, int[] rowPointers, int[] columnIndices) {
+
+	public int nonZeros() {
+		return rowPointers[rows];
+	}
+};
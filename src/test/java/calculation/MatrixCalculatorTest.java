@@ -1,12 +1,28 @@
 package calculation;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static utils.TestMatrices.assertMatrixEquals;
+import static utils.TestMatrices.randomMatrix;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.Before;
 import org.junit.Test;
 
+import functionality.LUDecomposition;
 import representations.Matrix;
+import representations.MyVector;
 import representations.OriginalMatrix;
+import representations.SparseMatrix;
+import representations.SparseMatrixBuilder;
 import utils.MatrixBank;
+import utils.records.LogDeterminant;
+import utils.records.SparsityPattern;
 
 public class MatrixCalculatorTest {
 
@@ -110,6 +126,48 @@ public class MatrixCalculatorTest {
 		calculator.determinant(m);
 	}
 
+	@Test
+	public void testDeterminantClosedFormsMatchElimination() {
+		for (int size = 1; size <= 4; size++) {
+			Matrix m = randomMatrix(size, size, 20 + size);
+			double expected = new LUDecomposition(m).determinant();
+			assertEquals(expected, calculator.determinant(m), 1e-12);
+		}
+	}
+
+	@Test
+	public void testDeterminantLarge() {
+		// Upper triangular with 2 on the diagonal, rows reversed: det = +-2^12
+		OriginalMatrix m = new OriginalMatrix(12, 12);
+		for (int i = 0; i < 12; i++) {
+			for (int j = i; j < 12; j++) {
+				m.set(11 - i, j, i == j ? 2 : 1);
+			}
+		}
+		// Reversing 12 rows is 6 swaps
+		assertEquals(4096, calculator.determinant(m), 1e-8);
+	}
+
+	@Test
+	public void testDeterminantSingular() {
+		assertEquals(0, calculator.determinant(MatrixBank.nonInvertible(6)), 1e-6);
+	}
+
+	@Test
+	public void testLogDeterminant() {
+		// det = 10^-400, which underflows a double
+		double[] diagonal = new double[200];
+		Arrays.fill(diagonal, 0.01);
+		diagonal[0] = -0.01;
+		LogDeterminant logDeterminant = calculator.logDeterminant(MatrixBank.diagonal(diagonal));
+
+		assertEquals(-1, logDeterminant.sign(), 0);
+		assertEquals(-400 * Math.log(10), logDeterminant.logAbsoluteValue(), 1e-9);
+
+		LogDeterminant small = calculator.logDeterminant(MatrixBank.getNamedMatrix("simple2x2"));
+		assertEquals(-2, small.value(), 1e-12);
+	}
+
 	@Test
 	public void testGetSubmatrix() {
 		Matrix original = new OriginalMatrix(new double[][] {
@@ -127,4 +185,190 @@ public class MatrixCalculatorTest {
 		assertEquals(9, sub.get(1, 1), 0.0001);
 	}
 
+	@Test
+	public void testMultiplyAcrossBlockBoundaries() {
+		// Sizes chosen so every level of blocking has a partial edge
+		Matrix a = randomMatrix(131, 263, 1);
+		Matrix b = randomMatrix(263, 7, 2);
+
+		assertMatrixEquals(naiveMultiply(a, b), calculator.multiply(a, b), 1e-9);
+	}
+
+	@Test
+	public void testMultiplyTransposedOperand() {
+		Matrix a = randomMatrix(9, 5, 3);
+		Matrix b = randomMatrix(9, 6, 4);
+
+		Matrix result = calculator.multiply(a.transposed(), b);
+
+		assertEquals(5, result.rows());
+		assertEquals(6, result.columns());
+		assertMatrixEquals(naiveMultiply(a.transposed(), b), result, 1e-9);
+	}
+
+	@Test
+	public void testMultiplyInto() {
+		Matrix a = new OriginalMatrix(new double[][] { { 1, 2 }, { 3, 4 } });
+		Matrix b = new OriginalMatrix(new double[][] { { 5, 6 }, { 7, 8 } });
+		OriginalMatrix result = new OriginalMatrix(new double[][] { { 100, 100 }, { 100, 100 } });
+
+		calculator.multiplyInto(a, b, result);
+		assertEquals(19, result.get(0, 0), 0.0001);
+		assertEquals(50, result.get(1, 1), 0.0001);
+
+		calculator.multiplyAddInto(a, b, result);
+		assertEquals(38, result.get(0, 0), 0.0001);
+		assertEquals(100, result.get(1, 1), 0.0001);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMultiplyIntoOperand() {
+		OriginalMatrix a = new OriginalMatrix(new double[][] { { 1, 2 }, { 3, 4 } });
+		calculator.multiplyInto(a, MatrixBank.identity(2), a);
+	}
+
+	@Test
+	public void testParallelMultiplyIsDeterministic() {
+		Matrix a = randomMatrix(300, 270, 5);
+		Matrix b = randomMatrix(270, 140, 6);
+		Matrix sequential = new MatrixCalculator(ForkJoinPool.commonPool(), Long.MAX_VALUE).multiply(a, b);
+
+		for (int threads : new int[] { 1, 3, 8 }) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				assertMatrixEquals(sequential, new MatrixCalculator(pool, 0).multiply(a, b), 0);
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			assertMatrixEquals(sequential, new MatrixCalculator(executor, 0).multiply(a, b), 0);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testParallelMultiplyTallSkinny() {
+		Matrix a = randomMatrix(5000, 3, 7);
+		Matrix b = randomMatrix(3, 2, 8);
+
+		assertMatrixEquals(naiveMultiply(a, b), new MatrixCalculator(ForkJoinPool.commonPool(), 0).multiply(a, b),
+				1e-12);
+	}
+
+	@Test
+	public void testMultiplySparseMatrices() {
+		SparseMatrix a = SparseMatrix.fromDense(new OriginalMatrix(new double[][] {
+				{ 1, 0, 2 },
+				{ 0, 0, 0 },
+				{ 0, 3, 0 } }));
+		SparseMatrix b = SparseMatrix.fromDense(new OriginalMatrix(new double[][] {
+				{ 0, 4 },
+				{ 5, 0 },
+				{ 6, 0 } }));
+
+		Matrix result = calculator.multiply(a, b);
+
+		assertTrue(result instanceof SparseMatrix);
+		assertEquals(3, ((SparseMatrix) result).nonZeros());
+		assertMatrixEquals(naiveMultiply(a, b), result, 1e-12);
+	}
+
+	@Test
+	public void testSparseProductReusesPattern() {
+		SparseMatrix a = randomSparse(120, 90, 0.05, 9);
+		SparseMatrix b = randomSparse(90, 110, 0.05, 10);
+		SparsityPattern pattern = calculator.symbolicProduct(a, b);
+
+		assertMatrixEquals(naiveMultiply(a, b), calculator.multiply(a, b, pattern), 1e-9);
+
+		// Same structure, new values
+		a.scale(2.0);
+		assertMatrixEquals(naiveMultiply(a, b), calculator.multiply(a, b, pattern), 1e-9);
+	}
+
+	@Test
+	public void testSparseProductWithTransposedView() {
+		SparseMatrix a = randomSparse(50, 40, 0.1, 12);
+
+		assertMatrixEquals(naiveMultiply(a.transposed(), a), calculator.multiply(a.transposed(), a), 1e-9);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSparseProductWithWrongPattern() {
+		SparseMatrix a = SparseMatrix.fromDense(MatrixBank.identity(2));
+		SparseMatrix b = SparseMatrix.fromDense(MatrixBank.ones(2, 2));
+		calculator.multiply(a, b, calculator.symbolicProduct(a, a));
+	}
+
+	@Test
+	public void testSmallProductMatchesBlockedBitForBit() {
+		// The whole product is packed, a single row of it takes the small path
+		Matrix a = randomMatrix(31, 600, 14);
+		Matrix b = randomMatrix(600, 31, 15);
+		Matrix whole = calculator.multiply(a, b);
+
+		OriginalMatrix row = new OriginalMatrix(1, 31);
+		calculator.multiplyInto(((OriginalMatrix) a).view(7, 0, 1, 600), b, row);
+		for (int j = 0; j < 31; j++) {
+			assertEquals(whole.get(7, j), row.get(0, j), 0);
+		}
+	}
+
+	@Test
+	public void testPowerBySquaring() {
+		Matrix m = randomMatrix(12, 12, 13);
+		Matrix expected = MatrixBank.identity(12);
+		for (int k = 0; k < 13; k++) {
+			expected = naiveMultiply(expected, m);
+		}
+		assertMatrixEquals(expected, calculator.power(m, 13), 1e-9);
+		assertMatrixEquals(MatrixBank.identity(12), calculator.power(m, 0), 0);
+		assertMatrixEquals(m, calculator.power(m, 1), 0);
+	}
+
+	@Test
+	public void testPowerTimesVector() {
+		// Fibonacci numbers: [1 1; 1 0]^n * (1, 0) = (F(n + 1), F(n))
+		Matrix fibonacci = new OriginalMatrix(new double[][] { { 1, 1 }, { 1, 0 } });
+		MyVector start = new MyVector(new double[] { 1, 0 });
+		assertEquals(55, calculator.power(fibonacci, 10, start).get(1), 0);
+		// Large enough to take the squaring path
+		assertEquals(832040, calculator.power(fibonacci, 30, start).get(1), 0);
+		assertEquals(832040, calculator.power(SparseMatrix.fromDense(fibonacci), 30, start).get(1), 0);
+		assertEquals(1, start.get(0), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativePower() {
+		calculator.power(MatrixBank.identity(2), -1);
+	}
+
+	/* ================================= Helpers ================================ */
+	private static SparseMatrix randomSparse(int rows, int columns, double density, long seed) {
+		Random random = new Random(seed);
+		SparseMatrixBuilder builder = new SparseMatrixBuilder(rows, columns);
+		for (int k = 0; k < rows * columns * density; k++) {
+			builder.add(random.nextInt(rows), random.nextInt(columns), random.nextDouble());
+		}
+		return builder.build();
+	}
+
+	private static Matrix naiveMultiply(Matrix a, Matrix b) {
+		OriginalMatrix result = new OriginalMatrix(a.rows(), b.columns());
+		for (int i = 0; i < a.rows(); i++) {
+			for (int j = 0; j < b.columns(); j++) {
+				double value = 0;
+				for (int k = 0; k < a.columns(); k++) {
+					value += a.get(i, k) * b.get(k, j);
+				}
+				result.set(i, j, value);
+			}
+		}
+		return result;
+	}
+
 }
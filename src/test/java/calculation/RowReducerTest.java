@@ -396,4 +396,23 @@ public class RowReducerTest {
 		Matrix product = calculator.multiply(inverse.get(), matrix);
 		assertTrue(Matrix.isIdentityMatrix(product));
 	}
+
+	@Test
+	public void testReduceScaledSingularMatrix() {
+		// All entries are far below the absolute tolerance, but the matrix still has rank 2
+		Matrix matrix = new OriginalMatrix(new double[][] {
+				{ 1e-8, 2e-8, 3e-8 },
+				{ 4e-8, 5e-8, 6e-8 },
+				{ 7e-8, 8e-8, 9e-8 }
+		});
+		Matrix reduced = rowReducer.reduce(matrix).reducedMatrix();
+
+		assertEquals(1.0, reduced.get(0, 0), 1e-10);
+		assertEquals(1.0, reduced.get(1, 1), 1e-10);
+		assertEquals(-1.0, reduced.get(0, 2), 1e-10);
+		assertEquals(2.0, reduced.get(1, 2), 1e-10);
+		for (int j = 0; j < 3; j++) {
+			assertEquals(0.0, reduced.get(2, j), 0);
+		}
+	}
 }
@@ -0,0 +1,103 @@
+package functionality;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import calculation.MatrixCalculator;
+import representations.Matrix;
+import representations.OriginalMatrix;
+import representations.SparseMatrix;
+import representations.SparseMatrixBuilder;
+
+public class ArnoldiEigenSolverTest {
+
+	private static final double DELTA = 1e-8;
+
+	private static SparseMatrix randomSparse(int size, int perRow, long seed) {
+		Random random = new Random(seed);
+		SparseMatrixBuilder builder = new SparseMatrixBuilder(size, size);
+		for (int i = 0; i < size; i++) {
+			for (int k = 0; k < perRow; k++) {
+				builder.add(i, random.nextInt(size), random.nextDouble());
+			}
+		}
+		return builder.build();
+	}
+
+	@Test
+	public void testMatchesDenseSolver() {
+		SparseMatrix matrix = randomSparse(300, 3, 1);
+		GeneralEigenDecomposition dense = new GeneralEigenDecomposition(matrix.toDense(), false);
+		double[] moduli = new double[300];
+		for (int i = 0; i < 300; i++) {
+			moduli[i] = Math.hypot(dense.getRealEigenvalues()[i], dense.getImaginaryEigenvalues()[i]);
+		}
+		Arrays.sort(moduli);
+
+		ArnoldiEigenSolver solver = new ArnoldiEigenSolver(matrix, 7);
+		double[] real = solver.getRealEigenvalues();
+		double[] imaginary = solver.getImaginaryEigenvalues();
+		assertTrue(solver.hasComplexEigenvalues());
+		for (int i = 0; i < real.length; i++) {
+			assertEquals(moduli[299 - i], Math.hypot(real[i], imaginary[i]), DELTA);
+		}
+	}
+
+	@Test
+	public void testAVIsVD() {
+		SparseMatrix matrix = randomSparse(400, 4, 2).toCompressedRows();
+		ArnoldiEigenSolver solver = new ArnoldiEigenSolver(matrix, 6);
+
+		MatrixCalculator calculator = new MatrixCalculator();
+		Matrix v = solver.getV();
+		Matrix av = calculator.multiply(matrix, v);
+		Matrix vd = calculator.multiply(v, solver.getD());
+		for (int i = 0; i < av.rows(); i++) {
+			for (int j = 0; j < av.columns(); j++) {
+				assertEquals(av.get(i, j), vd.get(i, j), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testMarkovMatrixHasEigenvalueOne() {
+		// Columns sum to one, so the dominant eigenvalue is 1
+		int size = 200;
+		Random random = new Random(3);
+		OriginalMatrix transition = new OriginalMatrix(size, size);
+		for (int j = 0; j < size; j++) {
+			double sum = 0;
+			for (int i = 0; i < size; i++) {
+				double value = random.nextDouble() < 0.05 ? random.nextDouble() : 0;
+				transition.set(i, j, value);
+				sum += value;
+			}
+			transition.set(j, j, transition.get(j, j) + 1);
+			sum += 1;
+			for (int i = 0; i < size; i++) {
+				transition.set(i, j, transition.get(i, j) / sum);
+			}
+		}
+
+		ArnoldiEigenSolver solver = new ArnoldiEigenSolver(transition, 1);
+		assertEquals(1, solver.getRealEigenvalues()[0], DELTA);
+		assertEquals(0, solver.getImaginaryEigenvalues()[0], DELTA);
+	}
+
+	@Test
+	public void testRotationKeepsPairTogether() {
+		Matrix rotation = new OriginalMatrix(new double[][] {
+				{ 0, -1, 0 },
+				{ 1, 0, 0 },
+				{ 0, 0, 0.5 } });
+		ArnoldiEigenSolver solver = new ArnoldiEigenSolver(rotation, 1);
+
+		assertEquals(2, solver.getRealEigenvalues().length);
+		assertEquals(1, solver.getImaginaryEigenvalues()[0], DELTA);
+		assertEquals(-1, solver.getImaginaryEigenvalues()[1], DELTA);
+	}
+}
@@ -0,0 +1,103 @@
+package functionality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import calculation.MatrixCalculator;
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+import utils.MatrixBank;
+
+public class CholeskyDecompositionTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testLTimesLTransposedIsA() {
+		// Larger than one block, so the trailing updates are exercised
+		Matrix a = MatrixBank.positiveDefinite(150);
+		CholeskyDecomposition cholesky = new CholeskyDecomposition(a);
+		assertTrue(cholesky.isPositiveDefinite());
+
+		Matrix l = cholesky.getL();
+		Matrix product = new MatrixCalculator().multiply(l, l.transposed());
+		for (int i = 0; i < 150; i++) {
+			for (int j = 0; j < 150; j++) {
+				assertEquals(a.get(i, j), product.get(i, j), DELTA);
+				if (j > i)
+					assertEquals(0, l.get(i, j), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testSolveVector() {
+		Matrix a = MatrixBank.positiveDefinite(70);
+		CholeskyDecomposition cholesky = new CholeskyDecomposition(a);
+
+		double[] contents = new double[70];
+		for (int i = 0; i < 70; i++) {
+			contents[i] = i - 20;
+		}
+		MyVector b = new MyVector(contents);
+		MyVector check = a.multiply(cholesky.solve(b));
+		for (int i = 0; i < 70; i++) {
+			assertEquals(b.get(i), check.get(i), DELTA);
+		}
+	}
+
+	@Test
+	public void testSolveManyRightHandSides() {
+		Matrix a = MatrixBank.positiveDefinite(6);
+		Matrix b = MatrixBank.rectangular(6, 3);
+		Matrix check = new MatrixCalculator().multiply(a, new CholeskyDecomposition(a).solve(b));
+
+		for (int i = 0; i < 6; i++) {
+			for (int j = 0; j < 3; j++) {
+				assertEquals(b.get(i, j), check.get(i, j), 1e-8);
+			}
+		}
+	}
+
+	@Test
+	public void testDeterminantMatchesLU() {
+		Matrix a = MatrixBank.positiveDefinite(8);
+		assertEquals(new LUDecomposition(a).determinant(), new CholeskyDecomposition(a).determinant(), 1e-9);
+		assertEquals(Math.log(new LUDecomposition(a).determinant()),
+				new CholeskyDecomposition(a).logDeterminant().logAbsoluteValue(), 1e-9);
+	}
+
+	@Test
+	public void testNotPositiveDefinite() {
+		// Symmetric but indefinite
+		assertFalse(new CholeskyDecomposition(new OriginalMatrix(new double[][] { { 1, 2 }, { 2, 1 } }))
+				.isPositiveDefinite());
+		// Not symmetric
+		assertFalse(new CholeskyDecomposition(MatrixBank.getNamedMatrix("magic3x3")).isPositiveDefinite());
+		assertFalse(new CholeskyDecomposition(MatrixBank.zeros(3, 3)).isPositiveDefinite());
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testSolveNotPositiveDefinite() {
+		new CholeskyDecomposition(new OriginalMatrix(new double[][] { { 1, 2 }, { 2, 1 } })).solve(new MyVector(2));
+	}
+
+	@Test
+	public void testSolverFallsBackToLU() {
+		LinearSystemsSolver solver = new LinearSystemsSolver();
+		Matrix indefinite = new OriginalMatrix(new double[][] { { 1, 2 }, { 2, 1 } });
+
+		MyVector x = solver.solve(indefinite, new MyVector(new double[] { 3, 3 })).get();
+		assertEquals(1, x.get(0), DELTA);
+		assertEquals(1, x.get(1), DELTA);
+
+		MyVector y = solver.solve(MatrixBank.positiveDefinite(4), new MyVector(new double[] { 1, 1, 1, 1 })).get();
+		MyVector check = MatrixBank.positiveDefinite(4).multiply(y);
+		for (int i = 0; i < 4; i++) {
+			assertEquals(1, check.get(i), DELTA);
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package functionality;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import calculation.VectorCalculator;
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+
+public class FundamentalSubspacesTest {
+
+	private static final double DELTA = 1e-9;
+
+	/*
+	 * A rows x columns matrix of the given rank, as a product of two random
+	 * factors
+	 */
+	private static OriginalMatrix matrixOfRank(int rows, int columns, int rank, long seed) {
+		Random random = new Random(seed);
+		double[][] left = new double[rows][rank];
+		double[][] right = new double[rank][columns];
+		for (double[] row : left)
+			for (int j = 0; j < rank; j++)
+				row[j] = random.nextInt(7) - 3;
+		for (double[] row : right)
+			for (int j = 0; j < columns; j++)
+				row[j] = random.nextInt(7) - 3;
+
+		double[][] product = new double[rows][columns];
+		for (int i = 0; i < rows; i++)
+			for (int k = 0; k < rank; k++)
+				for (int j = 0; j < columns; j++)
+					product[i][j] += left[i][k] * right[k][j];
+		return new OriginalMatrix(product);
+	}
+
+	/*
+	 * y^T * A, one inner product per column
+	 */
+	private static void assertOrthogonalToColumns(MyVector vector, Matrix matrix) {
+		for (MyVector column : matrix.getColumnVectors()) {
+			assertEquals(0, new VectorCalculator().innerProduct(vector, column), DELTA);
+		}
+	}
+
+	private static void assertZero(MyVector vector) {
+		for (int i = 0; i < vector.size(); i++) {
+			assertEquals(0, vector.get(i), DELTA);
+		}
+	}
+
+	@Test
+	public void testDimensionsAddUp() {
+		OriginalMatrix matrix = matrixOfRank(7, 9, 4, 1);
+		FundamentalSubspaces subspaces = new FundamentalSubspaces(matrix);
+
+		assertEquals(4, subspaces.rank());
+		assertEquals(4, subspaces.columnSpace().getDimension());
+		assertEquals(4, subspaces.rowSpace().getDimension());
+		assertEquals(9 - 4, subspaces.kernel().getDimension());
+		assertEquals(7 - 4, subspaces.cokernel().getDimension());
+	}
+
+	@Test
+	public void testKernelIsMappedToZero() {
+		OriginalMatrix matrix = matrixOfRank(6, 10, 3, 2);
+		for (MyVector vector : new FundamentalSubspaces(matrix).kernel().getBasisVectors()) {
+			assertZero(matrix.multiply(vector));
+		}
+	}
+
+	@Test
+	public void testCokernelIsOrthogonalToColumns() {
+		OriginalMatrix matrix = matrixOfRank(10, 6, 3, 3);
+		for (MyVector vector : new FundamentalSubspaces(matrix).cokernel().getBasisVectors()) {
+			assertOrthogonalToColumns(vector, matrix);
+		}
+	}
+
+	@Test
+	public void testSpacesMatchMatrix() {
+		OriginalMatrix matrix = matrixOfRank(5, 6, 2, 4);
+		FundamentalSubspaces subspaces = new FundamentalSubspaces(matrix);
+
+		assertTrue(allTrue(subspaces.columnSpace().contains(matrix)));
+		assertTrue(allTrue(subspaces.rowSpace().contains(matrix.transposed())));
+	}
+
+	@Test
+	public void testPivotColumns() {
+		OriginalMatrix matrix = new OriginalMatrix(new double[][] {
+				{ 1, 2, 0, 3 },
+				{ 2, 4, 1, 7 },
+				{ 1, 2, 1, 4 } });
+		FundamentalSubspaces subspaces = new FundamentalSubspaces(matrix);
+
+		assertArrayEquals(new int[] { 0, 2 }, subspaces.getPivotColumns());
+		assertEquals(2, subspaces.kernel().getDimension());
+		assertEquals(1, subspaces.cokernel().getDimension());
+	}
+
+	@Test
+	public void testFullRankHasTrivialKernel() {
+		OriginalMatrix matrix = matrixOfRank(4, 4, 4, 5);
+		FundamentalSubspaces subspaces = new FundamentalSubspaces(matrix);
+
+		assertEquals(0, subspaces.kernel().getDimension());
+		assertEquals(0, subspaces.cokernel().getDimension());
+		assertFalse(subspaces.kernel().contains(new MyVector(4)));
+	}
+
+	@Test
+	public void testChangingReturnedSpacesChangesNothingElse() {
+		OriginalMatrix matrix = matrixOfRank(3, 3, 2, 6);
+		VectorSpace kernel = matrix.ker();
+		assertEquals(1, kernel.getDimension());
+		kernel.add(new MyVector(new double[] { 1, 0, 0 }));
+		kernel.add(new MyVector(new double[] { 0, 1, 0 }));
+		kernel.getBasisVectors().get(0).scale(0);
+		assertEquals(1, matrix.ker().getDimension());
+
+		matrix.col().add(new MyVector(new double[] { 0, 0, 1 }));
+		matrix.col().add(new MyVector(new double[] { 0, 1, 0 }));
+		assertEquals(2, matrix.col().getDimension());
+
+		FundamentalSubspaces subspaces = new FundamentalSubspaces(matrix);
+		assertNotSame(subspaces.rowSpace(), subspaces.rowSpace());
+		subspaces.cokernel().add(new MyVector(new double[] { 1, 1, 1 }));
+		assertEquals(1, subspaces.cokernel().getDimension());
+	}
+
+	@Test
+	public void testMatrixChangesAreSeen() {
+		OriginalMatrix matrix = matrixOfRank(5, 5, 3, 6);
+		FundamentalSubspaces before = new FundamentalSubspaces(matrix);
+		assertEquals(2, matrix.coker().getDimension());
+
+		// Writing through the backing array has to be reported, and subspaces
+		// computed before still describe the old contents
+		matrix.getBackingArray()[0] += 1000;
+		matrix.markChanged();
+		assertEquals(4, matrix.col().getDimension());
+		assertEquals(1, matrix.ker().getDimension());
+		assertEquals(3, before.columnSpace().getDimension());
+		assertFalse(before.columnSpace().contains(matrix.getColumnVectors().get(0)));
+	}
+
+	@Test
+	public void testSetDropsCachedReduction() {
+		OriginalMatrix matrix = matrixOfRank(4, 4, 2, 8);
+		assertEquals(2, matrix.ker().getDimension());
+		assertNotSame(matrix.ker(), matrix.ker());
+		assertEquals(2, matrix.coker().getDimension());
+
+		matrix.set(0, 0, matrix.get(0, 0) + 1000);
+		assertEquals(1, matrix.ker().getDimension());
+		assertEquals(1, matrix.coker().getDimension());
+		matrix.scale(0);
+		assertEquals(4, matrix.ker().getDimension());
+	}
+
+	@Test
+	public void testTransposedSwapsKernelAndCokernel() {
+		OriginalMatrix matrix = matrixOfRank(4, 7, 2, 7);
+		Matrix transposed = matrix.transposed();
+
+		assertEquals(2, transposed.ker().getDimension());
+		assertEquals(5, transposed.coker().getDimension());
+		for (MyVector vector : transposed.ker().getBasisVectors()) {
+			assertOrthogonalToColumns(vector, matrix);
+		}
+		for (MyVector vector : transposed.coker().getBasisVectors()) {
+			assertZero(matrix.multiply(vector));
+		}
+	}
+
+	@Test
+	public void testOrthogonalComplement() {
+		VectorSpace space = new VectorSpace(new MyVector(new double[] { 1, 1, 0, 0 }),
+				new MyVector(new double[] { 0, 1, 1, 0 }));
+		VectorSpace complement = space.orthogonalComplement();
+
+		assertEquals(2, complement.getDimension());
+		Matrix spaceColumns = new OriginalMatrix(space.getBasisVectors(), true);
+		for (MyVector vector : complement.getBasisVectors()) {
+			assertOrthogonalToColumns(vector, spaceColumns);
+		}
+		assertTrue(complement.contains(new MyVector(new double[] { 0, 0, 0, 1 })));
+	}
+
+	private static boolean allTrue(boolean[] values) {
+		for (boolean value : values) {
+			if (!value)
+				return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,111 @@
+package functionality;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static utils.TestMatrices.assertMatrixEquals;
+import static utils.TestMatrices.randomMatrix;
+import org.junit.Test;
+
+import calculation.MatrixCalculator;
+import representations.Matrix;
+import representations.OriginalMatrix;
+
+public class GeneralEigenDecompositionTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testRotationHasComplexPair() {
+		Matrix rotation = new OriginalMatrix(new double[][] {
+				{ 0, -1 },
+				{ 1, 0 } });
+		GeneralEigenDecomposition decomposition = new GeneralEigenDecomposition(rotation, false);
+
+		assertTrue(decomposition.hasComplexEigenvalues());
+		assertArrayEquals(new double[] { 0, 0 }, decomposition.getRealEigenvalues(), DELTA);
+		assertArrayEquals(new double[] { 1, -1 }, decomposition.getImaginaryEigenvalues(), DELTA);
+	}
+
+	@Test
+	public void testTriangularMatrixHasDiagonalAsEigenvalues() {
+		Matrix matrix = new OriginalMatrix(new double[][] {
+				{ 1, 5, -2 },
+				{ 0, 3, 7 },
+				{ 0, 0, -4 } });
+		double[] eigenvalues = new GeneralEigenDecomposition(matrix, false).getRealEigenvalues();
+		Arrays.sort(eigenvalues);
+		assertArrayEquals(new double[] { -4, 1, 3 }, eigenvalues, DELTA);
+	}
+
+	@Test
+	public void testAVIsVD() {
+		// Random matricies have complex pairs as well as real eigenvalues
+		OriginalMatrix matrix = randomMatrix(50, 1);
+		GeneralEigenDecomposition decomposition = new GeneralEigenDecomposition(matrix);
+		assertTrue(decomposition.hasComplexEigenvalues());
+
+		MatrixCalculator calculator = new MatrixCalculator();
+		Matrix v = decomposition.getV();
+		assertMatrixEquals(calculator.multiply(v, decomposition.getD()), calculator.multiply(matrix, v), DELTA);
+	}
+
+	@Test
+	public void testEigenvaluesMatchWithAndWithoutVectors() {
+		OriginalMatrix matrix = randomMatrix(40, 2);
+		GeneralEigenDecomposition withVectors = new GeneralEigenDecomposition(matrix);
+		GeneralEigenDecomposition withoutVectors = new GeneralEigenDecomposition(matrix, false);
+
+		assertArrayEquals(withVectors.getRealEigenvalues(), withoutVectors.getRealEigenvalues(), DELTA);
+		assertArrayEquals(withVectors.getImaginaryEigenvalues(), withoutVectors.getImaginaryEigenvalues(), DELTA);
+	}
+
+	@Test
+	public void testTraceAndDeterminant() {
+		Matrix matrix = new OriginalMatrix(new double[][] {
+				{ 4, 1, 2 },
+				{ -1, 3, 0 },
+				{ 2, 5, 1 } });
+		GeneralEigenDecomposition decomposition = new GeneralEigenDecomposition(matrix, false);
+		double[] real = decomposition.getRealEigenvalues();
+		double[] imaginary = decomposition.getImaginaryEigenvalues();
+
+		double trace = 0;
+		double productReal = 1;
+		double productImaginary = 0;
+		for (int i = 0; i < 3; i++) {
+			trace += real[i];
+			double newReal = productReal * real[i] - productImaginary * imaginary[i];
+			productImaginary = productReal * imaginary[i] + productImaginary * real[i];
+			productReal = newReal;
+		}
+		assertEquals(8, trace, DELTA);
+		assertEquals(new LUDecomposition(matrix).determinant(), productReal, DELTA);
+		assertEquals(0, productImaginary, DELTA);
+	}
+
+	@Test
+	public void testMarkovMatrixHasEigenvalueOne() {
+		// Columns sum to one
+		Matrix transition = new OriginalMatrix(new double[][] {
+				{ 0.9, 0.2, 0.1 },
+				{ 0.05, 0.7, 0.3 },
+				{ 0.05, 0.1, 0.6 } });
+		double[] eigenvalues = new GeneralEigenDecomposition(transition, false).getRealEigenvalues();
+		double largest = Arrays.stream(eigenvalues).max().getAsDouble();
+		assertEquals(1, largest, DELTA);
+	}
+
+	@Test
+	public void testMatrixEigenPicksSolver() {
+		Matrix symmetric = new OriginalMatrix(new double[][] {
+				{ 2, 1 },
+				{ 1, 2 } });
+		assertTrue(symmetric.eigen() instanceof SymmetricEigenDecomposition);
+		assertFalse(symmetric.eigen().hasComplexEigenvalues());
+		assertTrue(randomMatrix(5, 3).eigen() instanceof GeneralEigenDecomposition);
+	}
+}
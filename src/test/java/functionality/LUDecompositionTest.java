@@ -0,0 +1,115 @@
+package functionality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import calculation.MatrixCalculator;
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+import utils.MatrixBank;
+
+public class LUDecompositionTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testSolveVector() {
+		Matrix[] system = MatrixBank.linearSystem(6);
+		LUDecomposition lu = new LUDecomposition(system[0]);
+
+		MyVector b = system[1].getColumnVectors().get(0);
+		MyVector x = lu.solve(b);
+
+		// linearSystem uses x = (1, 2, ..., n)
+		for (int i = 0; i < 6; i++) {
+			assertEquals(i + 1, x.get(i), DELTA);
+		}
+	}
+
+	@Test
+	public void testSolveNeedsPivoting() {
+		// Zero in the top left corner, so elimination without pivoting breaks down
+		Matrix a = new OriginalMatrix(new double[][] { { 0, 2, 1 }, { 1, 1, 1 }, { 2, 1, 0 } });
+		LUDecomposition lu = new LUDecomposition(a);
+
+		MyVector x = lu.solve(new MyVector(new double[] { 3, 3, 3 }));
+
+		MyVector check = a.multiply(x);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(3, check.get(i), DELTA);
+		}
+	}
+
+	@Test
+	public void testSolveManyRightHandSides() {
+		Matrix a = MatrixBank.invertible(5);
+		Matrix b = MatrixBank.rectangular(5, 3);
+		LUDecomposition lu = new LUDecomposition(a);
+
+		Matrix x = lu.solve(b);
+		Matrix check = new MatrixCalculator().multiply(a, x);
+
+		for (int i = 0; i < 5; i++) {
+			for (int j = 0; j < 3; j++) {
+				assertEquals(b.get(i, j), check.get(i, j), 1e-8);
+			}
+		}
+	}
+
+	@Test
+	public void testLTimesUIsPermutedA() {
+		Matrix a = MatrixBank.getNamedMatrix("magic3x3");
+		LUDecomposition lu = new LUDecomposition(a);
+
+		Matrix product = new MatrixCalculator().multiply(lu.getL(), lu.getU());
+		int[] pivot = lu.getPivot();
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				assertEquals(a.get(pivot[i], j), product.get(i, j), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testPTimesAIsLTimesU() {
+		Matrix a = MatrixBank.invertible(5);
+		LUDecomposition lu = new LUDecomposition(a);
+		MatrixCalculator calculator = new MatrixCalculator();
+
+		Matrix left = calculator.multiply(lu.getP(), a);
+		Matrix right = calculator.multiply(lu.getL(), lu.getU());
+		for (int i = 0; i < 5; i++) {
+			for (int j = 0; j < 5; j++) {
+				assertEquals(left.get(i, j), right.get(i, j), 1e-8);
+			}
+		}
+	}
+
+	@Test
+	public void testDeterminant() {
+		assertEquals(-360, new LUDecomposition(MatrixBank.getNamedMatrix("magic3x3")).determinant(), 1e-8);
+		assertEquals(-2, new LUDecomposition(MatrixBank.getNamedMatrix("simple2x2")).determinant(), DELTA);
+	}
+
+	@Test
+	public void testSingular() {
+		LUDecomposition lu = new LUDecomposition(MatrixBank.getNamedMatrix("singular3x3"));
+
+		assertTrue(lu.isSingular());
+		assertEquals(0, lu.determinant(), DELTA);
+		assertFalse(new LUDecomposition(MatrixBank.identity(3)).isSingular());
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testSolveSingular() {
+		new LUDecomposition(MatrixBank.nonInvertible(4)).solve(new MyVector(4));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonSquare() {
+		new LUDecomposition(MatrixBank.rectangular(2, 3));
+	}
+}
@@ -0,0 +1,108 @@
+package functionality;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+import representations.SparseMatrix;
+import representations.SparseMatrixBuilder;
+
+public class LanczosEigenSolverTest {
+
+	private static final double DELTA = 1e-8;
+
+	private static SparseMatrix randomSymmetricSparse(int size, int perRow, long seed) {
+		Random random = new Random(seed);
+		SparseMatrixBuilder builder = new SparseMatrixBuilder(size, size);
+		for (int i = 0; i < size; i++) {
+			for (int k = 0; k < perRow; k++) {
+				int j = random.nextInt(size);
+				double value = random.nextDouble();
+				builder.add(i, j, value);
+				builder.add(j, i, value);
+			}
+		}
+		return builder.build();
+	}
+
+	private static double[] reversed(double[] values) {
+		double[] result = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			result[i] = values[values.length - 1 - i];
+		}
+		return result;
+	}
+
+	@Test
+	public void testLargestMatchDenseSolver() {
+		SparseMatrix matrix = randomSymmetricSparse(300, 3, 1);
+		double[] all = new SymmetricEigenDecomposition(matrix.toDense(), false).getEigenvalues();
+
+		LanczosEigenSolver solver = new LanczosEigenSolver(matrix, 6);
+		assertArrayEquals(reversed(Arrays.copyOfRange(all, 294, 300)), solver.getEigenvalues(), DELTA);
+	}
+
+	@Test
+	public void testSmallestMatchDenseSolver() {
+		SparseMatrix matrix = randomSymmetricSparse(300, 3, 2);
+		double[] all = new SymmetricEigenDecomposition(matrix.toDense(), false).getEigenvalues();
+
+		LanczosEigenSolver solver = new LanczosEigenSolver(matrix, 4, false);
+		assertArrayEquals(Arrays.copyOfRange(all, 0, 4), solver.getEigenvalues(), DELTA);
+	}
+
+	@Test
+	public void testEigenvectorsSatisfyDefinition() {
+		SparseMatrix matrix = randomSymmetricSparse(500, 4, 3).toCompressedRows();
+		LanczosEigenSolver solver = new LanczosEigenSolver(matrix, 5);
+		double[] eigenvalues = solver.getEigenvalues();
+
+		for (int i = 0; i < eigenvalues.length; i++) {
+			MyVector vector = solver.getEigenvector(i);
+			assertEquals(1, vector.length(), DELTA);
+			MyVector image = matrix.multiply(vector);
+			for (int k = 0; k < vector.size(); k++) {
+				assertEquals(eigenvalues[i] * vector.get(k), image.get(k), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testTransposedView() {
+		// A path graph, whose eigenvalues are 2 * cos(k * pi / (n + 1))
+		int size = 100;
+		OriginalMatrix path = new OriginalMatrix(size, size);
+		for (int i = 0; i + 1 < size; i++) {
+			path.set(i, i + 1, 1);
+			path.set(i + 1, i, 1);
+		}
+		Matrix view = path.transposed();
+
+		double[] eigenvalues = new LanczosEigenSolver(view, 3).getEigenvalues();
+		for (int k = 0; k < 3; k++) {
+			assertEquals(2 * Math.cos((k + 1) * Math.PI / (size + 1)), eigenvalues[k], DELTA);
+		}
+	}
+
+	@Test
+	public void testWholeSpectrumOfSmallMatrix() {
+		Matrix matrix = new OriginalMatrix(new double[][] {
+				{ 2, -1, 0 },
+				{ -1, 2, -1 },
+				{ 0, -1, 2 } });
+		double root = Math.sqrt(2);
+		assertArrayEquals(new double[] { 2 + root, 2, 2 - root }, new LanczosEigenSolver(matrix, 3).getEigenvalues(),
+				DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyEigenvalues() {
+		new LanczosEigenSolver(new OriginalMatrix(3, 3), 4);
+	}
+}
@@ -0,0 +1,84 @@
+package functionality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static utils.TestMatrices.assertMatrixEqualsRelative;
+import static utils.TestMatrices.randomMatrix;
+import org.junit.Test;
+
+import calculation.MatrixCalculator;
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+
+public class MatrixPowerTest {
+
+	@Test
+	public void testMatchesRepeatedSquaring() {
+		// Random matricies have complex pairs, which exercises the rotation blocks
+		OriginalMatrix matrix = randomMatrix(30, 1);
+		MatrixPower power = new MatrixPower(matrix);
+		assertTrue(power.isDiagonalizable());
+
+		MatrixCalculator calculator = new MatrixCalculator();
+		for (long exponent : new long[] { 2, 7, 40 }) {
+			assertMatrixEqualsRelative(calculator.power(matrix, exponent), power.power(exponent), 1e-9);
+		}
+	}
+
+	@Test
+	public void testApplyMatchesPower() {
+		OriginalMatrix matrix = randomMatrix(20, 2);
+		MatrixPower power = new MatrixPower(matrix);
+		MyVector vector = new MyVector(new double[20]);
+		vector.set(3, 1);
+
+		MyVector expected = new MatrixCalculator().power(matrix, 25, vector);
+		MyVector actual = power.apply(25, vector);
+		for (int i = 0; i < 20; i++) {
+			assertEquals(expected.get(i), actual.get(i), 1e-12 * Math.max(1, Math.abs(expected.get(i))));
+		}
+	}
+
+	@Test
+	public void testMarkovChainReachesSteadyState() {
+		// Columns sum to one, so huge powers stay bounded
+		Matrix transition = new OriginalMatrix(new double[][] {
+				{ 0.9, 0.2, 0.1 },
+				{ 0.05, 0.7, 0.3 },
+				{ 0.05, 0.1, 0.6 } });
+		MatrixPower power = new MatrixPower(transition);
+		MyVector start = new MyVector(new double[] { 1, 0, 0 });
+
+		MyVector steady = power.apply(1_000_000, start);
+		MyVector next = transition.multiply(steady);
+		double sum = 0;
+		for (int i = 0; i < 3; i++) {
+			assertEquals(steady.get(i), next.get(i), 1e-9);
+			sum += steady.get(i);
+		}
+		assertEquals(1, sum, 1e-9);
+	}
+
+	@Test
+	public void testDefectiveMatrixFallsBackToSquaring() {
+		// A Jordan block only has one eigenvector
+		Matrix jordan = new OriginalMatrix(new double[][] {
+				{ 2, 1 },
+				{ 0, 2 } });
+		MatrixPower power = new MatrixPower(jordan);
+		assertFalse(power.isDiagonalizable());
+
+		// [2 1; 0 2]^n = [2^n, n * 2^(n - 1); 0, 2^n]
+		assertMatrixEqualsRelative(new OriginalMatrix(new double[][] {
+				{ 1024, 5120 },
+				{ 0, 1024 } }), power.power(10), 0);
+		assertEquals(5120, power.apply(10, new MyVector(new double[] { 0, 1 })).get(0), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonSquareMatrix() {
+		new MatrixPower(new OriginalMatrix(2, 3));
+	}
+}
@@ -0,0 +1,175 @@
+package functionality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+import representations.SparseMatrix;
+import representations.SparseMatrixBuilder;
+
+public class PowerIterationTest {
+
+	private static final double DELTA = 1e-9;
+
+	private static double sum(MyVector vector) {
+		double sum = 0;
+		for (int i = 0; i < vector.size(); i++) {
+			sum += vector.get(i);
+		}
+		return sum;
+	}
+
+	@Test
+	public void testStationaryDistribution() {
+		// Columns sum to one
+		Matrix transition = new OriginalMatrix(new double[][] {
+				{ 0.9, 0.2, 0.1 },
+				{ 0.05, 0.7, 0.3 },
+				{ 0.05, 0.1, 0.6 } });
+		MyVector stationary = new PowerIteration(transition).solve(1e-13);
+
+		MyVector next = transition.multiply(stationary);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(stationary.get(i), next.get(i), DELTA);
+		}
+		assertEquals(1, sum(stationary), DELTA);
+	}
+
+	@Test
+	public void testPageRankWithDanglingNode() {
+		// Links 0 -> 1, 0 -> 2, 1 -> 2, 2 -> 0, and 3 has no links out
+		SparseMatrixBuilder builder = new SparseMatrixBuilder(4, 4);
+		builder.add(1, 0, 0.5);
+		builder.add(2, 0, 0.5);
+		builder.add(2, 1, 1);
+		builder.add(0, 2, 1);
+		SparseMatrix links = builder.build();
+		double damping = 0.85;
+		MyVector rank = new PowerIteration(links, damping).solve(1e-13);
+
+		// The Google matrix, where the dangling column links everywhere
+		OriginalMatrix google = new OriginalMatrix(4, 4);
+		for (int i = 0; i < 4; i++) {
+			for (int j = 0; j < 4; j++) {
+				double link = j == 3 ? 0.25 : links.get(i, j);
+				google.set(i, j, damping * link + (1 - damping) * 0.25);
+			}
+		}
+		MyVector next = google.multiply(rank);
+		for (int i = 0; i < 4; i++) {
+			assertEquals(rank.get(i), next.get(i), DELTA);
+		}
+		assertEquals(1, sum(rank), DELTA);
+		assertTrue(rank.get(2) > rank.get(3));
+	}
+
+	@Test
+	public void testWarmStartAfterSmallChange() {
+		int size = 200;
+		OriginalMatrix transition = new OriginalMatrix(size, size);
+		for (int j = 0; j < size; j++) {
+			transition.set((j + 1) % size, j, 0.5);
+			transition.set(j / 2, j, transition.get(j / 2, j) + 0.5);
+		}
+		PowerIteration iteration = new PowerIteration(transition, 0.85);
+		iteration.solve(1e-12);
+		int cold = iteration.iterations();
+
+		// Move a little of one column somewhere else and solve again from the old
+		// result
+		transition.set(1, 0, 0.45);
+		transition.set(2, 0, transition.get(2, 0) + 0.05);
+		MyVector rank = iteration.solve(1e-12);
+		int rankIterations = iteration.iterations();
+		assertTrue(rankIterations < cold);
+
+		iteration.reset();
+		MyVector fromScratch = iteration.solve(1e-12);
+		assertTrue(iteration.iterations() > rankIterations);
+		for (int i = 0; i < size; i++) {
+			assertEquals(fromScratch.get(i), rank.get(i), 1e-10);
+		}
+	}
+
+	@Test
+	public void testDominantEigenvector() {
+		Matrix matrix = new OriginalMatrix(new double[][] {
+				{ 2, 1 },
+				{ 1, 2 } });
+		PowerIteration iteration = new PowerIteration(matrix);
+		MyVector vector = iteration.solve(1e-14, PowerIteration.Norm.MAXIMUM);
+
+		assertEquals(3, iteration.getEigenvalue(), DELTA);
+		assertEquals(1, vector.get(0), DELTA);
+		assertEquals(1, vector.get(1), DELTA);
+	}
+
+	@Test
+	public void testNegativeDominantEigenvalue() {
+		Matrix matrix = new OriginalMatrix(new double[][] {
+				{ -3, 1 },
+				{ 0, 1 } });
+		PowerIteration iteration = new PowerIteration(matrix);
+		MyVector vector = iteration.solve(1e-14);
+
+		assertEquals(-3, iteration.getEigenvalue(), DELTA);
+		assertEquals(1, vector.get(0), DELTA);
+		assertEquals(0, vector.get(1), DELTA);
+	}
+
+	/*
+	 * The chain 0 -> 1 -> 2 -> 0
+	 */
+	private static Matrix cycle() {
+		return new OriginalMatrix(new double[][] {
+				{ 0, 0, 1 },
+				{ 1, 0, 0 },
+				{ 0, 1, 0 } });
+	}
+
+	@Test
+	public void testWarmStartIsScaledToSumOne() {
+		PowerIteration iteration = new PowerIteration(cycle(), 0.85);
+		iteration.warmStart(new MyVector(new double[] { 1, 1, 1 }));
+		MyVector rank = iteration.solve(1e-13);
+
+		assertEquals(1, iteration.iterations());
+		assertEquals(1, sum(rank), DELTA);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(1.0 / 3, rank.get(i), DELTA);
+		}
+
+		iteration.warmStart(new MyVector(new double[] { 5, 0, 0 }));
+		rank = iteration.solve(1e-13);
+		assertEquals(1, sum(rank), DELTA);
+		assertEquals(1.0 / 3, rank.get(2), 1e-10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDampedWarmStartFromZero() {
+		new PowerIteration(cycle(), 0.85).warmStart(new MyVector(3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDampedWarmStartWithNegativeElement() {
+		new PowerIteration(cycle(), 0.85).warmStart(new MyVector(new double[] { 1, -1, 0 }));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWarmStartFromZero() {
+		new PowerIteration(cycle()).warmStart(new MyVector(3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalDamping() {
+		new PowerIteration(new OriginalMatrix(2, 2), 1.5);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDampingWithoutTeleportation() {
+		new PowerIteration(new OriginalMatrix(new double[][] { { 0, 1 }, { 1, 0 } }), 0.5, null);
+	}
+}
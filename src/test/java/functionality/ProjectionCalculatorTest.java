@@ -159,6 +159,25 @@ public class ProjectionCalculatorTest {
 		assertEquals(1, orthogonalBasis.size());
 	}
 
+	@Test
+	public void testOrthogonalBasisOfNearlyDependentVectors() {
+		// Classical Gram-Schmidt loses orthogonality on these
+		double epsilon = 1e-4;
+		List<MyVector> basis = new ArrayList<>();
+		basis.add(new MyVector(new double[] { 1, epsilon, 0, 0 }));
+		basis.add(new MyVector(new double[] { 1, 0, epsilon, 0 }));
+		basis.add(new MyVector(new double[] { 1, 0, 0, epsilon }));
+
+		List<MyVector> orthonormalBasis = projectionCalculator.orthoNormalBasisOf(basis);
+
+		assertEquals(3, orthonormalBasis.size());
+		for (int i = 0; i < 3; i++) {
+			for (int j = i + 1; j < 3; j++) {
+				assertEquals(0, vectorCalculator.innerProduct(orthonormalBasis.get(i), orthonormalBasis.get(j)), 1e-12);
+			}
+		}
+	}
+
 	// Tests for orthoNormalBasisOf(List<MyVector>)
 
 	@Test
@@ -260,6 +279,42 @@ public class ProjectionCalculatorTest {
 		assertEquals(0, vectorCalculator.innerProduct(basis.get(0), basis.get(1)), DELTA);
 	}
 
+	@Test
+	public void testBasesOfVectorSpaceMatchBasesOfItsVectors() {
+		List<MyVector> vectors = new ArrayList<>();
+		vectors.add(new MyVector(new double[] { 2, 1, 0, 1 }));
+		vectors.add(new MyVector(new double[] { 4, 2, 0, 2 }));
+		vectors.add(new MyVector(new double[] { -1, 3, 1, 0 }));
+		vectors.add(new MyVector(new double[] { 0, 1, 5, -2 }));
+		VectorSpace space = new VectorSpace(vectors);
+
+		List<MyVector> orthogonal = projectionCalculator.orthogonalBasisOf(vectors);
+		List<MyVector> orthoNormal = projectionCalculator.orthoNormalBasisOf(vectors);
+		List<MyVector> orthogonalOfSpace = projectionCalculator.orthogonalBasisOf(space);
+		List<MyVector> orthoNormalOfSpace = projectionCalculator.orthoNormalBasisOf(space);
+
+		assertEquals(3, orthogonalOfSpace.size());
+		assertEquals(3, orthoNormalOfSpace.size());
+		for (int k = 0; k < 3; k++) {
+			for (int i = 0; i < 4; i++) {
+				assertEquals(orthogonal.get(k).get(i), orthogonalOfSpace.get(k).get(i), 1e-12);
+				assertEquals(orthoNormal.get(k).get(i), orthoNormalOfSpace.get(k).get(i), 1e-12);
+			}
+		}
+	}
+
+	@Test
+	public void testProjectionMatrixIsNewAndDense() {
+		VectorSpace space = new VectorSpace(new MyVector(new double[] { 1, 0, 0 }));
+		Matrix projMatrix = projectionCalculator.projectionMatrix(space);
+		projMatrix.set(2, 2, 1);
+
+		assertEquals(1, projMatrix.get(2, 2), DELTA);
+		assertEquals(0, projectionCalculator.projectionMatrix(space).get(2, 2), DELTA);
+		assertEquals(0, projectionCalculator.projectOntoUsingProjectionMatrix(
+				new MyVector(new double[] { 1, 1, 1 }), space).get(2), DELTA);
+	}
+
 	@Test
 	public void testProjectionMatrix() {
 		VectorSpace space = new VectorSpace();
@@ -321,4 +376,26 @@ public class ProjectionCalculatorTest {
 			}
 		}
 	}
+
+	@Test
+	public void testBatchProjectionMatchesSingleProjections() {
+		VectorSpace space = new VectorSpace();
+		space.add(new MyVector(new double[] { 1, 1, 0, 2 }));
+		space.add(new MyVector(new double[] { 0, 1, 1, -1 }));
+
+		List<MyVector> vectors = new ArrayList<>();
+		vectors.add(new MyVector(new double[] { 1, 2, 3, 4 }));
+		vectors.add(new MyVector(new double[] { -1, 0, 5, 2 }));
+		vectors.add(new MyVector(new double[] { 1, 1, 0, 2 }));
+
+		List<MyVector> projections = projectionCalculator.projectOnto(vectors, space);
+
+		assertEquals(3, projections.size());
+		for (int i = 0; i < vectors.size(); i++) {
+			MyVector expected = projectionCalculator.projectOnto(vectors.get(i), space);
+			for (int j = 0; j < 4; j++) {
+				assertEquals(expected.get(j), projections.get(i).get(j), DELTA);
+			}
+		}
+	}
 }
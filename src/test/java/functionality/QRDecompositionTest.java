@@ -0,0 +1,122 @@
+package functionality;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+import calculation.MatrixCalculator;
+import calculation.VectorCalculator;
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+
+public class QRDecompositionTest {
+
+	private static final double DELTA = 1e-9;
+
+	/*
+	 * Random columns, where every fifth one is a combination of the two before
+	 */
+	private static List<MyVector> columnsWithDependencies(int length, int count, long seed) {
+		Random random = new Random(seed);
+		List<MyVector> columns = new ArrayList<>();
+		for (int j = 0; j < count; j++) {
+			double[] contents = new double[length];
+			for (int i = 0; i < length; i++) {
+				contents[i] = j % 5 == 4 ? 2 * columns.get(j - 1).get(i) - columns.get(j - 2).get(i)
+						: random.nextDouble() - 0.5;
+			}
+			columns.add(new MyVector(contents));
+		}
+		return columns;
+	}
+
+	@Test
+	public void testQTimesRIsA() {
+		// More columns than one panel, and enough work to update in parallel
+		List<MyVector> columns = columnsWithDependencies(400, 75, 3);
+		QRDecomposition qr = new QRDecomposition(columns);
+
+		assertEquals(60, qr.rank());
+		Matrix product = new MatrixCalculator().multiply(qr.getQ(), qr.getR());
+		for (int j = 0; j < columns.size(); j++) {
+			for (int i = 0; i < 400; i++) {
+				assertEquals(columns.get(j).get(i), product.get(i, j), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testOrthonormalColumns() {
+		List<MyVector> q = new QRDecomposition(columnsWithDependencies(200, 40, 5)).getOrthonormalColumns();
+		VectorCalculator calculator = new VectorCalculator();
+
+		for (int i = 0; i < q.size(); i++) {
+			for (int j = 0; j < q.size(); j++) {
+				assertEquals(i == j ? 1 : 0, calculator.innerProduct(q.get(i), q.get(j)), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testSkipsDependentColumns() {
+		List<MyVector> columns = new ArrayList<>();
+		columns.add(new MyVector(new double[] { 1, 2, 3 }));
+		columns.add(new MyVector(new double[] { 2, 4, 6 }));
+		columns.add(new MyVector(new double[] { 0, 1, 0 }));
+		columns.add(new MyVector(new double[] { 1, 3, 3 }));
+		QRDecomposition qr = new QRDecomposition(columns);
+
+		assertEquals(2, qr.rank());
+		assertArrayEquals(new int[] { 0, 2 }, qr.getIndependentColumns());
+	}
+
+	@Test
+	public void testProjectAndApplyQ() {
+		QRDecomposition qr = new QRDecomposition(new OriginalMatrix(new double[][] { { 1, 0 }, { 1, 1 }, { 0, 1 } }));
+		MyVector vector = new MyVector(new double[] { 1, 0, 1 });
+
+		// (1, 0, 1) is (1, 1, 0) + (0, 1, 1) - 2 * (0, 1, 0), so its projection
+		// onto the plane is what is left after removing the normal (1, -1, 1) part
+		MyVector projection = qr.project(vector);
+		assertEquals(1.0 / 3, projection.get(0), DELTA);
+		assertEquals(2.0 / 3, projection.get(1), DELTA);
+		assertEquals(1.0 / 3, projection.get(2), DELTA);
+
+		MyVector roundTrip = qr.applyQ(qr.applyQTransposed(vector));
+		for (int i = 0; i < 3; i++) {
+			assertEquals(vector.get(i), roundTrip.get(i), DELTA);
+		}
+	}
+
+	@Test
+	public void testZeroMatrix() {
+		QRDecomposition qr = new QRDecomposition(new OriginalMatrix(3, 2));
+		assertEquals(0, qr.rank());
+		assertEquals(0, qr.getOrthonormalColumns().size());
+
+		Matrix q = qr.getQ();
+		Matrix r = qr.getR();
+		assertEquals(3, q.rows());
+		assertEquals(3, q.columns());
+		assertEquals(3, r.rows());
+		assertEquals(2, r.columns());
+		Matrix product = new MatrixCalculator().multiply(q, r);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(1, q.get(i, i), DELTA);
+			for (int j = 0; j < 2; j++) {
+				assertEquals(0, product.get(i, j), DELTA);
+			}
+		}
+		assertEquals(0, qr.project(new MyVector(new double[] { 1, 2, 3 })).length(), DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrongVectorSize() {
+		new QRDecomposition(new OriginalMatrix(new double[][] { { 1 }, { 1 } })).project(new MyVector(3));
+	}
+}
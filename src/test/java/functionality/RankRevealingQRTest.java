@@ -0,0 +1,105 @@
+package functionality;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+
+public class RankRevealingQRTest {
+
+	/*
+	 * Random columns, where every third one is a combination of the two before
+	 */
+	private static List<MyVector> columnsWithDependencies(int length, int count, double scale, long seed) {
+		Random random = new Random(seed);
+		List<MyVector> columns = new ArrayList<>();
+		for (int j = 0; j < count; j++) {
+			double[] contents = new double[length];
+			for (int i = 0; i < length; i++) {
+				contents[i] = j % 3 == 2 ? columns.get(j - 1).get(i) - 3 * columns.get(j - 2).get(i)
+						: scale * (random.nextDouble() - 0.5);
+			}
+			columns.add(new MyVector(contents));
+		}
+		return columns;
+	}
+
+	@Test
+	public void testRankOfDependentColumns() {
+		RankRevealingQR qr = new RankRevealingQR(columnsWithDependencies(50, 30, 1, 1));
+		assertEquals(20, qr.rank());
+	}
+
+	@Test
+	public void testRankDoesNotDependOnScale() {
+		// An absolute tolerance would call every column zero in the first case
+		assertEquals(20, new RankRevealingQR(columnsWithDependencies(50, 30, 1e-8, 2)).rank());
+		assertEquals(20, new RankRevealingQR(columnsWithDependencies(50, 30, 1e8, 2)).rank());
+	}
+
+	@Test
+	public void testBasisColumnsSpanAllColumns() {
+		List<MyVector> columns = columnsWithDependencies(40, 24, 1, 3);
+		int[] basisColumns = new RankRevealingQR(columns).getBasisColumns();
+		assertEquals(16, basisColumns.length);
+
+		List<MyVector> basis = new ArrayList<>();
+		for (int index : basisColumns) {
+			basis.add(columns.get(index));
+		}
+		assertEquals(16, new RankRevealingQR(basis).rank());
+		VectorSpace space = new VectorSpace(basis);
+		for (MyVector column : columns) {
+			assertTrue(space.contains(column));
+		}
+	}
+
+	@Test
+	public void testDiagonalIsDecreasing() {
+		RankRevealingQR qr = new RankRevealingQR(columnsWithDependencies(30, 30, 1, 4));
+		double[] diagonal = qr.getDiagonal();
+		for (int k = 1; k < diagonal.length; k++) {
+			assertTrue(diagonal[k] <= diagonal[k - 1] * (1 + 1e-12));
+		}
+	}
+
+	@Test
+	public void testPivotsLargestColumnFirst() {
+		Matrix matrix = new OriginalMatrix(new double[][] {
+				{ 1, 0, 0 },
+				{ 0, 5, 0 },
+				{ 0, 0, 2 } });
+		RankRevealingQR qr = new RankRevealingQR(matrix);
+
+		assertArrayEquals(new int[] { 1, 2, 0 }, qr.getPivotColumns());
+		assertArrayEquals(new double[] { 5, 2, 1 }, qr.getDiagonal(), 1e-12);
+	}
+
+	@Test
+	public void testSmallestSingularValueEstimate() {
+		// Orthogonal columns scaled by 3, 1e-3 and 7 have exactly those singular values
+		double c = Math.cos(0.3);
+		double s = Math.sin(0.3);
+		Matrix matrix = new OriginalMatrix(new double[][] {
+				{ 3 * c, -1e-3 * s, 0 },
+				{ 3 * s, 1e-3 * c, 0 },
+				{ 0, 0, 7 } });
+		assertEquals(1e-3, new RankRevealingQR(matrix).smallestSingularValueEstimate(), 1e-12);
+	}
+
+	@Test
+	public void testZeroMatrixHasRankZero() {
+		RankRevealingQR qr = new RankRevealingQR(new OriginalMatrix(4, 3));
+		assertEquals(0, qr.rank());
+		assertEquals(0, qr.getBasisColumns().length);
+		assertEquals(0, qr.smallestSingularValueEstimate(), 0);
+	}
+}
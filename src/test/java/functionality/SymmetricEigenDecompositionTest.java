@@ -0,0 +1,173 @@
+package functionality;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static utils.TestMatrices.assertMatrixEquals;
+import static utils.TestMatrices.randomSymmetric;
+import org.junit.Test;
+
+import calculation.MatrixCalculator;
+import calculation.VectorCalculator;
+import representations.Matrix;
+import representations.MyVector;
+import representations.OriginalMatrix;
+import utils.MatrixBank;
+
+public class SymmetricEigenDecompositionTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testKnownEigenvalues() {
+		Matrix matrix = new OriginalMatrix(new double[][] {
+				{ 2, -1, 0 },
+				{ -1, 2, -1 },
+				{ 0, -1, 2 } });
+		double[] eigenvalues = new SymmetricEigenDecomposition(matrix, false).getEigenvalues();
+
+		double root = Math.sqrt(2);
+		assertArrayEquals(new double[] { 2 - root, 2, 2 + root }, eigenvalues, DELTA);
+	}
+
+	@Test
+	public void testVDVTransposedIsA() {
+		// Large enough for the parallel updates
+		OriginalMatrix matrix = randomSymmetric(120, 1);
+		SymmetricEigenDecomposition decomposition = new SymmetricEigenDecomposition(matrix);
+
+		MatrixCalculator calculator = new MatrixCalculator();
+		Matrix v = decomposition.getV();
+		Matrix product = calculator.multiply(calculator.multiply(v, decomposition.getD()), v.transposed());
+		assertMatrixEquals(matrix, product, DELTA);
+		assertMatrixEquals(MatrixBank.identity(120), calculator.multiply(v.transposed(), v), DELTA);
+	}
+
+	@Test
+	public void testEigenvectorsSatisfyDefinition() {
+		OriginalMatrix matrix = randomSymmetric(40, 2);
+		SymmetricEigenDecomposition decomposition = new SymmetricEigenDecomposition(matrix);
+		double[] eigenvalues = decomposition.getEigenvalues();
+
+		for (int i = 0; i < eigenvalues.length; i++) {
+			if (i > 0)
+				assertTrue(eigenvalues[i - 1] <= eigenvalues[i]);
+			MyVector vector = decomposition.getEigenvector(i);
+			MyVector image = matrix.multiply(vector);
+			for (int k = 0; k < vector.size(); k++) {
+				assertEquals(eigenvalues[i] * vector.get(k), image.get(k), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testVectorsOfLargeMatrix() {
+		// Several levels of divide and conquer, and several blocks of reflectors
+		int size = 600;
+		OriginalMatrix matrix = randomSymmetric(size, 4);
+		SymmetricEigenDecomposition decomposition = new SymmetricEigenDecomposition(matrix);
+		double[] eigenvalues = decomposition.getEigenvalues();
+
+		VectorCalculator calculator = new VectorCalculator();
+		for (int i = 0; i < size; i += 37) {
+			MyVector vector = decomposition.getEigenvector(i);
+			assertEquals(1, vector.length(), DELTA);
+			assertEquals(0, calculator.innerProduct(vector, decomposition.getEigenvector(size - 1 - i)), DELTA);
+			MyVector image = matrix.multiply(vector);
+			for (int k = 0; k < size; k++) {
+				assertEquals(eigenvalues[i] * vector.get(k), image.get(k), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testRepeatedEigenvaluesAreDeflated() {
+		// Ten copies of the same tridiagonal block, the last two weakly coupled
+		int size = 100;
+		double[][] contents = new double[size][size];
+		for (int i = 0; i < size; i++) {
+			contents[i][i] = 2;
+			if (i > 0 && i % 10 != 0) {
+				contents[i][i - 1] = -1;
+				contents[i - 1][i] = -1;
+			}
+		}
+		contents[90][89] = 1e-10;
+		contents[89][90] = 1e-10;
+		OriginalMatrix matrix = new OriginalMatrix(contents);
+		SymmetricEigenDecomposition decomposition = new SymmetricEigenDecomposition(matrix);
+
+		MatrixCalculator calculator = new MatrixCalculator();
+		Matrix v = decomposition.getV();
+		assertMatrixEquals(matrix, calculator.multiply(calculator.multiply(v, decomposition.getD()), v.transposed()),
+				DELTA);
+		assertMatrixEquals(MatrixBank.identity(size), calculator.multiply(v.transposed(), v), DELTA);
+		assertEquals(10, decomposition.eigenspaces().size());
+		assertArrayEquals(new SymmetricEigenDecomposition(matrix, false).getEigenvalues(),
+				decomposition.getEigenvalues(), DELTA);
+	}
+
+	@Test
+	public void testMultipleOfIdentity() {
+		// Every eigenvalue is deflated when the halves are joined
+		OriginalMatrix matrix = new OriginalMatrix(80, 80);
+		for (int i = 0; i < 80; i++) {
+			matrix.set(i, i, 3);
+		}
+		SymmetricEigenDecomposition decomposition = new SymmetricEigenDecomposition(matrix);
+		for (double eigenvalue : decomposition.getEigenvalues()) {
+			assertEquals(3, eigenvalue, DELTA);
+		}
+		Matrix v = decomposition.getV();
+		assertMatrixEquals(MatrixBank.identity(80), new MatrixCalculator().multiply(v.transposed(), v), DELTA);
+	}
+
+	@Test
+	public void testEigenvaluesMatchWithAndWithoutVectors() {
+		OriginalMatrix matrix = randomSymmetric(60, 3);
+		assertArrayEquals(new SymmetricEigenDecomposition(matrix).getEigenvalues(),
+				new SymmetricEigenDecomposition(matrix, false).getEigenvalues(), DELTA);
+	}
+
+	@Test
+	public void testEigenspacesOfRepeatedEigenvalue() {
+		// A projection of rank 2 in R^4 has eigenvalue 1 twice and 0 twice
+		Matrix matrix = new OriginalMatrix(new double[][] {
+				{ 1, 0, 0, 0 },
+				{ 0, 0.5, 0.5, 0 },
+				{ 0, 0.5, 0.5, 0 },
+				{ 0, 0, 0, 0 } });
+		SymmetricEigenDecomposition decomposition = new SymmetricEigenDecomposition(matrix);
+
+		List<VectorSpace> eigenspaces = decomposition.eigenspaces();
+		assertEquals(2, eigenspaces.size());
+		assertEquals(2, eigenspaces.get(0).getDimension());
+		assertEquals(2, eigenspaces.get(1).getDimension());
+
+		VectorSpace ones = decomposition.eigenspace(1);
+		assertTrue(ones.contains(new MyVector(new double[] { 1, 1, 1, 0 })));
+		assertFalse(ones.contains(new MyVector(new double[] { 0, 0, 0, 1 })));
+		assertEquals(0, decomposition.eigenspace(3).getDimension());
+	}
+
+	@Test
+	public void testSmallMatricies() {
+		assertArrayEquals(new double[] { 5 },
+				new SymmetricEigenDecomposition(new OriginalMatrix(new double[][] { { 5 } })).getEigenvalues(), DELTA);
+		assertArrayEquals(new double[] { -1, 3 }, new SymmetricEigenDecomposition(
+				new OriginalMatrix(new double[][] { { 1, 2 }, { 2, 1 } })).getEigenvalues(), DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonSymmetricMatrix() {
+		new SymmetricEigenDecomposition(new OriginalMatrix(new double[][] { { 1, 2 }, { 3, 4 } }));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testEigenvectorsNotComputed() {
+		new SymmetricEigenDecomposition(MatrixBank.identity(3), false).getEigenvector(0);
+	}
+}
@@ -1,13 +1,19 @@
 package functionality;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import org.junit.Before;
 import org.junit.Test;
 
+import calculation.VectorCalculator;
+import representations.LowRankProjector;
 import representations.Matrix;
 import representations.MyVector;
 import representations.OriginalMatrix;
@@ -180,4 +186,126 @@ public class VectorSpaceTest {
 		MyVector notInSpan = new MyVector(new double[] { 0.1, 1, 40 });
 		assertFalse(space.contains(notInSpan));
 	}
+
+	@Test
+	public void testGetDimension() {
+		VectorSpace space = new VectorSpace(v1, v3, v4, v1.scaled(3));
+		assertEquals(3, space.getDimension());
+		assertEquals(4, space.getBasisVectors().size());
+
+		assertEquals(0, new VectorSpace(new MyVector(3)).getDimension());
+	}
+
+	@Test
+	public void testOrthonormalBasisStaysOrthonormal() {
+		VectorSpace space = new VectorSpace();
+		Random random = new Random(2);
+		for (int k = 0; k < 40; k++) {
+			double[] contents = new double[60];
+			for (int i = 0; i < 60; i++) {
+				contents[i] = random.nextDouble();
+			}
+			assertTrue(space.add(new MyVector(contents)));
+		}
+
+		List<MyVector> q = space.getOrthonormalBasis();
+		VectorCalculator calculator = new VectorCalculator();
+		for (int i = 0; i < q.size(); i++) {
+			for (int j = 0; j < q.size(); j++) {
+				assertEquals(i == j ? 1 : 0, calculator.innerProduct(q.get(i), q.get(j)), 1e-12);
+			}
+		}
+		assertTrue(space.contains(space.getBasisVectors().get(7)));
+	}
+
+	@Test
+	public void testContainsUsesRelativeTolerance() {
+		// Large vectors carry rounding errors far above any absolute tolerance
+		VectorSpace space = new VectorSpace(v1.scaled(1e9), new MyVector(new double[] { 1e9, 1e9, 0 }));
+
+		assertTrue(space.contains(new MyVector(new double[] { 3e9 + 7, -2e9 / 3, 0 })));
+		assertFalse(space.contains(new MyVector(new double[] { 1e9, 1e9, 1 })));
+		assertEquals(2, space.getDimension());
+	}
+
+	@Test
+	public void testSmallScaleSpaceKeepsItsDimension() {
+		// Tiny vectors are not zero, and scaling the data must not change the
+		// answers
+		MyVector e1 = v1.scaled(1e-6);
+		MyVector e2 = new MyVector(new double[] { 0, 1e-6, 0 });
+		VectorSpace space = new VectorSpace(e1, e2);
+
+		assertEquals(2, space.getDimension());
+		assertEquals(2, space.getMinimalBasis().size());
+		assertEquals(2, space.getOrthonormalBasis().size());
+		assertTrue(space.contains(new MyVector(new double[] { 3e-6, -2e-6, 0 })));
+		assertFalse(space.contains(new MyVector(new double[] { 0, 0, 1e-6 })));
+		assertEquals(1, space.orthogonalComplement().getDimension());
+		assertEquals(new RankRevealingQR(Arrays.asList(e1, e2)).rank(), space.getDimension());
+	}
+
+	@Test
+	public void testBatchContainsMatchesSingleQueries() {
+		VectorSpace space = new VectorSpace(v1, v3);
+		List<MyVector> queries = Arrays.asList(v1, v2, v3, v4, zeroVector, new MyVector(new double[] { 5, 0, -2 }));
+
+		boolean[] contained = space.contains(queries);
+
+		assertEquals(queries.size(), contained.length);
+		for (int i = 0; i < queries.size(); i++) {
+			assertEquals(space.contains(queries.get(i)), contained[i]);
+		}
+		assertTrue(contained[5]);
+		assertFalse(contained[1]);
+	}
+
+	@Test
+	public void testBatchContainsInEmptySpace() {
+		boolean[] contained = emptySpace.contains(new OriginalMatrix(Arrays.asList(v1, v2), true));
+		assertFalse(contained[0] || contained[1]);
+	}
+
+	@Test
+	public void testProjectorIsCachedUntilSpaceGrows() {
+		VectorSpace space = new VectorSpace(v1);
+		LowRankProjector projector = space.getProjector();
+
+		assertSame(projector, space.getProjector());
+		assertFalse(space.add(v1.scaled(2)));
+		assertSame(projector, space.getProjector());
+
+		assertTrue(space.add(v2));
+		LowRankProjector grown = space.getProjector();
+		assertEquals(2, grown.rank());
+		assertEquals(1, grown.multiply(v4).get(1), 1e-12);
+		// The old projector still projects onto the old space
+		assertEquals(0, projector.multiply(v4).get(1), 1e-12);
+	}
+
+	@Test
+	public void testMinimalBasisAndPrune() {
+		VectorSpace space = new VectorSpace(v1, v2, v1.scaled(3), v4, v3);
+		assertEquals(3, space.getMinimalBasis().size());
+
+		assertEquals(2, space.prune());
+		assertEquals(3, space.getBasisVectors().size());
+		assertEquals(3, space.getDimension());
+		assertTrue(space.contains(v3));
+		assertEquals(0, space.prune());
+	}
+
+	@Test
+	public void testPruneKeepsSpanOfMixedScaleVectors() {
+		MyVector large = new MyVector(new double[] { 1e12, 0 });
+		MyVector small = new MyVector(new double[] { 0, 1 });
+		VectorSpace space = new VectorSpace(large, small, large.scaled(-2));
+		assertEquals(2, space.getDimension());
+		assertEquals(2, space.getMinimalBasis().size());
+
+		assertEquals(1, space.prune());
+		assertEquals(2, space.getDimension());
+		assertTrue(space.contains(small));
+		assertTrue(space.contains(new MyVector(new double[] { 3, -4 })));
+	}
 }
@@ -102,9 +102,54 @@ public class ElementaryMatrixTest {
 		assertEquals(1.0, rowVectors.get(2).get(2), 0.0001);
 	}
 
-	@Test(expected = UnsupportedOperationException.class)
-	public void testUnsupportedGet() {
-		matrix.get(0, 0);
+	@Test
+	public void testGet() {
+		matrix.swapRows(0, 1).subtractScaledRow(2, 0, 2.0);
+
+		// Rows are e_1, e_0 and e_2 - 2 * e_1
+		assertEquals(1.0, matrix.get(0, 1), 0.0001);
+		assertEquals(0.0, matrix.get(0, 0), 0.0001);
+		assertEquals(1.0, matrix.get(1, 0), 0.0001);
+		assertEquals(-2.0, matrix.get(2, 1), 0.0001);
+		assertEquals(1.0, matrix.get(2, 2), 0.0001);
+	}
+
+	@Test
+	public void testMultiplyVector() {
+		matrix.scaleRow(0, 3.0).subtractRow(2, 0);
+		matrix.scale(2.0);
+
+		MyVector result = matrix.multiply(new MyVector(new double[] { 1, 2, 3 }));
+		assertEquals(6.0, result.get(0), 0.0001);
+		assertEquals(4.0, result.get(1), 0.0001);
+		assertEquals(0.0, result.get(2), 0.0001);
+	}
+
+	@Test
+	public void testLeftAndRightMultiplyMatchDense() {
+		matrix.swapRows(0, 2).scaleRow(1, -1.5).subtractScaledRow(0, 1, 0.5);
+		Matrix dense = new OriginalMatrix(matrix.getRowVectors());
+		Matrix other = new OriginalMatrix(new double[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 10 } });
+
+		Matrix left = matrix.leftMultiply(other);
+		Matrix right = matrix.rightMultiply(other);
+		for (int i = 0; i < dimension; i++) {
+			for (int j = 0; j < dimension; j++) {
+				double expectedLeft = 0;
+				double expectedRight = 0;
+				for (int k = 0; k < dimension; k++) {
+					expectedLeft += dense.get(i, k) * other.get(k, j);
+					expectedRight += other.get(i, k) * dense.get(k, j);
+				}
+				assertEquals(expectedLeft, left.get(i, j), 0.0001);
+				assertEquals(expectedRight, right.get(i, j), 0.0001);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetInvalidIndex() {
+		matrix.get(0, 3);
 	}
 
 	@Test(expected = UnsupportedOperationException.class)
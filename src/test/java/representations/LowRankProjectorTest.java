@@ -0,0 +1,47 @@
+package representations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+public class LowRankProjectorTest {
+
+	private static final double DELTA = 1e-12;
+	private static final double HALF_SQRT2 = Math.sqrt(0.5);
+
+	// The plane spanned by (1, 1, 0) / sqrt(2) and (0, 0, 1)
+	private final LowRankProjector projector = new LowRankProjector(3, 2,
+			new double[] { HALF_SQRT2, HALF_SQRT2, 0, 0, 0, 1 });
+
+	@Test
+	public void testMultiply() {
+		MyVector result = projector.multiply(new MyVector(new double[] { 2, 0, 5 }));
+
+		assertEquals(1, result.get(0), DELTA);
+		assertEquals(1, result.get(1), DELTA);
+		assertEquals(5, result.get(2), DELTA);
+	}
+
+	@Test
+	public void testGetMatchesDenseProjection() {
+		double[][] expected = { { 0.5, 0.5, 0 }, { 0.5, 0.5, 0 }, { 0, 0, 1 } };
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				assertEquals(expected[i][j], projector.get(i, j), DELTA);
+				assertEquals(expected[i][j], projector.getRowVectors().get(i).get(j), DELTA);
+			}
+		}
+		assertSame(projector, projector.transposed());
+	}
+
+	@Test
+	public void testZeroRank() {
+		LowRankProjector zero = new LowRankProjector(2, 0, new double[0]);
+		assertEquals(0, zero.multiply(new MyVector(new double[] { 3, 4 })).length(), DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testArrayTooSmall() {
+		new LowRankProjector(3, 2, new double[5]);
+	}
+}
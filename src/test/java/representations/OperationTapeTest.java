@@ -0,0 +1,91 @@
+package representations;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+import calculation.MatrixCalculator;
+import utils.MatrixBank;
+
+public class OperationTapeTest {
+
+	private static final double DELTA = 1e-9;
+	private OperationTape tape;
+
+	@Before
+	public void setUp() {
+		tape = new OperationTape(3);
+		tape.recordSwap(0, 2);
+		tape.recordScale(1, 2.5);
+		tape.recordSubtractScaled(2, 0, 3);
+		tape.recordSubtractScaled(0, 1, -1);
+	}
+
+	/*
+	 * The product E_k * ... * E_1 the slow way, one elementary matrix at a time
+	 */
+	private Matrix aggregateByMultiplying() {
+		MatrixCalculator calculator = new MatrixCalculator();
+		Matrix aggregate = MatrixBank.identity(3);
+		for (ElementaryMatrix e : tape) {
+			aggregate = calculator.multiply(e, aggregate);
+		}
+		return aggregate;
+	}
+
+	@Test
+	public void testToMatrixMatchesProductOfOperations() {
+		Matrix expected = aggregateByMultiplying();
+		Matrix actual = tape.toMatrix();
+
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				assertEquals(expected.get(i, j), actual.get(i, j), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testApplyToVector() {
+		MyVector vector = new MyVector(new double[] { 1, -2, 4 });
+		MyVector expected = new MatrixCalculator().multiply(aggregateByMultiplying(),
+				new OriginalMatrix(new double[][] { { 1 }, { -2 }, { 4 } })).getColumnVectors().get(0);
+
+		MyVector actual = tape.apply(vector);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(expected.get(i), actual.get(i), DELTA);
+		}
+		// The input is left alone
+		assertEquals(-2, vector.get(1), DELTA);
+	}
+
+	@Test
+	public void testApplyToMatrix() {
+		Matrix rightHandSides = MatrixBank.rectangular(3, 4);
+		Matrix expected = new MatrixCalculator().multiply(aggregateByMultiplying(), rightHandSides);
+		Matrix actual = tape.apply(rightHandSides);
+
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 4; j++) {
+				assertEquals(expected.get(i, j), actual.get(i, j), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testReadsAsListOfElementaryMatricies() {
+		assertEquals(4, tape.size());
+		assertEquals(0.0, tape.get(0).getRowVectors().get(0).get(0), DELTA);
+		assertEquals(1.0, tape.get(0).getRowVectors().get(0).get(2), DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRecordInvalidRow() {
+		tape.recordScale(3, 1.0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testApplyWrongSize() {
+		tape.apply(new MyVector(4));
+	}
+}
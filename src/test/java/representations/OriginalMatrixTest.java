@@ -174,4 +174,52 @@ public class OriginalMatrixTest {
 		}
 	}
 
+	@Test
+	public void testMultiplyVector() {
+		MyVector result = matrix.multiply(new MyVector(new double[] { 1, 0, -1 }));
+
+		assertEquals(-2.0, result.get(0), 0.0001);
+		assertEquals(-2.0, result.get(1), 0.0001);
+		assertEquals(-2.0, result.get(2), 0.0001);
+	}
+
+	@Test
+	public void testWrapArrayWithOffsetAndStride() {
+		double[] data = { 0, 1, 2, 99, 3, 4, 99 };
+		OriginalMatrix wrapped = new OriginalMatrix(2, 2, data, 1, 3);
+
+		assertEquals(1.0, wrapped.get(0, 0), 0.0001);
+		assertEquals(2.0, wrapped.get(0, 1), 0.0001);
+		assertEquals(3.0, wrapped.get(1, 0), 0.0001);
+		assertEquals(4.0, wrapped.get(1, 1), 0.0001);
+
+		// Not a copy, writes go through to the array
+		wrapped.set(1, 1, 7.0);
+		assertEquals(7.0, data[5], 0.0001);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrapArrayTooSmall() {
+		new OriginalMatrix(2, 3, new double[5], 0, 3);
+	}
+
+	@Test
+	public void testView() {
+		OriginalMatrix view = matrix.view(1, 1, 2, 2);
+
+		assertEquals(2, view.rows());
+		assertEquals(2, view.columns());
+		assertEquals(5.0, view.get(0, 0), 0.0001);
+		assertEquals(9.0, view.get(1, 1), 0.0001);
+
+		view.scale(2.0);
+		assertEquals(10.0, matrix.get(1, 1), 0.0001);
+		assertEquals(1.0, matrix.get(0, 0), 0.0001);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetWithInvalidColumn() {
+		matrix.get(0, 3);
+	}
+
 }
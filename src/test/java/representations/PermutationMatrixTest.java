@@ -0,0 +1,81 @@
+package representations;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+import calculation.MatrixCalculator;
+
+public class PermutationMatrixTest {
+
+	private static final double DELTA = 0.0001;
+	private PermutationMatrix permutation;
+	private Matrix dense;
+
+	@Before
+	public void setUp() {
+		permutation = new PermutationMatrix(new int[] { 2, 0, 3, 1 });
+		dense = new OriginalMatrix(permutation.getRowVectors());
+	}
+
+	private void assertProductMatches(Matrix left, Matrix right, Matrix actual) {
+		for (int i = 0; i < left.rows(); i++) {
+			for (int j = 0; j < right.columns(); j++) {
+				double expected = 0;
+				for (int k = 0; k < left.columns(); k++) {
+					expected += left.get(i, k) * right.get(k, j);
+				}
+				assertEquals(expected, actual.get(i, j), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testGet() {
+		assertEquals(1.0, permutation.get(0, 2), DELTA);
+		assertEquals(0.0, permutation.get(0, 0), DELTA);
+		assertEquals(1.0, permutation.get(3, 1), DELTA);
+	}
+
+	@Test
+	public void testMultiplyVector() {
+		MyVector result = permutation.multiply(new MyVector(new double[] { 10, 20, 30, 40 }));
+		assertEquals(30, result.get(0), DELTA);
+		assertEquals(10, result.get(1), DELTA);
+		assertEquals(40, result.get(2), DELTA);
+		assertEquals(20, result.get(3), DELTA);
+	}
+
+	@Test
+	public void testComposeAndInverse() {
+		PermutationMatrix other = new PermutationMatrix(new int[] { 1, 3, 0, 2 });
+		Matrix otherDense = new OriginalMatrix(other.getRowVectors());
+
+		assertProductMatches(dense, otherDense, permutation.compose(other));
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, permutation.compose(permutation.inverse()).getPermutation());
+	}
+
+	@Test
+	public void testLeftAndRightMultiply() {
+		Matrix other = new OriginalMatrix(new double[][] { { 1, 2, 3, 4 }, { 5, 6, 7, 8 }, { 9, 10, 11, 12 },
+				{ 13, 14, 15, 16 } });
+
+		assertProductMatches(dense, other, permutation.leftMultiply(other));
+		assertProductMatches(other, dense, permutation.rightMultiply(other));
+		assertProductMatches(dense, other, new MatrixCalculator().multiply(permutation, other));
+	}
+
+	@Test
+	public void testSign() {
+		// One 4-cycle, which is three swaps
+		assertEquals(-1, permutation.sign());
+		assertEquals(1, new PermutationMatrix(new int[] { 1, 0, 3, 2 }).sign());
+		assertEquals(1, new PermutationMatrix(3).sign());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotAPermutation() {
+		new PermutationMatrix(new int[] { 0, 2, 2 });
+	}
+}
@@ -0,0 +1,114 @@
+package representations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class SparseMatrixBuilderTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testBuildSumsDuplicates() {
+		SparseMatrixBuilder builder = new SparseMatrixBuilder(3, 3);
+		builder.add(2, 1, 1.0);
+		builder.add(0, 0, 2.0);
+		builder.add(2, 1, 3.0);
+		builder.add(1, 2, -1.0);
+
+		SparseMatrix matrix = builder.build();
+
+		assertEquals(4, builder.size());
+		assertEquals(3, matrix.nonZeros());
+		assertEquals(2.0, matrix.get(0, 0), DELTA);
+		assertEquals(-1.0, matrix.get(1, 2), DELTA);
+		assertEquals(4.0, matrix.get(2, 1), DELTA);
+		assertEquals(0.0, matrix.get(1, 1), DELTA);
+	}
+
+	@Test
+	public void testBuildEmpty() {
+		SparseMatrix matrix = new SparseMatrixBuilder(2, 4).build();
+
+		assertEquals(2, matrix.rows());
+		assertEquals(4, matrix.columns());
+		assertEquals(0, matrix.nonZeros());
+	}
+
+	@Test
+	public void testPartitionCountsNoLargerThanTriplets() {
+		// One triplet per row can not pay for a count array per partition
+		int rows = 1 << 20;
+		assertEquals(1, SparseMatrixBuilder.partitions(rows, rows));
+		assertEquals(1, SparseMatrixBuilder.partitions(rows / 2, rows));
+		int partitions = SparseMatrixBuilder.partitions(8 * rows, rows);
+		assertTrue(partitions >= 1 && partitions <= 8);
+	}
+
+	@Test
+	public void testBuildWithMoreRowsThanTriplets() {
+		int rows = 1 << 18;
+		SparseMatrixBuilder builder = new SparseMatrixBuilder(rows, 3);
+		for (int i = 0; i < rows; i += 3) {
+			builder.add(i, i % 3, 1.0);
+			builder.add(i, i % 3, 0.5);
+		}
+		SparseMatrix matrix = builder.build();
+
+		assertEquals((rows + 2) / 3, matrix.nonZeros());
+		assertEquals(1.5, matrix.get(3, 0), DELTA);
+		assertEquals(0.0, matrix.get(4, 1), DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAddOutsideMatrix() {
+		new SparseMatrixBuilder(2, 2).add(2, 0, 1.0);
+	}
+
+	@Test
+	public void testConcurrentAddMatchesDenseSum() throws InterruptedException {
+		int size = 50;
+		int threads = 4;
+		int perThread = 3 * SparseMatrixBuilder.CHUNK_SIZE;
+		SparseMatrixBuilder builder = new SparseMatrixBuilder(size, size);
+		double[][][] expectedPerThread = new double[threads][size][size];
+
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			double[][] expected = expectedPerThread[t];
+			long seed = t;
+			workers.add(new Thread(() -> {
+				Random random = new Random(seed);
+				for (int k = 0; k < perThread; k++) {
+					int row = random.nextInt(size);
+					int column = random.nextInt(size);
+					// Small integers so the sums are exact whatever the order
+					double value = random.nextInt(5);
+					builder.add(row, column, value);
+					expected[row][column] += value;
+				}
+			}));
+		}
+		for (Thread worker : workers)
+			worker.start();
+		for (Thread worker : workers)
+			worker.join();
+
+		SparseMatrix matrix = builder.build();
+
+		assertEquals((long) threads * perThread, builder.size());
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				double expected = 0;
+				for (int t = 0; t < threads; t++) {
+					expected += expectedPerThread[t][i][j];
+				}
+				assertEquals(expected, matrix.get(i, j), DELTA);
+			}
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package representations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SparseMatrixTest {
+
+	private static final double DELTA = 0.0001;
+	private double[][] testData;
+	private SparseMatrix matrix;
+
+	@Before
+	public void setUp() {
+		testData = new double[][] {
+				{ 1.0, 0.0, 2.0, 0.0 },
+				{ 0.0, 0.0, 0.0, 0.0 },
+				{ 0.0, 3.0, 0.0, 4.0 }
+		};
+		matrix = SparseMatrix.fromDense(new OriginalMatrix(testData));
+	}
+
+	private void assertMatchesTestData(Matrix m) {
+		assertEquals(3, m.rows());
+		assertEquals(4, m.columns());
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 4; j++) {
+				assertEquals(testData[i][j], m.get(i, j), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testFromDense() {
+		assertMatchesTestData(matrix);
+		assertEquals(4, matrix.nonZeros());
+		assertTrue(matrix.isCompressedRows());
+	}
+
+	@Test
+	public void testCsrConstructor() {
+		SparseMatrix m = new SparseMatrix(3, 4, new int[] { 0, 2, 2, 4 }, new int[] { 0, 2, 1, 3 },
+				new double[] { 1, 2, 3, 4 });
+		assertMatchesTestData(m);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCsrConstructorWithUnsortedColumns() {
+		new SparseMatrix(1, 3, new int[] { 0, 2 }, new int[] { 2, 0 }, new double[] { 1, 2 });
+	}
+
+	@Test
+	public void testToDense() {
+		assertMatchesTestData(matrix.toDense());
+	}
+
+	@Test
+	public void testFromTripletsSumsDuplicates() {
+		SparseMatrix m = SparseMatrix.fromTriplets(2, 2,
+				new int[] { 1, 0, 1, 1 }, new int[] { 0, 1, 0, 1 }, new double[] { 1, 2, 3, 4 }, 4);
+
+		assertEquals(0, m.get(0, 0), DELTA);
+		assertEquals(2, m.get(0, 1), DELTA);
+		assertEquals(4, m.get(1, 0), DELTA);
+		assertEquals(4, m.get(1, 1), DELTA);
+		assertEquals(3, m.nonZeros());
+	}
+
+	@Test
+	public void testMultiplyVector() {
+		MyVector result = matrix.multiply(new MyVector(new double[] { 1, 2, 3, 4 }));
+
+		assertEquals(7, result.get(0), DELTA);
+		assertEquals(0, result.get(1), DELTA);
+		assertEquals(22, result.get(2), DELTA);
+	}
+
+	@Test
+	public void testTransposedIsCompressedColumnView() {
+		SparseMatrix transposed = (SparseMatrix) matrix.transposed();
+
+		assertFalse(transposed.isCompressedRows());
+		assertSame(matrix, transposed.transposed());
+		assertSame(matrix.getValues(), transposed.getValues());
+
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 4; j++) {
+				assertEquals(testData[i][j], transposed.get(j, i), DELTA);
+			}
+		}
+
+		MyVector result = transposed.multiply(new MyVector(new double[] { 1, 1, 1 }));
+		assertEquals(1, result.get(0), DELTA);
+		assertEquals(3, result.get(1), DELTA);
+		assertEquals(2, result.get(2), DELTA);
+		assertEquals(4, result.get(3), DELTA);
+	}
+
+	@Test
+	public void testToCompressedRows() {
+		SparseMatrix transposed = (SparseMatrix) matrix.transposed();
+		SparseMatrix csr = transposed.toCompressedRows();
+
+		assertTrue(csr.isCompressedRows());
+		for (int i = 0; i < 4; i++) {
+			for (int j = 0; j < 3; j++) {
+				assertEquals(testData[j][i], csr.get(i, j), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testSetInsertsNewElement() {
+		matrix.set(1, 2, 5.0);
+		matrix.set(0, 0, 6.0);
+
+		assertEquals(5.0, matrix.get(1, 2), DELTA);
+		assertEquals(6.0, matrix.get(0, 0), DELTA);
+		assertEquals(4.0, matrix.get(2, 3), DELTA);
+		assertEquals(5, matrix.nonZeros());
+
+		// The transposed view sees the change
+		assertEquals(5.0, matrix.transposed().get(2, 1), DELTA);
+	}
+
+	@Test
+	public void testForEachNonZeroInRow() {
+		List<Integer> columns = new ArrayList<>();
+		matrix.forEachNonZeroInRow(2, (row, column, value) -> columns.add(column));
+
+		assertEquals(List.of(1, 3), columns);
+	}
+
+	@Test
+	public void testForEachNonZeroInColumnOfTransposed() {
+		List<Double> values = new ArrayList<>();
+		((SparseMatrix) matrix.transposed()).forEachNonZeroInColumn(0, (row, column, value) -> values.add(value));
+
+		assertEquals(List.of(1.0, 2.0), values);
+	}
+
+	@Test
+	public void testAddSparseAndDense() {
+		matrix.add(SparseMatrix.fromDense(new OriginalMatrix(testData)));
+		matrix.subtract(new OriginalMatrix(testData));
+
+		assertMatchesTestData(matrix);
+	}
+
+	@Test
+	public void testAddMergesDifferentPatterns() {
+		SparseMatrix other = SparseMatrix.fromDense(new OriginalMatrix(new double[][] {
+				{ -1.0, 5.0, 0.0, 0.0 },
+				{ 0.0, 0.0, 0.0, 6.0 },
+				{ 0.0, 0.0, 7.0, 0.0 } }));
+		matrix.add(other);
+
+		double[][] expected = {
+				{ 0.0, 5.0, 2.0, 0.0 },
+				{ 0.0, 0.0, 0.0, 6.0 },
+				{ 0.0, 3.0, 7.0, 4.0 } };
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 4; j++) {
+				assertEquals(expected[i][j], matrix.get(i, j), DELTA);
+			}
+		}
+		// The cancelled element is not stored
+		assertEquals(6, matrix.nonZeros());
+	}
+
+	@Test
+	public void testSubtractItselfLeavesNothingStored() {
+		matrix.subtract(SparseMatrix.fromDense(new OriginalMatrix(testData)));
+		assertEquals(0, matrix.nonZeros());
+		assertEquals(0, matrix.get(2, 3), DELTA);
+
+		matrix.add(new OriginalMatrix(testData));
+		assertMatchesTestData(matrix);
+	}
+
+	@Test
+	public void testSubspacesSkipEmptyLines() {
+		assertEquals(2, matrix.row().getDimension());
+		assertEquals(2, matrix.col().getDimension());
+		assertEquals(0, new SparseMatrix(3, 4).col().getDimension());
+	}
+
+	@Test
+	public void testScale() {
+		matrix.scale(2.0);
+		assertEquals(8.0, matrix.get(2, 3), DELTA);
+	}
+
+	@Test
+	public void testMultiplyIntoWithoutAllocating() {
+		MyVector result = new MyVector(new double[] { 9, 9, 9 });
+		matrix.multiplyInto(new MyVector(new double[] { 1, 2, 3, 4 }), result);
+
+		assertEquals(7, result.get(0), DELTA);
+		assertEquals(0, result.get(1), DELTA);
+		assertEquals(22, result.get(2), DELTA);
+	}
+
+	@Test
+	public void testParallelMultiplyMatchesDense() {
+		// A few very dense rows among many short ones, large enough to be split
+		int size = 3000;
+		Random random = new Random(11);
+		SparseMatrixBuilder builder = new SparseMatrixBuilder(size, size);
+		for (int i = 0; i < size; i++) {
+			int count = i % 500 == 0 ? size : 40;
+			for (int k = 0; k < count; k++) {
+				builder.add(i, random.nextInt(size), random.nextDouble());
+			}
+		}
+		SparseMatrix sparse = builder.build();
+		OriginalMatrix dense = sparse.toDense();
+
+		double[] contents = new double[size];
+		for (int j = 0; j < size; j++) {
+			contents[j] = random.nextDouble();
+		}
+		MyVector x = new MyVector(contents);
+
+		MyVector expected = dense.multiply(x);
+		MyVector actual = new MyVector(size);
+		sparse.multiplyInto(x, actual);
+
+		for (int i = 0; i < size; i++) {
+			assertEquals(expected.get(i), actual.get(i), 1e-9);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMultiplyIntoWrongSize() {
+		matrix.multiplyInto(new MyVector(4), new MyVector(4));
+	}
+}
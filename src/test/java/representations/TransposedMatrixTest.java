@@ -127,6 +127,46 @@ public class TransposedMatrixTest {
 		assertEquals(12.0, originalMatrix.get(1, 2), MARGIN_OF_ERROR);
 	}
 
+	@Test
+	public void testMultiply() {
+		MyVector result = transposedMatrix.multiply(new MyVector(new double[] { 1.0, -1.0 }));
+
+		assertEquals(3, result.size());
+		assertEquals(-3.0, result.get(0), MARGIN_OF_ERROR);
+		assertEquals(-3.0, result.get(1), MARGIN_OF_ERROR);
+		assertEquals(-3.0, result.get(2), MARGIN_OF_ERROR);
+	}
+
+	@Test
+	public void testMultiplyLargeView() {
+		// Wide enough to be split into blocks of columns
+		OriginalMatrix large = new OriginalMatrix(300, 700);
+		for (int i = 0; i < 300; i++) {
+			for (int j = 0; j < 700; j++) {
+				large.set(i, j, (i * 7 + j * 3) % 11 - 5);
+			}
+		}
+		MyVector vector = new MyVector(300);
+		for (int i = 0; i < 300; i++) {
+			vector.set(i, i % 5 - 2);
+		}
+
+		MyVector result = new MyVector(700);
+		large.transposed().multiplyInto(vector, result);
+		for (int j = 0; j < 700; j++) {
+			double expected = 0;
+			for (int i = 0; i < 300; i++) {
+				expected += large.get(i, j) * vector.get(i);
+			}
+			assertEquals(expected, result.get(j), MARGIN_OF_ERROR);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMultiplyWrongDimensions() {
+		transposedMatrix.multiply(new MyVector(3));
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void testAddIncompatibleDimensions() {
 		Matrix other = new OriginalMatrix(2, 2);
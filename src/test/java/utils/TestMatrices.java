@@ -0,0 +1,75 @@
+package utils;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+import representations.Matrix;
+import representations.OriginalMatrix;
+
+/*
+ * Random matricies and matrix comparisons shared by the tests
+ */
+public final class TestMatrices {
+
+	private TestMatrices() {
+	}
+
+	/*
+	 * Elements uniform in [-0.5, 0.5), drawn row by row
+	 */
+	public static OriginalMatrix randomMatrix(int rows, int columns, long seed) {
+		Random random = new Random(seed);
+		double[][] contents = new double[rows][columns];
+		for (double[] row : contents) {
+			for (int j = 0; j < columns; j++) {
+				row[j] = random.nextDouble() - 0.5;
+			}
+		}
+		return new OriginalMatrix(contents);
+	}
+
+	public static OriginalMatrix randomMatrix(int size, long seed) {
+		return randomMatrix(size, size, seed);
+	}
+
+	/*
+	 * Elements uniform in [-0.5, 0.5), drawn for the lower triangle and
+	 * mirrored
+	 */
+	public static OriginalMatrix randomSymmetric(int size, long seed) {
+		Random random = new Random(seed);
+		double[][] contents = new double[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j <= i; j++) {
+				contents[i][j] = random.nextDouble() - 0.5;
+				contents[j][i] = contents[i][j];
+			}
+		}
+		return new OriginalMatrix(contents);
+	}
+
+	public static void assertMatrixEquals(Matrix expected, Matrix actual, double delta) {
+		assertEquals(expected.rows(), actual.rows());
+		assertEquals(expected.columns(), actual.columns());
+		for (int i = 0; i < expected.rows(); i++) {
+			for (int j = 0; j < expected.columns(); j++) {
+				assertEquals(expected.get(i, j), actual.get(i, j), delta);
+			}
+		}
+	}
+
+	/*
+	 * With delta relative to the size of each expected element, for results
+	 * that grow large
+	 */
+	public static void assertMatrixEqualsRelative(Matrix expected, Matrix actual, double delta) {
+		assertEquals(expected.rows(), actual.rows());
+		assertEquals(expected.columns(), actual.columns());
+		for (int i = 0; i < expected.rows(); i++) {
+			for (int j = 0; j < expected.columns(); j++) {
+				assertEquals(expected.get(i, j), actual.get(i, j), delta * Math.max(1, Math.abs(expected.get(i, j))));
+			}
+		}
+	}
+}